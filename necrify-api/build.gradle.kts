@@ -10,6 +10,14 @@ repositories {
     mavenCentral()
 }
 
+//micro-benchmarks, run with ./gradlew :necrify-api:jmh
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+
 dependencies {
     api(libs.jetbrains.annotations)
     api(libs.eventbus)
@@ -20,8 +28,18 @@ dependencies {
     testImplementation(libs.junit.jupiter.api)
     testRuntimeOnly(libs.junit.jupiter.engine)
     testRuntimeOnly(libs.junit.platform.launcher)
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
 }
 
 tasks.getByName<Test>("test") {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+tasks.register<JavaExec>("jmh") {
+    description = "Runs the micro-benchmarks of the event dispatchers."
+    group = "verification"
+    classpath = jmh.runtimeClasspath
+    mainClass = "org.openjdk.jmh.Main"
+    //e.g. -Pjmh.args="-p listeners=1" to run only some of the benchmarks
+    args = (findProperty("jmh.args") as String?)?.split(" ") ?: emptyList()
+}
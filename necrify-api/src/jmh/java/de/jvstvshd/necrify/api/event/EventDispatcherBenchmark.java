@@ -0,0 +1,104 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.event;
+
+import de.jvstvshd.necrify.api.event.state.NecrifyInitializedEvent;
+import de.jvstvshd.necrify.api.event.state.NecrifyStateEvent;
+import org.greenrobot.eventbus.Logger;
+import org.greenrobot.eventbus.Subscribe;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
+/**
+ * Compares the time needed to dispatch an event synchronously with the {@link EventDispatcher event bus dispatcher}
+ * and the {@link MethodHandleEventDispatcher}. Every listener subscribes to the dispatched event and to one of its
+ * supertypes, so the lookup of supertype subscribers is included.
+ * <p>Run with {@code ./gradlew :necrify-api:jmh}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventDispatcherBenchmark {
+
+    private static final Logger SILENT = new Logger() {
+        @Override
+        public void log(Level level, String msg) {
+        }
+
+        @Override
+        public void log(Level level, String msg, Throwable th) {
+        }
+    };
+
+    @Param({"eventbus", "method-handles"})
+    public String dispatcher;
+
+    @Param({"1", "10"})
+    public int listeners;
+
+    private ExecutorService executor;
+    private EventDispatcher eventDispatcher;
+
+    @Setup
+    public void setup() {
+        executor = Executors.newSingleThreadExecutor();
+        eventDispatcher = switch (dispatcher) {
+            case "eventbus" -> new EventDispatcher(executor, SILENT);
+            case "method-handles" -> new MethodHandleEventDispatcher(executor, SILENT);
+            default -> throw new IllegalArgumentException("Unknown dispatcher " + dispatcher);
+        };
+        for (int i = 0; i < listeners; i++) {
+            eventDispatcher.register(new Listener());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public NecrifyEvent dispatch() {
+        var event = new NecrifyInitializedEvent();
+        eventDispatcher.dispatch(event);
+        return event;
+    }
+
+    public static class Listener {
+
+        public long calls;
+
+        @Subscribe
+        public void onInitialized(NecrifyInitializedEvent event) {
+            calls++;
+        }
+
+        @Subscribe
+        public void onStateEvent(NecrifyStateEvent event) {
+            calls++;
+        }
+    }
+}
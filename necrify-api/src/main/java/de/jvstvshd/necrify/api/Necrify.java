@@ -20,6 +20,9 @@ package de.jvstvshd.necrify.api;
 
 import de.jvstvshd.necrify.api.event.EventDispatcher;
 import de.jvstvshd.necrify.api.message.MessageProvider;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
+import de.jvstvshd.necrify.api.metrics.ExecutorStatistics;
+import de.jvstvshd.necrify.api.metrics.MuteDeliveryStatistics;
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import de.jvstvshd.necrify.api.punishment.PunishmentManager;
 import de.jvstvshd.necrify.api.punishment.util.PlayerResolver;
@@ -28,6 +31,7 @@ import de.jvstvshd.necrify.api.user.UserManager;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -200,4 +204,40 @@ public interface Necrify {
      * @since 1.2.3
      */
     void setTemplateManager(@NotNull TemplateManager templateManager);
+
+    /**
+     * Returns the statistics of all caches used by this system, keyed by the name of the respective cache. The returned
+     * statistics are a snapshot and will not be updated.
+     *
+     * @return the statistics of all caches of this system.
+     * @since 1.2.6
+     */
+    @NotNull
+    default Map<String, CacheStatistics> getCacheStatistics() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the statistics of all executors used by this system, keyed by the workload the respective executor is
+     * responsible for. The returned statistics are a snapshot and will not be updated.
+     *
+     * @return the statistics of all executors of this system.
+     * @since 1.2.6
+     */
+    @NotNull
+    default Map<String, ExecutorStatistics> getExecutorStatistics() {
+        return Map.of();
+    }
+
+    /**
+     * Returns the statistics of the delivery of mute data to sub-servers, keyed by the name of the respective server.
+     * The returned statistics are a snapshot and will not be updated.
+     *
+     * @return the statistics of the delivery of mute data to all sub-servers.
+     * @since 1.2.6
+     */
+    @NotNull
+    default Map<String, MuteDeliveryStatistics> getMuteDeliveryStatistics() {
+        return Map.of();
+    }
 }
\ No newline at end of file
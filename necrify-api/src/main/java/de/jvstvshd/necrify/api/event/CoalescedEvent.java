@@ -0,0 +1,86 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.event;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Represents a burst of events that were merged by the {@link EventDispatcher} because they share the same key and were
+ * dispatched within a short window. This event is only dispatched for event types that were registered through
+ * {@link EventDispatcher#coalesce(Class, java.util.function.Function, java.time.Duration)}. The merged events themselves
+ * are still dispatched individually as soon as they occur; listening to this event instead allows reacting only once per burst.
+ *
+ * @param <E> the type of the merged events.
+ * @since 1.2.6
+ */
+public class CoalescedEvent<E extends NecrifyEvent> extends NecrifyEvent {
+
+    private final Class<E> eventType;
+    private final Object key;
+    private final List<E> events;
+
+    public CoalescedEvent(@NotNull Class<E> eventType, @NotNull Object key, @NotNull List<E> events) {
+        super("coalesced_event");
+        this.eventType = eventType;
+        this.key = key;
+        this.events = List.copyOf(events);
+    }
+
+    /**
+     * Gets the type the merged events were registered for. This may be a supertype of the actual events' classes.
+     *
+     * @return the type the merged events were registered for.
+     */
+    @NotNull
+    public Class<E> getEventType() {
+        return eventType;
+    }
+
+    /**
+     * Gets the key all merged events share.
+     *
+     * @return the key all merged events share.
+     */
+    @NotNull
+    public Object getKey() {
+        return key;
+    }
+
+    /**
+     * Gets all merged events in the order they were dispatched. This list is never empty.
+     *
+     * @return an unmodifiable list of all merged events.
+     */
+    @NotNull
+    public List<E> getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the last of the merged events.
+     *
+     * @return the last of the merged events.
+     */
+    @NotNull
+    public E getLatest() {
+        return events.getLast();
+    }
+}
@@ -24,9 +24,19 @@ import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 import org.jetbrains.annotations.NotNull;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Level;
 
 /**
  * The event dispatcher is used to dispatch events to the event bus. Events may be cancelled or dispatched synchronously or asynchronously.
@@ -40,6 +50,7 @@ public class EventDispatcher {
 
     private final EventBus eventbus;
     private final ExecutorService executorService;
+    private final List<Coalescer<?>> coalescers = new CopyOnWriteArrayList<>();
 
     /**
      * Creates a new event dispatcher that can be customized completely.
@@ -54,6 +65,19 @@ public class EventDispatcher {
         this.executorService = executorService;
     }
 
+    /**
+     * Creates a new event dispatcher that does not use an event bus. This is meant for subclasses that deliver events
+     * themselves and thus override {@link #dispatch(NecrifyEvent)}, {@link #register(Object)}, {@link #unregister(Object)}
+     * and {@link #cancelEvent(NecrifyEvent)}.
+     *
+     * @param executorService The executor service to use for asynchronous event dispatching.
+     * @since 1.2.6
+     */
+    protected EventDispatcher(ExecutorService executorService) {
+        this.eventbus = null;
+        this.executorService = executorService;
+    }
+
     /**
      * Creates a new event dispatcher with the given executor service and logger. This event bus does not log messages
      * if an dispatched event has no subscriber and does not send an event if no subscriber is registered.
@@ -79,11 +103,17 @@ public class EventDispatcher {
      * Dispatches the given event synchronously. This method will block until all listeners have been executed. Listener
      * methods registered with {@link org.greenrobot.eventbus.ThreadMode#ASYNC} or {@link ThreadMode#BACKGROUND} will be executed
      * asynchronously through the given {@link org.greenrobot.eventbus.EventBusBuilder#executorService(ExecutorService) eventbus executor}; thus the method will not block until these listeners have been executed.
+     * <p>If the executor rejects an asynchronous listener, the event bus stops delivering the event; this is logged.</p>
      *
      * @param event The event to dispatch.
      */
     public void dispatch(NecrifyEvent event) {
-        eventbus.post(event.setExecutingDispatcher(this));
+        try {
+            eventbus.post(event.setExecutingDispatcher(this));
+        } catch (RejectedExecutionException e) {
+            getLogger().log(Level.WARNING, "Could not deliver event " + event.getClass() + " to all subscribers since the executor is saturated", e);
+        }
+        offerToCoalescers(event);
     }
 
     /**
@@ -92,17 +122,81 @@ public class EventDispatcher {
      * asynchronously; thus the method will not block until these listeners have been executed.
      *
      * @param event The event to dispatch.
-     * @return A future that will be completed when the event has been dispatched.
+     * @return A future that will be completed when the event has been dispatched, or completed exceptionally if the
+     * executor rejected the event.
      */
     public CompletableFuture<Void> dispatchAsync(NecrifyEvent event) {
         var future = new CompletableFuture<Void>();
-        executorService.execute(() -> {
-            dispatch(event);
-            future.complete(null);
-        });
+        try {
+            executorService.execute(() -> {
+                dispatch(event);
+                future.complete(null);
+            });
+        } catch (RejectedExecutionException e) {
+            getLogger().log(Level.WARNING, "Could not dispatch event " + event.getClass() + " since the executor is saturated", e);
+            future.completeExceptionally(e);
+        }
         return future;
     }
 
+    /**
+     * Enables coalescing for events of the given type. Every event of this type (including subclasses) is still dispatched
+     * as usual. Additionally, events with the same key are collected for the given window, starting with the first of them.
+     * After the window, a single {@link CoalescedEvent} containing all collected events is dispatched. Listeners that only
+     * need to react once per burst of events, e.g. to recalculate some state of a user, should listen to that event instead.
+     * <p>Events are collected after they have been delivered to all listeners. Events that were cancelled by a listener
+     * and events for which the key function returns {@code null} are not coalesced. Coalesced events are dispatched from
+     * a thread of the {@link #getExecutorService() executor service}.</p>
+     *
+     * @param eventType   the type of events to coalesce.
+     * @param keyFunction the function to determine the key events are merged by, e.g. the user's uuid.
+     * @param window      the time events are collected for, starting with the first event of a key.
+     * @param <E>         the type of events to coalesce.
+     * @since 1.2.6
+     */
+    public <E extends NecrifyEvent> void coalesce(@NotNull Class<E> eventType, @NotNull Function<? super E, ?> keyFunction, @NotNull Duration window) {
+        coalescers.add(new Coalescer<>(Objects.requireNonNull(eventType, "eventType must not be null"),
+                Objects.requireNonNull(keyFunction, "keyFunction must not be null"), Objects.requireNonNull(window, "window must not be null")));
+    }
+
+    /**
+     * Passes the given event to all coalescing stages registered through {@link #coalesce(Class, Function, Duration)}.
+     * Subclasses that override {@link #dispatch(NecrifyEvent)} must call this method for every dispatched event after it
+     * has been delivered to all listeners. Cancelled events are ignored.
+     *
+     * @param event the event that was dispatched.
+     * @since 1.2.6
+     */
+    protected final void offerToCoalescers(NecrifyEvent event) {
+        if (coalescers.isEmpty() || event instanceof CoalescedEvent<?> || event.isCancelled()) {
+            return;
+        }
+        for (Coalescer<?> coalescer : coalescers) {
+            coalescer.offer(event);
+        }
+    }
+
+    /**
+     * Returns the executor service used for asynchronous event dispatching.
+     *
+     * @return the executor service.
+     * @since 1.2.6
+     */
+    protected ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Returns the logger used for problems with delivering events, e.g. if the executor service is saturated. Subclasses
+     * created without an event bus must override this method.
+     *
+     * @return the logger.
+     * @since 1.2.6
+     */
+    protected Logger getLogger() {
+        return eventbus.getLogger();
+    }
+
     /**
      * Registers the given listener to the event bus. The listener will be able to listen to events via subscribed methods.
      * These methods must be annotated with {@link Subscribe} and must have a single parameter of the event type.
@@ -132,4 +226,56 @@ public class EventDispatcher {
     public void cancelEvent(@NotNull NecrifyEvent event) {
         eventbus.cancelEventDelivery(Objects.requireNonNull(event, "event must not be null in order to get cancelled"));
     }
+
+    private final class Coalescer<E extends NecrifyEvent> {
+
+        private final Class<E> eventType;
+        private final Function<? super E, ?> keyFunction;
+        private final Duration window;
+        private final Map<Object, List<E>> pending = new ConcurrentHashMap<>();
+
+        private Coalescer(Class<E> eventType, Function<? super E, ?> keyFunction, Duration window) {
+            this.eventType = eventType;
+            this.keyFunction = keyFunction;
+            this.window = window;
+        }
+
+        private void offer(NecrifyEvent event) {
+            if (!eventType.isInstance(event)) {
+                return;
+            }
+            var typed = eventType.cast(event);
+            var key = keyFunction.apply(typed);
+            if (key == null) {
+                return;
+            }
+            pending.compute(key, (_, events) -> {
+                if (events == null) {
+                    events = new ArrayList<>();
+                    CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS, task -> execute(key, task))
+                            .execute(() -> flush(key));
+                }
+                events.add(typed);
+                return events;
+            });
+        }
+
+        private void execute(Object key, Runnable flush) {
+            try {
+                executorService.execute(flush);
+            } catch (RejectedExecutionException e) {
+                //the events of this key are dropped, but later events of the same key start a new window
+                var dropped = pending.remove(key);
+                getLogger().log(Level.WARNING, "Dropped " + (dropped == null ? 0 : dropped.size()) + " coalesced events of type "
+                        + eventType + " since the executor is saturated", e);
+            }
+        }
+
+        private void flush(Object key) {
+            var events = pending.remove(key);
+            if (events != null) {
+                dispatch(new CoalescedEvent<>(eventType, key, events));
+            }
+        }
+    }
 }
@@ -0,0 +1,356 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.event;
+
+import org.greenrobot.eventbus.EventBusException;
+import org.greenrobot.eventbus.Logger;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * An event dispatcher that delivers events without an {@link org.greenrobot.eventbus.EventBus}. Subscriber methods are
+ * looked up once when a listener is registered and invoked through {@link MethodHandle}s. For every event class, the
+ * subscribers of the class itself and all of its supertypes are combined into one array on the first dispatch, so
+ * dispatching an event neither uses reflection nor looks up subscribers.
+ * <p>Subscriber methods are declared the same way as for the default dispatcher: they must be public, annotated with
+ * {@link Subscribe} and have exactly one parameter. The {@link Subscribe#priority() priority} and
+ * {@link Subscribe#threadMode() thread mode} behave like they do with the event bus:</p>
+ * <ul>
+ *     <li>{@link ThreadMode#POSTING}, {@link ThreadMode#MAIN} and {@link ThreadMode#MAIN_ORDERED} subscribers are
+ *     invoked on the dispatching thread, since there is no main thread.</li>
+ *     <li>{@link ThreadMode#BACKGROUND} subscribers are invoked one after another on the executor service.</li>
+ *     <li>{@link ThreadMode#ASYNC} subscribers are invoked independently of each other on the executor service.</li>
+ * </ul>
+ * Sticky events are not supported.
+ *
+ * @since 1.2.6
+ */
+public class MethodHandleEventDispatcher extends EventDispatcher {
+
+    private static final MethodType HANDLER_TYPE = MethodType.methodType(void.class, Object.class);
+
+    private final Logger logger;
+    private final Map<Class<?>, List<Subscription>> subscriptionsByEventType = new HashMap<>();
+    private final Map<Object, List<Subscription>> subscriptionsBySubscriber = new IdentityHashMap<>();
+    /**
+     * Subscribers to invoke per event class, including those subscribed to its supertypes. This is replaced whenever
+     * listeners are registered or unregistered.
+     */
+    private volatile Map<Class<?>, Subscription[]> dispatchCache = new ConcurrentHashMap<>();
+    private final ThreadLocal<PostingState> postingState = ThreadLocal.withInitial(PostingState::new);
+    private final Queue<Runnable> backgroundQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean backgroundRunning = new AtomicBoolean();
+
+    /**
+     * Creates a new event dispatcher with the given executor service and logger.
+     *
+     * @param executorService The executor service to use for asynchronous event dispatching and for listeners with
+     *                        {@link ThreadMode#ASYNC} or {@link ThreadMode#BACKGROUND}.
+     * @param logger          The logger to use for exceptions thrown by listeners.
+     */
+    public MethodHandleEventDispatcher(@NotNull ExecutorService executorService, @NotNull Logger logger) {
+        super(executorService);
+        this.logger = logger;
+    }
+
+    @Override
+    public void dispatch(NecrifyEvent event) {
+        event.setExecutingDispatcher(this);
+        var cache = dispatchCache;
+        var subscriptions = cache.get(event.getClass());
+        if (subscriptions == null) {
+            subscriptions = cache.computeIfAbsent(event.getClass(), this::collectSubscriptions);
+        }
+        if (subscriptions.length == 0) {
+            offerToCoalescers(event);
+            return;
+        }
+        var state = postingState.get();
+        if (state.posting) {
+            //an event dispatched by a listener is delivered after the current one, like the event bus does
+            state.queue.add(event);
+            return;
+        }
+        state.posting = true;
+        try {
+            deliver(event, subscriptions, state);
+            offerToCoalescers(event);
+            NecrifyEvent queued;
+            while ((queued = state.queue.poll()) != null) {
+                var queuedSubscriptions = dispatchCache.computeIfAbsent(queued.getClass(), this::collectSubscriptions);
+                deliver(queued, queuedSubscriptions, state);
+                offerToCoalescers(queued);
+            }
+        } finally {
+            state.posting = false;
+            state.queue.clear();
+        }
+    }
+
+    private void deliver(NecrifyEvent event, Subscription[] subscriptions, PostingState state) {
+        state.event = event;
+        try {
+            for (Subscription subscription : subscriptions) {
+                state.subscription = subscription;
+                switch (subscription.threadMode) {
+                    case POSTING, MAIN, MAIN_ORDERED -> invoke(subscription, event);
+                    case BACKGROUND -> enqueueBackground(() -> invoke(subscription, event));
+                    case ASYNC -> invokeAsync(subscription, event);
+                }
+                if (state.canceled) {
+                    break;
+                }
+            }
+        } finally {
+            state.event = null;
+            state.subscription = null;
+            state.canceled = false;
+        }
+    }
+
+    private void invoke(Subscription subscription, NecrifyEvent event) {
+        if (!subscription.active) {
+            return;
+        }
+        try {
+            subscription.handle.invokeExact((Object) event);
+        } catch (Throwable t) {
+            logger.log(Level.SEVERE, "Could not dispatch event: " + event.getClass() + " to subscribing class "
+                    + subscription.subscriber.getClass(), t);
+        }
+    }
+
+    private void invokeAsync(Subscription subscription, NecrifyEvent event) {
+        try {
+            getExecutorService().execute(() -> invoke(subscription, event));
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "Could not dispatch event: " + event.getClass() + " to subscribing class "
+                    + subscription.subscriber.getClass() + " since the executor is saturated", e);
+        }
+    }
+
+    private void enqueueBackground(Runnable task) {
+        backgroundQueue.add(task);
+        if (backgroundRunning.compareAndSet(false, true)) {
+            startBackground();
+        }
+    }
+
+    private void startBackground() {
+        try {
+            getExecutorService().execute(this::runBackground);
+        } catch (RejectedExecutionException e) {
+            //the queued listeners are invoked as soon as the next background listener could be scheduled
+            backgroundRunning.set(false);
+            logger.log(Level.WARNING, "Could not schedule background subscribers since the executor is saturated", e);
+        }
+    }
+
+    private void runBackground() {
+        try {
+            Runnable task;
+            while ((task = backgroundQueue.poll()) != null) {
+                task.run();
+            }
+        } finally {
+            backgroundRunning.set(false);
+            //a task may have been enqueued after the queue was found to be empty
+            if (!backgroundQueue.isEmpty() && backgroundRunning.compareAndSet(false, true)) {
+                startBackground();
+            }
+        }
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return logger;
+    }
+
+    @Override
+    public synchronized void register(@NotNull Object listener) {
+        Objects.requireNonNull(listener, "listener must not be null in order to get registered");
+        if (subscriptionsBySubscriber.containsKey(listener)) {
+            throw new EventBusException("Subscriber " + listener.getClass() + " already registered");
+        }
+        var subscriptions = findSubscriptions(listener);
+        subscriptionsBySubscriber.put(listener, subscriptions);
+        for (Subscription subscription : subscriptions) {
+            var list = subscriptionsByEventType.computeIfAbsent(subscription.eventType, _ -> new ArrayList<>());
+            //keep the list ordered by descending priority; subscriptions with equal priority keep the order of registration
+            int index = 0;
+            while (index < list.size() && list.get(index).priority >= subscription.priority) {
+                index++;
+            }
+            list.add(index, subscription);
+        }
+        dispatchCache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public synchronized void unregister(@NotNull Object listener) {
+        Objects.requireNonNull(listener, "listener must not be null in order to get unregistered");
+        var subscriptions = subscriptionsBySubscriber.remove(listener);
+        if (subscriptions == null) {
+            logger.log(Level.WARNING, "Subscriber to unregister was not registered before: " + listener.getClass());
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.active = false;
+            var list = subscriptionsByEventType.get(subscription.eventType);
+            list.remove(subscription);
+            if (list.isEmpty()) {
+                subscriptionsByEventType.remove(subscription.eventType);
+            }
+        }
+        dispatchCache = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void cancelEvent(@NotNull NecrifyEvent event) {
+        Objects.requireNonNull(event, "event must not be null in order to get cancelled");
+        var state = postingState.get();
+        if (!state.posting || state.subscription == null) {
+            throw new EventBusException("This method may only be called from inside event handling methods on the posting thread");
+        }
+        if (state.event != event) {
+            throw new EventBusException("Only the currently handled event may be aborted");
+        }
+        if (state.subscription.threadMode != ThreadMode.POSTING) {
+            throw new EventBusException(" event handlers may only abort the incoming event");
+        }
+        state.canceled = true;
+    }
+
+    /**
+     * Collects the subscribers of the given event class and all of its supertypes in the order the event bus would
+     * invoke them: the event class itself first, followed by its interfaces and then its superclasses.
+     */
+    private synchronized Subscription[] collectSubscriptions(Class<?> eventClass) {
+        List<Subscription> result = new ArrayList<>();
+        for (Class<?> type : eventTypes(eventClass)) {
+            var subscriptions = subscriptionsByEventType.get(type);
+            if (subscriptions != null) {
+                result.addAll(subscriptions);
+            }
+        }
+        return result.toArray(Subscription[]::new);
+    }
+
+    private static Set<Class<?>> eventTypes(Class<?> eventClass) {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> clazz = eventClass; clazz != null; clazz = clazz.getSuperclass()) {
+            types.add(clazz);
+            addInterfaces(types, clazz.getInterfaces());
+        }
+        return types;
+    }
+
+    private static void addInterfaces(Set<Class<?>> types, Class<?>[] interfaces) {
+        for (Class<?> anInterface : interfaces) {
+            if (types.add(anInterface)) {
+                addInterfaces(types, anInterface.getInterfaces());
+            }
+        }
+    }
+
+    private static List<Subscription> findSubscriptions(Object listener) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Class<?> clazz = listener.getClass(); clazz != null && !isSystemClass(clazz); clazz = clazz.getSuperclass()) {
+            for (Method method : clazz.getDeclaredMethods()) {
+                var subscribe = method.getAnnotation(Subscribe.class);
+                if (subscribe == null) {
+                    continue;
+                }
+                int modifiers = method.getModifiers();
+                if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || Modifier.isAbstract(modifiers)
+                        || method.isBridge() || method.isSynthetic()) {
+                    throw new EventBusException(method.getDeclaringClass().getName() + "." + method.getName() +
+                            " is a illegal @Subscribe method: must be public, non-static, and non-abstract");
+                }
+                if (method.getParameterCount() != 1) {
+                    throw new EventBusException("@Subscribe method " + method.getDeclaringClass().getName() + "." + method.getName() +
+                            " must have exactly 1 parameter but has " + method.getParameterCount());
+                }
+                var eventType = method.getParameterTypes()[0];
+                //methods overridden in a subclass are only subscribed once
+                if (!seen.add(method.getName() + ">" + eventType.getName())) {
+                    continue;
+                }
+                subscriptions.add(new Subscription(listener, eventType, handle(method, listener), subscribe.threadMode(), subscribe.priority()));
+            }
+        }
+        return subscriptions;
+    }
+
+    private static boolean isSystemClass(Class<?> clazz) {
+        var name = clazz.getName();
+        return name.startsWith("java.") || name.startsWith("javax.") || name.startsWith("android.") || name.startsWith("androidx.");
+    }
+
+    private static MethodHandle handle(Method method, Object listener) {
+        try {
+            method.trySetAccessible();
+            return MethodHandles.lookup().unreflect(method).bindTo(listener).asType(HANDLER_TYPE);
+        } catch (IllegalAccessException e) {
+            throw new EventBusException("Could not access @Subscribe method " + method.getDeclaringClass().getName() + "." + method.getName(), e);
+        }
+    }
+
+    private static final class Subscription {
+
+        private final Object subscriber;
+        private final Class<?> eventType;
+        private final MethodHandle handle;
+        private final ThreadMode threadMode;
+        private final int priority;
+        private volatile boolean active = true;
+
+        private Subscription(Object subscriber, Class<?> eventType, MethodHandle handle, ThreadMode threadMode, int priority) {
+            this.subscriber = subscriber;
+            this.eventType = eventType;
+            this.handle = handle;
+            this.threadMode = threadMode;
+            this.priority = priority;
+        }
+    }
+
+    private static final class PostingState {
+
+        private final Queue<NecrifyEvent> queue = new ArrayDeque<>();
+        private boolean posting;
+        private boolean canceled;
+        private NecrifyEvent event;
+        private Subscription subscription;
+    }
+}
@@ -32,6 +32,7 @@ public abstract class NecrifyEvent {
     private final String name;
     private EventOrigin origin = EventOrigin.nullOrigin();
     private EventDispatcher executingDispatcher = null;
+    private volatile boolean cancelled = false;
 
     /**
      * Creates a new event with the given name. The name should be unique and describe the event.
@@ -57,6 +58,17 @@ public abstract class NecrifyEvent {
         if (executingDispatcher != null) {
             executingDispatcher.cancelEvent(this);
         }
+        cancelled = true;
+    }
+
+    /**
+     * Returns whether this event has been cancelled by a listener.
+     *
+     * @return true if this event has been cancelled, otherwise false.
+     * @since 1.2.6
+     */
+    public boolean isCancelled() {
+        return cancelled;
     }
 
     /**
@@ -0,0 +1,41 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.metrics;
+
+/**
+ * A snapshot of the statistics of one of the system's caches. All counts are cumulative since the cache was created.
+ *
+ * @param size          the approximate amount of entries currently held by the cache
+ * @param hitCount      the amount of lookups that returned a cached value
+ * @param missCount     the amount of lookups that did not find a cached value
+ * @param evictionCount the amount of entries that were evicted due to the cache's size or expiration policy
+ * @since 1.2.6
+ */
+public record CacheStatistics(long size, long hitCount, long missCount, long evictionCount) {
+
+    /**
+     * Returns the ratio of lookups that returned a cached value. If there were no lookups yet, this returns 1.
+     *
+     * @return the hit rate, ranging from 0 to 1
+     */
+    public double hitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.metrics;
+
+/**
+ * A snapshot of the statistics of one of the system's executors. All counts are cumulative since the executor was created.
+ *
+ * @param active         the amount of tasks currently being executed
+ * @param queued         the amount of tasks currently waiting for execution
+ * @param completed      the amount of tasks that have been executed
+ * @param rejected       the amount of tasks that were rejected because the queue was full
+ * @param maxConcurrency the maximum amount of tasks that may be executed at the same time
+ * @param queueCapacity  the maximum amount of tasks that may wait for execution
+ * @since 1.2.6
+ */
+public record ExecutorStatistics(int active, int queued, long completed, long rejected, int maxConcurrency, int queueCapacity) {
+
+    /**
+     * Returns the ratio of the queue's capacity that is currently in use.
+     *
+     * @return the utilization of the queue, ranging from 0 to 1
+     */
+    public double queueUtilization() {
+        return queueCapacity == 0 ? 0.0 : (double) queued / queueCapacity;
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.metrics;
+
+/**
+ * A snapshot of the statistics of the delivery of mute data to one of the sub-servers. All counts are cumulative since
+ * the system was started. Only deliveries to sub-servers that acknowledge mute data are counted.
+ *
+ * @param sent                 the amount of mute data entries that were sent for the first time
+ * @param acknowledged         the amount of mute data entries the sub-server acknowledged
+ * @param retried              the amount of mute data entries that were sent again because they were not acknowledged in time
+ * @param failed               the amount of mute data entries that were given up on after too many attempts
+ * @param pending              the amount of mute data entries currently waiting for an acknowledgement
+ * @param averageLatencyMillis the average time in milliseconds between the first attempt and the acknowledgement
+ * @param maxLatencyMillis     the longest time in milliseconds between the first attempt and the acknowledgement
+ * @since 1.2.6
+ */
+public record MuteDeliveryStatistics(long sent, long acknowledged, long retried, long failed, int pending,
+                                     long averageLatencyMillis, long maxLatencyMillis) {
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.punishment;
+
+import de.jvstvshd.necrify.api.duration.PunishmentDuration;
+import de.jvstvshd.necrify.api.user.NecrifyUser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The data required to instantiate a punishment through a {@link PunishmentFactory}. This is the typed counterpart of
+ * the generic {@code Map<String, Object>} accepted by {@link PunishmentFactory#createPunishment(PunishmentType, Map)}.
+ *
+ * @param punishmentUuid the uuid of the punishment
+ * @param user           the user affected by the punishment
+ * @param reason         the reason of the punishment, may be null if {@code serializedReason} is given
+ * @param serializedReason the reason of the punishment in MiniMessage format, which allows factories to deserialize it
+ *                       lazily; ignored if {@code reason} is given
+ * @param duration       the duration of the punishment, may be null for punishments without duration (e.g. kicks)
+ * @param successorId    the uuid of the punishment's successor, if it has one
+ * @param successor      the successor of the punishment, if it has one and it is already instantiated
+ * @param issuedAt       the time the punishment was issued at, may be null to use the current time
+ * @since 1.2.6
+ */
+public record PunishmentData(@NotNull UUID punishmentUuid, @NotNull NecrifyUser user, @Nullable Component reason,
+                             @Nullable String serializedReason, @Nullable PunishmentDuration duration, @Nullable UUID successorId,
+                             @Nullable Punishment successor, @Nullable LocalDateTime issuedAt) {
+
+    /**
+     * Creates the data for a new punishment that has neither a successor nor was issued yet.
+     *
+     * @param punishmentUuid the uuid of the punishment
+     * @param user           the user affected by the punishment
+     * @param reason         the reason of the punishment
+     * @param duration       the duration of the punishment
+     */
+    public PunishmentData(@NotNull UUID punishmentUuid, @NotNull NecrifyUser user, @Nullable Component reason,
+                          @Nullable PunishmentDuration duration) {
+        this(punishmentUuid, user, reason, null, duration, null, null, null);
+    }
+
+    /**
+     * Returns a copy of this data with the given successor instance.
+     *
+     * @param successor the successor of the punishment
+     * @return a copy of this data with the given successor
+     */
+    @NotNull
+    public PunishmentData withSuccessor(@Nullable Punishment successor) {
+        return new PunishmentData(punishmentUuid, user, reason, serializedReason, duration, successorId, successor, issuedAt);
+    }
+
+    /**
+     * Returns the reason of the punishment, deserializing {@link #serializedReason()} if no component is present.
+     *
+     * @return the reason or null if neither a component nor a serialized reason is present
+     */
+    @Nullable
+    public Component resolveReason() {
+        if (reason != null || serializedReason == null) {
+            return reason;
+        }
+        return MiniMessage.miniMessage().deserialize(serializedReason);
+    }
+
+    /**
+     * Converts this data into the generic map representation accepted by {@link PunishmentFactory#createPunishment(PunishmentType, Map)}.
+     * Absent values are not contained in the map.
+     *
+     * @return a mutable map containing the values of this data
+     */
+    @NotNull
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("punishmentUuid", punishmentUuid);
+        map.put("user", user);
+        putIfNotNull(map, "reason", resolveReason());
+        putIfNotNull(map, "duration", duration);
+        putIfNotNull(map, "successorId", successorId);
+        putIfNotNull(map, "successor", successor);
+        putIfNotNull(map, "issued_at", issuedAt);
+        return map;
+    }
+
+    /**
+     * Reads the data from the generic map representation accepted by {@link PunishmentFactory#createPunishment(PunishmentType, Map)}.
+     *
+     * @param map the map containing the data
+     * @return the typed data
+     * @throws ClassCastException if a value is not of the expected type
+     */
+    @NotNull
+    public static PunishmentData fromMap(@NotNull Map<String, Object> map) {
+        return new PunishmentData(
+                (UUID) map.get("punishmentUuid"),
+                (NecrifyUser) map.get("user"),
+                (Component) map.get("reason"),
+                null,
+                (PunishmentDuration) map.get("duration"),
+                (UUID) map.get("successorId"),
+                (Punishment) map.get("successor"),
+                (LocalDateTime) map.get("issued_at"));
+    }
+
+    private static void putIfNotNull(Map<String, Object> map, String key, Object value) {
+        if (value != null) {
+            map.put(key, value);
+        }
+    }
+}
@@ -37,4 +37,18 @@ public interface PunishmentFactory {
      */
     @NotNull
     Punishment createPunishment(@NotNull PunishmentType type, @NotNull Map<String, Object> data);
+
+    /**
+     * Creates a new punishment of the given type with the given typed data. By default, this converts the data to its
+     * map representation and delegates to {@link #createPunishment(PunishmentType, Map)}. Factories should override this
+     * method to avoid this conversion.
+     * @param type the type of the punishment
+     * @param data the data to create the punishment with
+     * @return the created punishment
+     * @since 1.2.6
+     */
+    @NotNull
+    default Punishment createPunishment(@NotNull PunishmentType type, @NotNull PunishmentData data) {
+        return createPunishment(type, data.toMap());
+    }
 }
@@ -70,6 +70,23 @@ public final class PunishmentTypeRegistry {
         return factory.createPunishment(type, data);
     }
 
+    /**
+     * Creates a new punishment of the given type with the given typed data.
+     * @param type the type of the punishment
+     * @param data the data to create the punishment with
+     * @return the created punishment
+     * @throws IllegalStateException if no factory is registered for the given type
+     * @since 1.2.6
+     */
+    @NotNull
+    public static Punishment createPunishment(@NotNull PunishmentType type, @NotNull PunishmentData data) {
+        PunishmentFactory factory = punishmentFactories.get(type);
+        if (factory == null) {
+            throw new IllegalStateException("No factory registered for punishment type: " + type.getName());
+        }
+        return factory.createPunishment(type, data);
+    }
+
     /**
      * Creates a new punishment of the given type with the given data.
      * @param id the ID of the type
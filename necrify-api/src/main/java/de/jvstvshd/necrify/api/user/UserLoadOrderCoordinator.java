@@ -20,16 +20,17 @@ package de.jvstvshd.necrify.api.user;
 
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * A utility class that is responsible for ordering a list of punishments to be loaded in the correct order. This reflects
  * the {@link Punishment#getSuccessor() succession order of punishments} so that every punishment can be instantiated with
  * the instance of its successor and is not referencing a null value.
- * <p>This method only accepts the generic {@code Map<String, Object>} also taken by
- * {@link de.jvstvshd.necrify.api.punishment.PunishmentTypeRegistry#createPunishment(int, Map)} since there are no punishment instances at this point.</p>
+ * <p>Since there are no punishment instances at this point, nodes are either the generic {@code Map<String, Object>} also
+ * taken by {@link de.jvstvshd.necrify.api.punishment.PunishmentTypeRegistry#createPunishment(int, Map)} or arbitrary
+ * objects from which the punishment's id and its successor's id can be extracted.</p>
  * <p>This class uses the Kahn's algorithm to perform a topological sort on the list of punishments. The algorithm is
  * guaranteed to work if the graph is a directed acyclic graph (DAG). If the graph contains a cycle, the algorithm will
  * throw an {@link IllegalStateException}.</p>
@@ -57,38 +58,53 @@ public final class UserLoadOrderCoordinator {
      */
     @NotNull
     public static List<Map<String, Object>> topologicalSort(@NotNull List<Map<String, Object>> nodes) {
-        Map<UUID, Integer> inDegree = new HashMap<>();
-        Map<UUID, List<UUID>> graph = new HashMap<>();
-        List<Map<String, Object>> sortedList = new ArrayList<>();
-
-        for (Map<String, Object> node : nodes) {
-            UUID nodeId = (UUID) node.get("punishmentUuid");
-            UUID successorId = (UUID) node.get("successorId");
-            inDegree.putIfAbsent(nodeId, 0);
-            graph.putIfAbsent(nodeId, new ArrayList<>());
+        return topologicalSort(nodes, node -> (UUID) node.get("punishmentUuid"), node -> (UUID) node.get("successorId"));
+    }
 
-            if (successorId != null) {
-                graph.get(nodeId).add(successorId);
-                inDegree.put(successorId, inDegree.getOrDefault(successorId, 0) + 1);
+    /**
+     * Sorts the list of nodes topologically so that every node is placed after its successor. This runs in linear time
+     * regarding the amount of nodes. Successors that are not contained in the list of nodes are ignored.
+     * @param nodes the list of nodes to be sorted
+     * @param idExtractor a function returning the {@link UUID} of a node's punishment
+     * @param successorExtractor a function returning the {@link UUID} of a node's successor punishment or null if it has none
+     * @param <T> the type of the nodes
+     * @return the sorted list of nodes that respects the succession order of the punishments
+     * @throws IllegalStateException if the graph contains a cycle
+     * @since 1.2.6
+     */
+    @NotNull
+    public static <T> List<T> topologicalSort(@NotNull List<T> nodes, @NotNull Function<T, UUID> idExtractor,
+                                              @NotNull Function<T, UUID> successorExtractor) {
+        Map<UUID, T> nodesById = HashMap.newHashMap(nodes.size());
+        for (T node : nodes) {
+            nodesById.put(idExtractor.apply(node), node);
+        }
+        Map<UUID, Integer> inDegree = HashMap.newHashMap(nodes.size());
+        for (T node : nodes) {
+            UUID successorId = successorExtractor.apply(node);
+            if (successorId != null && nodesById.containsKey(successorId)) {
+                inDegree.merge(successorId, 1, Integer::sum);
             }
         }
 
-        Queue<UUID> queue = new LinkedList<>();
-        for (UUID nodeId : inDegree.keySet()) {
-            if (inDegree.get(nodeId) == 0) {
-                queue.add(nodeId);
+        Deque<T> queue = new ArrayDeque<>();
+        for (T node : nodes) {
+            if (!inDegree.containsKey(idExtractor.apply(node))) {
+                queue.add(node);
             }
         }
 
+        List<T> sortedList = new ArrayList<>(nodes.size());
         while (!queue.isEmpty()) {
-            UUID nodeId = queue.poll();
-            sortedList.add(findNodeById(nodes, nodeId));
-
-            for (UUID neighbor : graph.get(nodeId)) {
-                inDegree.put(neighbor, inDegree.get(neighbor) - 1);
-                if (inDegree.get(neighbor) == 0) {
-                    queue.add(neighbor);
-                }
+            T node = queue.poll();
+            sortedList.add(node);
+            UUID successorId = successorExtractor.apply(node);
+            if (successorId == null) {
+                continue;
+            }
+            T successor = nodesById.get(successorId);
+            if (successor != null && inDegree.merge(successorId, -1, Integer::sum) == 0) {
+                queue.add(successor);
             }
         }
 
@@ -98,20 +114,4 @@ public final class UserLoadOrderCoordinator {
         Collections.reverse(sortedList);
         return sortedList;
     }
-
-    /**
-     * Finds a node by its {@link UUID punishmentUuid} in the list of nodes.
-     * @param nodes the list of nodes
-     * @param nodeId the {@link UUID punishmentUuid} of the node to be found
-     * @return the node with the given {@link UUID punishmentUuid} or {@code null} if no such node exists
-     */
-    @Nullable
-    private static Map<String, Object> findNodeById(List<Map<String, Object>> nodes, UUID nodeId) {
-        for (Map<String, Object> node : nodes) {
-            if (nodeId.equals(node.get("punishmentUuid"))) {
-                return node;
-            }
-        }
-        return null;
-    }
 }
@@ -21,9 +21,7 @@ package de.jvstvshd.necrify.api.user;
 import de.jvstvshd.necrify.api.Necrify;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Collection;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -113,6 +111,59 @@ public interface UserManager {
     @NotNull
     CompletableFuture<Optional<NecrifyUser>> loadOrCreateUser(@NotNull String player);
 
+    /**
+     * Loads the user with the given uuid or creates a new user with the given name if not found. Other than
+     * {@link #loadOrCreateUser(UUID)}, this does not need to look up the name of the user anywhere, which makes it the
+     * preferred variant if the name is already known, e.g. because the player is currently connecting.
+     *
+     * @param uuid the uuid of the user
+     * @param name the current name of the user
+     * @return a future containing the user or an empty Optional if there is no Minecraft account associated with the uuid
+     * @since 1.2.6
+     */
+    @NotNull
+    default CompletableFuture<Optional<NecrifyUser>> loadOrCreateUser(@NotNull UUID uuid, @NotNull String name) {
+        return loadOrCreateUser(uuid);
+    }
+
+    /**
+     * Loads all users with the given uuids from the underlying storage asynchronously. Users that are already online or
+     * cached are taken from the cache. Implementations should load the remaining users in as few batches as possible
+     * instead of loading them one by one.
+     *
+     * @param uuids the uuids of the users
+     * @return a future containing a map of all found users, keyed by their uuid; users that could not be found are absent
+     * @since 1.2.6
+     */
+    @NotNull
+    default CompletableFuture<Map<UUID, NecrifyUser>> loadUsers(@NotNull Collection<UUID> uuids) {
+        return collect(uuids.stream().distinct().map(this::loadUser).toList());
+    }
+
+    /**
+     * Loads all users with the given uuids or creates those that are not found. This behaves like {@link #loadUsers(Collection)},
+     * with each user that could not be loaded being created like in {@link #loadOrCreateUser(UUID)}.
+     *
+     * @param uuids the uuids of the users
+     * @return a future containing a map of all found or created users, keyed by their uuid; users that could neither be
+     * found nor created are absent
+     * @since 1.2.6
+     */
+    @NotNull
+    default CompletableFuture<Map<UUID, NecrifyUser>> loadOrCreateUsers(@NotNull Collection<UUID> uuids) {
+        return collect(uuids.stream().distinct().map(this::loadOrCreateUser).toList());
+    }
+
+    private static CompletableFuture<Map<UUID, NecrifyUser>> collect(List<CompletableFuture<Optional<NecrifyUser>>> futures) {
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            Map<UUID, NecrifyUser> users = new HashMap<>();
+            for (CompletableFuture<Optional<NecrifyUser>> future : futures) {
+                future.join().ifPresent(user -> users.put(user.getUuid(), user));
+            }
+            return users;
+        });
+    }
+
     /**
      * Returns all loaded users.
      *
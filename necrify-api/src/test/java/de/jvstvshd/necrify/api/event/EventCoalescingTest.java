@@ -0,0 +1,178 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.event;
+
+import org.greenrobot.eventbus.Subscribe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventCoalescingTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventCoalescingTest.class);
+    private static final Duration WINDOW = Duration.ofMillis(100);
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private List<EventDispatcher> dispatchers() {
+        return List.of(new EventDispatcher(executor, new Slf4jLogger(logger)),
+                new MethodHandleEventDispatcher(executor, new Slf4jLogger(logger)));
+    }
+
+    @Test
+    public void testBurstIsCoalescedOnce() throws InterruptedException {
+        for (EventDispatcher dispatcher : dispatchers()) {
+            var listener = new CoalescingListener();
+            dispatcher.register(listener);
+            dispatcher.coalesce(TestEvent.class, TestEvent::key, WINDOW);
+            for (int i = 0; i < 5; i++) {
+                dispatcher.dispatch(new TestEvent("a", i));
+            }
+            var coalesced = listener.next();
+            assertEquals("a", coalesced.getKey());
+            assertEquals(TestEvent.class, coalesced.getEventType());
+            assertEquals(List.of(0, 1, 2, 3, 4), ids(coalesced));
+            assertEquals(5, listener.delivered.size(), "events must still be delivered individually");
+            assertNull(listener.coalesced.poll(WINDOW.toMillis() * 3, TimeUnit.MILLISECONDS), "burst was flushed twice");
+        }
+    }
+
+    @Test
+    public void testSecondWindowAfterFlush() throws InterruptedException {
+        for (EventDispatcher dispatcher : dispatchers()) {
+            var listener = new CoalescingListener();
+            dispatcher.register(listener);
+            dispatcher.coalesce(TestEvent.class, TestEvent::key, WINDOW);
+            dispatcher.dispatch(new TestEvent("a", 0));
+            dispatcher.dispatch(new TestEvent("a", 1));
+            assertEquals(List.of(0, 1), ids(listener.next()));
+
+            dispatcher.dispatch(new TestEvent("a", 2));
+            dispatcher.dispatch(new TestEvent("a", 3));
+            dispatcher.dispatch(new TestEvent("a", 4));
+            assertEquals(List.of(2, 3, 4), ids(listener.next()));
+        }
+    }
+
+    @Test
+    public void testKeysAreCoalescedSeparately() throws InterruptedException {
+        for (EventDispatcher dispatcher : dispatchers()) {
+            var listener = new CoalescingListener();
+            dispatcher.register(listener);
+            dispatcher.coalesce(TestEvent.class, TestEvent::key, WINDOW);
+            dispatcher.dispatch(new TestEvent("a", 0));
+            dispatcher.dispatch(new TestEvent("b", 1));
+            dispatcher.dispatch(new TestEvent(null, 2));
+            dispatcher.dispatch(new TestEvent("a", 3));
+            var first = listener.next();
+            var second = listener.next();
+            var byKey = first.getKey().equals("a") ? List.of(first, second) : List.of(second, first);
+            assertEquals(List.of(0, 3), ids(byKey.get(0)));
+            assertEquals(List.of(1), ids(byKey.get(1)));
+            assertNull(listener.coalesced.poll(WINDOW.toMillis() * 3, TimeUnit.MILLISECONDS), "events without key must not be coalesced");
+        }
+    }
+
+    @Test
+    public void testCancelledEventsAreNotCoalesced() throws InterruptedException {
+        for (EventDispatcher dispatcher : dispatchers()) {
+            var listener = new CoalescingListener();
+            dispatcher.register(listener);
+            dispatcher.register(new CancellingListener());
+            dispatcher.coalesce(TestEvent.class, TestEvent::key, WINDOW);
+            dispatcher.dispatch(new TestEvent("a", 0));
+            dispatcher.dispatch(new TestEvent("a", -1));
+            dispatcher.dispatch(new TestEvent("a", 2));
+            assertEquals(List.of(0, 2), ids(listener.next()));
+        }
+    }
+
+    private static List<Integer> ids(CoalescedEvent<?> event) {
+        return event.getEvents().stream().map(e -> ((TestEvent) e).id()).toList();
+    }
+
+    public static class TestEvent extends NecrifyEvent {
+
+        private final String key;
+        private final int id;
+
+        public TestEvent(String key, int id) {
+            super("test_event");
+            this.key = key;
+            this.id = id;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public int id() {
+            return id;
+        }
+    }
+
+    public static class CoalescingListener {
+
+        private final BlockingQueue<CoalescedEvent<?>> coalesced = new LinkedBlockingQueue<>();
+        private final List<TestEvent> delivered = new CopyOnWriteArrayList<>();
+
+        @Subscribe
+        public void onEvent(TestEvent event) {
+            delivered.add(event);
+        }
+
+        @Subscribe
+        public void onCoalesced(CoalescedEvent<?> event) {
+            coalesced.add(event);
+        }
+
+        private CoalescedEvent<?> next() throws InterruptedException {
+            var event = coalesced.poll(5, TimeUnit.SECONDS);
+            assertNotNull(event);
+            return event;
+        }
+    }
+
+    public static class CancellingListener {
+
+        @Subscribe(priority = 1)
+        public void onEvent(TestEvent event) {
+            if (event.id() < 0) {
+                event.cancel();
+            }
+        }
+    }
+}
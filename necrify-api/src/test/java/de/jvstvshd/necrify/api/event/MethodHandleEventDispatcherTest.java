@@ -0,0 +1,178 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.api.event;
+
+import de.jvstvshd.necrify.api.event.state.NecrifyInitializedEvent;
+import de.jvstvshd.necrify.api.event.state.NecrifyPreInitializationEvent;
+import de.jvstvshd.necrify.api.event.state.NecrifyStateEvent;
+import org.greenrobot.eventbus.EventBusException;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MethodHandleEventDispatcherTest {
+
+    private final static Logger logger = LoggerFactory.getLogger(MethodHandleEventDispatcherTest.class);
+    private ExecutorService executor;
+    private EventDispatcher dispatcher;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        dispatcher = new MethodHandleEventDispatcher(executor, new Slf4jLogger(logger));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testPriorityAndCancellation() {
+        var listener = new PriorityListener();
+        dispatcher.register(listener);
+        dispatcher.dispatch(new NecrifyPreInitializationEvent());
+        assertEquals(List.of("higher", "lower"), listener.calls);
+        assertFalse(listener.calls.contains("lowest"), "cancelled event was delivered to a listener with lower priority");
+    }
+
+    @Test
+    public void testSupertypeSubscribers() {
+        var listener = new SupertypeListener();
+        dispatcher.register(listener);
+        dispatcher.dispatch(new NecrifyInitializedEvent());
+        assertEquals(List.of("initialized", "state", "event"), listener.calls);
+    }
+
+    @Test
+    public void testUnregister() {
+        var listener = new SupertypeListener();
+        dispatcher.register(listener);
+        dispatcher.dispatch(new NecrifyInitializedEvent());
+        dispatcher.unregister(listener);
+        dispatcher.dispatch(new NecrifyInitializedEvent());
+        assertEquals(3, listener.calls.size());
+    }
+
+    @Test
+    public void testDuplicateRegistration() {
+        var listener = new SupertypeListener();
+        dispatcher.register(listener);
+        assertThrows(EventBusException.class, () -> dispatcher.register(listener));
+    }
+
+    @Test
+    public void testAsyncSubscriber() throws InterruptedException {
+        var listener = new AsyncListener();
+        dispatcher.register(listener);
+        dispatcher.dispatchAsync(new NecrifyInitializedEvent()).join();
+        assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+        assertNotSame(Thread.currentThread(), listener.thread);
+    }
+
+    @Test
+    public void testExceptionDoesNotStopDelivery() {
+        var listener = new FailingListener();
+        dispatcher.register(listener);
+        dispatcher.dispatch(new NecrifyInitializedEvent());
+        assertEquals(List.of("after"), listener.calls);
+    }
+
+    public static class PriorityListener {
+
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Subscribe(priority = 3)
+        public void onEventHigherPriority(NecrifyPreInitializationEvent event) {
+            calls.add("higher");
+        }
+
+        @Subscribe(priority = 2)
+        public void onEventLowerPriority(NecrifyPreInitializationEvent event) {
+            calls.add("lower");
+            event.cancel();
+        }
+
+        @Subscribe(priority = 1)
+        public void onEventLowestPriority(NecrifyPreInitializationEvent event) {
+            //exceptions of listeners are only logged, so the call is recorded in order to be detected by the test
+            calls.add("lowest");
+        }
+    }
+
+    public static class SupertypeListener {
+
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Subscribe
+        public void onEvent(NecrifyEvent event) {
+            calls.add("event");
+        }
+
+        @Subscribe
+        public void onStateEvent(NecrifyStateEvent event) {
+            calls.add("state");
+        }
+
+        @Subscribe
+        public void onInitialized(NecrifyInitializedEvent event) {
+            calls.add("initialized");
+        }
+    }
+
+    public static class AsyncListener {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile Thread thread;
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onEvent(NecrifyInitializedEvent event) {
+            thread = Thread.currentThread();
+            latch.countDown();
+        }
+    }
+
+    public static class FailingListener {
+
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Subscribe(priority = 1)
+        public void onEventFirst(NecrifyInitializedEvent event) {
+            throw new IllegalStateException("Expected exception");
+        }
+
+        @Subscribe
+        public void onEventAfter(NecrifyInitializedEvent event) {
+            calls.add("after");
+        }
+    }
+}
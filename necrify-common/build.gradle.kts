@@ -19,6 +19,14 @@ sourceSets {
     }
 }
 
+//micro-benchmarks, run with ./gradlew :necrify-common:jmh
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[jmh.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+
 dependencies {
     api(projects.necrifyApi)
     api(libs.caffeine)
@@ -39,7 +47,12 @@ dependencies {
     compileOnly(libs.bundles.adventure)
     api(libs.adventure.text.feature.pagination)
     testImplementation(libs.junit.jupiter.api)
+    testImplementation("com.google.code.gson:gson:2.14.0")
+    testImplementation(libs.bundles.adventure)
+    testImplementation(libs.slf4j.api)
     testRuntimeOnly(libs.junit.jupiter.engine)
+    "jmhImplementation"(libs.jmh.core)
+    "jmhAnnotationProcessor"(libs.jmh.generator.annprocess)
 }
 
 tasks {
@@ -50,4 +63,14 @@ tasks {
     test {
         useJUnitPlatform()
     }
+
+    register<JavaExec>("jmh") {
+        description = "Runs the micro-benchmarks of necrify-common."
+        group = "verification"
+        classpath = jmh.runtimeClasspath
+        mainClass = "org.openjdk.jmh.Main"
+        //the gc profiler reports the allocations and the memory churn of every benchmark
+        //e.g. -Pjmh.args="ExecutorBenchmark -prof gc" to run only some of the benchmarks
+        args = (findProperty("jmh.args") as String?)?.split(" ") ?: listOf("-prof", "gc")
+    }
 }
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.plugin;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the binary frames of {@link MuteDataCodec} with the JSON messages of protocol version 1, for a single mute
+ * and for a batch of mutes as sent e.g. when a snapshot is requested. The binary codec packs a batch into as few frames
+ * as possible, whereas the JSON protocol needs one message per mute. Each invocation handles the whole batch.
+ * <p>Run with {@code ./gradlew :necrify-common:jmh -Pjmh.args="MuteDataCodecBenchmark -prof gc"}. The gc profiler
+ * reports the allocations per batch.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MuteDataCodecBenchmark {
+
+    @Param({"1", "1000"})
+    public int mutes;
+
+    private List<MuteData> muteData;
+    private List<byte[]> frames;
+    private List<byte[]> messages;
+
+    @Setup
+    public void setup() throws IOException {
+        muteData = new ArrayList<>(mutes);
+        var now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        for (int i = 0; i < mutes; i++) {
+            muteData.add(new MuteData(UUID.randomUUID(), "<red>You were muted for spamming. Appeal on our website.",
+                    now.plusMinutes(i), MuteData.RECALCULATION, UUID.randomUUID()).withSequence(i));
+        }
+        frames = MuteDataCodec.encode(muteData);
+        messages = new ArrayList<>(mutes);
+        for (MuteData data : muteData) {
+            messages.add(MuteDataCodec.encodeJson(data));
+        }
+    }
+
+    @Benchmark
+    public List<byte[]> encodeBinary() {
+        return MuteDataCodec.encode(muteData);
+    }
+
+    @Benchmark
+    public void decodeBinary(Blackhole blackhole) throws IOException {
+        for (byte[] frame : frames) {
+            blackhole.consume(MuteDataCodec.decode(frame));
+        }
+    }
+
+    @Benchmark
+    public void encodeJson(Blackhole blackhole) throws IOException {
+        for (MuteData data : muteData) {
+            blackhole.consume(MuteDataCodec.encodeJson(data));
+        }
+    }
+
+    @Benchmark
+    public void decodeJson(Blackhole blackhole) throws IOException {
+        for (byte[] message : messages) {
+            blackhole.consume(MuteDataCodec.decodeJson(message));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of the executor modes with a blocking workload, like the database queries Necrify runs. The
+ * tasks are submitted through a {@link BulkheadExecutor} in front of an executor created by {@link NecrifyExecutors},
+ * just as the plugin does, and every task blocks for one millisecond. The concurrency is the bulkhead's limit, so it
+ * decides how many threads are blocked at the same time.
+ * <p>Run with {@code ./gradlew :necrify-common:jmh -Pjmh.args="ExecutorBenchmark -prof gc"}. The gc profiler reports
+ * the allocations per task, which include the threads created for the tasks.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorBenchmark {
+
+    private static final int TASKS = 1024;
+    private static final long BLOCKING_MILLIS = 1;
+
+    @Param({"virtual", "platform"})
+    public String mode;
+
+    @Param({"32", "256"})
+    public int concurrency;
+
+    private ExecutorService delegate;
+    private BulkheadExecutor executor;
+
+    @Setup
+    public void setup() {
+        var executorMode = switch (mode) {
+            case "virtual" -> NecrifyExecutors.Mode.VIRTUAL;
+            case "platform" -> NecrifyExecutors.Mode.PLATFORM;
+            default -> throw new IllegalArgumentException("Unknown mode " + mode);
+        };
+        delegate = NecrifyExecutors.newExecutor("benchmark", executorMode, (_, throwable) -> throwable.printStackTrace());
+        executor = new BulkheadExecutor("database", delegate, concurrency, TASKS, BulkheadExecutor.RejectionPolicy.ABORT);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        delegate.shutdown();
+        delegate.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Runs {@value #TASKS} blocking tasks and waits for all of them, so that the reported throughput is in tasks per
+     * second.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TASKS)
+    public void blockingTasks() throws InterruptedException {
+        var done = new CountDownLatch(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(BLOCKING_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+}
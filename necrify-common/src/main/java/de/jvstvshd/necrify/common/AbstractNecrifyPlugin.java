@@ -19,9 +19,10 @@
 package de.jvstvshd.necrify.common;
 
 import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
 import de.jvstvshd.necrify.api.Necrify;
 import de.jvstvshd.necrify.api.duration.PunishmentDuration;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
+import de.jvstvshd.necrify.api.metrics.ExecutorStatistics;
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import de.jvstvshd.necrify.api.punishment.PunishmentType;
 import de.jvstvshd.necrify.api.punishment.PunishmentTypeRegistry;
@@ -30,11 +31,20 @@ import de.jvstvshd.necrify.api.template.NecrifyTemplate;
 import de.jvstvshd.necrify.api.template.TemplateManager;
 import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.common.commands.*;
+import de.jvstvshd.necrify.common.config.CachePolicyData;
 import de.jvstvshd.necrify.common.config.ConfigurationManager;
+import de.jvstvshd.necrify.common.punishment.ActivePunishmentIndex;
+import de.jvstvshd.necrify.common.punishment.LoadedPunishmentIndex;
 import de.jvstvshd.necrify.common.punishment.NecrifyKick;
 import de.jvstvshd.necrify.common.punishment.NecrifyPunishmentFactory;
+import de.jvstvshd.necrify.common.punishment.ReasonCache;
 import de.jvstvshd.necrify.common.punishment.log.NecrifyPunishmentLog;
 import de.jvstvshd.necrify.common.template.MinecraftTemplateManager;
+import de.jvstvshd.necrify.common.user.AbstractUserManager;
+import de.jvstvshd.necrify.common.user.MojangProfileResolver;
+import de.jvstvshd.necrify.common.util.BulkheadExecutor;
+import de.jvstvshd.necrify.common.util.SingleFlight;
+import de.jvstvshd.necrify.common.util.Util;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
@@ -62,8 +72,8 @@ import org.jspecify.annotations.NonNull;
 import org.slf4j.Logger;
 
 import java.io.IOException;
-import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
@@ -73,23 +83,68 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
     public static final String GIT_COMMIT = BuildParameters.GIT_COMMIT;
     public static final String BUILD_NUMBER = BuildParameters.BUILD_NUMBER;
 
-    protected final ExecutorService executorService;
+    /**
+     * One executor per workload, so that e.g. slow requests to Mojang cannot delay database queries. These are created on
+     * the first {@link #loadConfig() configuration load} as they are configurable.
+     */
+    private BulkheadExecutor databaseExecutor;
+    private BulkheadExecutor httpExecutor;
+    private BulkheadExecutor eventExecutor;
+    private BulkheadExecutor backgroundExecutor;
     protected final ConfigurationManager configurationManager;
-    private final Cache<UUID, Punishment> historicalPunishmentCache =
-            Caffeine.newBuilder().maximumSize(100).expireAfterWrite(Duration.ofMinutes(10)).build();
+    private Cache<UUID, Punishment> historicalPunishmentCache = new CachePolicyData(500, 600, 0).newBuilder().build();
+    private ReasonCache reasonCache = new ReasonCache(new CachePolicyData(1024, 0, 0));
+    private final SingleFlight<UUID, Optional<Punishment>> historicalPunishmentLoads = new SingleFlight<>();
     private final Logger logger;
+    private final ActivePunishmentIndex activePunishmentIndex = new ActivePunishmentIndex();
+    private final LoadedPunishmentIndex loadedPunishmentIndex = new LoadedPunishmentIndex(this);
+    private MojangProfileResolver profileResolver;
     private final MiniMessage miniMessage = MiniMessage.miniMessage();
     private TemplateManager templateManager = new MinecraftTemplateManager(this, miniMessage);
 
-    public AbstractNecrifyPlugin(ExecutorService executorService, ConfigurationManager configurationManager, Logger logger) {
-        this.executorService = executorService;
+    public AbstractNecrifyPlugin(ConfigurationManager configurationManager, Logger logger) {
         this.configurationManager = configurationManager;
         this.logger = logger;
     }
 
+    /**
+     * {@inheritDoc}
+     * This is the executor for database queries. Other workloads have their own executors.
+     *
+     * @see #getHttpExecutor()
+     * @see #getEventExecutor()
+     * @see #getBackgroundExecutor()
+     */
     @Override
     public @NotNull ExecutorService getExecutor() {
-        return executorService;
+        return databaseExecutor;
+    }
+
+    /**
+     * Returns the executor for requests to web services, such as the Mojang API.
+     *
+     * @return the http executor.
+     */
+    public @NotNull ExecutorService getHttpExecutor() {
+        return httpExecutor;
+    }
+
+    /**
+     * Returns the executor for dispatching events asynchronously.
+     *
+     * @return the event executor.
+     */
+    public @NotNull ExecutorService getEventExecutor() {
+        return eventExecutor;
+    }
+
+    /**
+     * Returns the executor for maintenance work that is not time-critical, such as cancelling expired punishments.
+     *
+     * @return the background executor.
+     */
+    public @NotNull ExecutorService getBackgroundExecutor() {
+        return backgroundExecutor;
     }
 
     @Override
@@ -217,6 +272,19 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
     public boolean loadConfig() {
         try {
             configurationManager.load();
+            var configuration = configurationManager.getConfiguration();
+            if (databaseExecutor == null) {
+                var executorConfig = configuration.getExecutorConfigData();
+                var mode = executorConfig.getMode();
+                databaseExecutor = executorConfig.getDatabase().newExecutor("necrify-database", mode, uncaughtExceptionHandler());
+                httpExecutor = executorConfig.getHttp().newExecutor("necrify-http", mode, uncaughtExceptionHandler());
+                eventExecutor = executorConfig.getEvents().newExecutor("necrify-events", mode, uncaughtExceptionHandler());
+                backgroundExecutor = executorConfig.getBackground().newExecutor("necrify-background", mode, uncaughtExceptionHandler());
+            }
+            historicalPunishmentCache = configuration.getCacheConfigData().getHistoricalPunishments().newBuilder().build();
+            reasonCache = new ReasonCache(configuration.getCacheConfigData().getReasons());
+            profileResolver = new MojangProfileResolver(configuration.getMojangConfigData(),
+                    configuration.getCacheConfigData().getProfiles(), httpExecutor);
             if (configurationManager.getConfiguration().isWhitelistActivated()) {
                 logger.info("Whitelist is activated. This means that nobody can join this server beside players you have explicitly allowed to join this server via /necrify user <player> whitelist (toggles current state).");
             }
@@ -228,6 +296,15 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
         return true;
     }
 
+    /**
+     * Returns the handler for exceptions that are not caught by tasks running on one of Necrify's executors.
+     *
+     * @return a handler logging the exception
+     */
+    public Thread.UncaughtExceptionHandler uncaughtExceptionHandler() {
+        return (t, e) -> logger.error("An error occurred in thread {}", t.getName(), e);
+    }
+
     @SuppressWarnings("ConstantValue")
     public static String buildInfo() {
         var buildInfo = "v" + VERSION + " (running on commit " + GIT_COMMIT;
@@ -246,31 +323,79 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
         return logger;
     }
 
+    /**
+     * Returns the index of all users that are currently affected by an active ban or mute. This index can be used to
+     * determine whether a user has to be loaded at all to check their punishments.
+     *
+     * @return the active punishment index.
+     */
+    public ActivePunishmentIndex getActivePunishmentIndex() {
+        return activePunishmentIndex;
+    }
+
+    /**
+     * Returns the resolver used to look up names and uuids of players that are not known yet through Mojang's API.
+     *
+     * @return the profile resolver
+     */
+    public MojangProfileResolver getProfileResolver() {
+        return profileResolver;
+    }
+
+    /**
+     * Returns the index of all punishments of currently loaded users, keyed by their id.
+     *
+     * @return the index of loaded punishments
+     */
+    public LoadedPunishmentIndex getLoadedPunishmentIndex() {
+        return loadedPunishmentIndex;
+    }
+
     /**
      * Returns a historical punishment by its uuid. This method should be used to retrieve a punishment that is not active anymore
      * and only if there is no other way to retrieve the punishment if it is still active.<br>
-     * This method executes synchronously and should not be called on the main thread.
+     * This method blocks until the punishment has been loaded. Prefer {@link #loadHistoricalPunishment(UUID)}.
      *
      * @param punishmentUuid the uuid of the punishment to retrieve
      * @param <T>            the type of the punishment
      * @return the punishment or null if it could not be found
+     * @throws IllegalStateException if waiting for the punishment would deadlock the plugin's executor the current thread belongs to
      */
     public <T extends Punishment> T getHistoricalPunishment(UUID punishmentUuid) {
+        return Util.join(this.<T>loadHistoricalPunishment(punishmentUuid)).orElse(null);
+    }
+
+    /**
+     * Loads a historical punishment by its uuid. This method should be used to retrieve a punishment that is not active anymore
+     * and only if there is no other way to retrieve the punishment if it is still active.
+     * <p>Concurrent calls for the same punishment share one load.</p>
+     *
+     * @param punishmentUuid the uuid of the punishment to retrieve
+     * @param <T>            the type of the punishment
+     * @return a future containing the punishment or an empty Optional if it could not be found
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Punishment> CompletableFuture<Optional<T>> loadHistoricalPunishment(UUID punishmentUuid) {
+        //the log caches its punishment as soon as its load starts, so predecessors or successors referring back to this
+        //punishment are answered here and never wait for the load they are part of
         var cached = historicalPunishmentCache.getIfPresent(punishmentUuid);
         if (cached != null) {
-            return (T) cached;
-        }
-        var log = new NecrifyPunishmentLog(this, punishmentUuid);
-        if (log.load(false)) {
-            var result = log.getPunishment();
-            //noinspection ConstantValue in this case, #getPunishment may return null if there is no such punishment for this id
-            if (result != null) {
-                historicalPunishmentCache.put(punishmentUuid, result);
-                return (T) result;
-            }
-            return (T) log.getPunishment();
+            return CompletableFuture.completedFuture(Optional.of((T) cached));
         }
-        return null;
+        return historicalPunishmentLoads.load(punishmentUuid, () -> {
+            var log = new NecrifyPunishmentLog(this, punishmentUuid);
+            return log.loadAsync(false).thenApply(loaded -> {
+                if (!loaded) {
+                    return Optional.empty();
+                }
+                var result = log.getPunishment();
+                //noinspection ConstantValue in this case, #getPunishment may return null if there is no such punishment for this id
+                if (result != null) {
+                    historicalPunishmentCache.put(punishmentUuid, result);
+                }
+                return Optional.ofNullable(result);
+            });
+        }).thenApply(result -> result.map(punishment -> (T) punishment));
     }
 
     /**
@@ -279,7 +404,7 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
      * <p>
      * This method invokes the following steps to retrieve the punishment:
      * <ul>
-     *     <li>Iterate over all loaded users and check if the punishment is present in the user's punishment list</li>
+     *     <li>Look up the punishment in the {@link LoadedPunishmentIndex index of punishments of loaded users}</li>
      *     <li>Check if the punishment is present in the historical punishment cache</li>
      * </ul>
      * If the punishment is not found in any of the above steps, an empty optional is returned.
@@ -290,11 +415,9 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
      */
     @SuppressWarnings("unchecked")
     public <T extends Punishment> Optional<T> getCachedPunishment(UUID punishmentUuid) {
-        for (NecrifyUser loadedUser : getUserManager().getLoadedUsers()) {
-            var punishment = loadedUser.getPunishment(punishmentUuid);
-            if (punishment.isPresent()) {
-                return (Optional<T>) punishment;
-            }
+        var punishment = loadedPunishmentIndex.get(punishmentUuid);
+        if (punishment.isPresent()) {
+            return (Optional<T>) punishment;
         }
         var cachedHPunishment = historicalPunishmentCache.getIfPresent(punishmentUuid);
         return Optional.ofNullable((T) cachedHPunishment);
@@ -315,6 +438,42 @@ public abstract class AbstractNecrifyPlugin implements Necrify {
         return historicalPunishmentCache;
     }
 
+    /**
+     * Returns the cache of deserialized punishment reasons.
+     *
+     * @return the reason cache
+     */
+    public ReasonCache getReasonCache() {
+        return reasonCache;
+    }
+
+    @Override
+    public @NotNull Map<String, CacheStatistics> getCacheStatistics() {
+        Map<String, CacheStatistics> statistics = new LinkedHashMap<>();
+        if (getUserManager() instanceof AbstractUserManager<?> userManager) {
+            statistics.putAll(userManager.getCacheStatistics());
+        }
+        statistics.put("historical-punishments", Util.cacheStatistics(historicalPunishmentCache));
+        statistics.put("reasons", reasonCache.statistics());
+        if (profileResolver != null) {
+            statistics.putAll(profileResolver.getCacheStatistics());
+        }
+        return statistics;
+    }
+
+    @Override
+    public @NotNull Map<String, ExecutorStatistics> getExecutorStatistics() {
+        Map<String, ExecutorStatistics> statistics = new LinkedHashMap<>();
+        if (databaseExecutor == null) {
+            return statistics;
+        }
+        statistics.put("database", databaseExecutor.statistics());
+        statistics.put("http", httpExecutor.statistics());
+        statistics.put("events", eventExecutor.statistics());
+        statistics.put("background", backgroundExecutor.statistics());
+        return statistics;
+    }
+
     @Override
     public @NotNull TemplateManager getTemplateManager() {
         return templateManager;
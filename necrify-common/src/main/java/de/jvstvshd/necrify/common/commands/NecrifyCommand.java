@@ -51,6 +51,7 @@ import org.incendo.cloud.context.CommandContext;
 import org.incendo.cloud.context.CommandInput;
 import org.incendo.cloud.minecraft.extras.suggestion.ComponentTooltipSuggestion;
 import org.incendo.cloud.suggestion.Suggestion;
+import org.incendo.cloud.type.tuple.Pair;
 import org.slf4j.Logger;
 
 import java.io.IOException;
@@ -69,6 +70,7 @@ public class NecrifyCommand {
     private static final List<String> PUNISHMENT_COMMAND_OPTIONS = List.of("cancel", "remove", "info", "change", "log");
     private static final List<String> USER_COMMAND_OPTIONS = List.of("info", "delete", "whitelist");
     private static final List<String> TEMPLATE_COMMAND_OPTIONS = List.of("info", "delete");
+    private static final List<String> STATS_CATEGORIES = List.of("caches", "executors", "mutes");
 
     public NecrifyCommand(AbstractNecrifyPlugin plugin) {
         this.plugin = plugin;
@@ -329,24 +331,24 @@ public class NecrifyCommand {
             plugin.getConfig().load();
             ConfigData reloaded = plugin.getConfig().getConfiguration();
             if (!old.isWhitelistActivated() && reloaded.isWhitelistActivated()) {
-                Util.executeAsync(() -> {
-                    logger.info("Whitelist activated. Kicking all players who aren't allowed here anymore. This may take some time...");
-                    var startKick = System.currentTimeMillis();
-                    var onlinePlayers = plugin.getOnlinePlayers();
-                    onlinePlayers.forEach(pair -> {
-                        try {
-                            //noinspection OptionalGetWithoutIsPresent (we know that the user must exist/can be created)
-                            var user = plugin.getUserManager().loadOrCreateUser(pair.second()).join().get();
-                            if (!user.isWhitelisted()) {
-                                user.kick(provider.provide("whitelist.removed").color(NamedTextColor.RED)).join();
-                            }
-                        } catch (Exception e) {
-                            logException(e);
+                logger.info("Whitelist activated. Kicking all players who aren't allowed here anymore. This may take some time...");
+                var startKick = System.currentTimeMillis();
+                var onlinePlayers = plugin.getOnlinePlayers().stream().map(Pair::second).toList();
+                plugin.getUserManager().loadOrCreateUsers(onlinePlayers).whenComplete((users, throwable) -> {
+                    if (throwable != null) {
+                        logException(throwable);
+                        return;
+                    }
+                    for (NecrifyUser user : users.values()) {
+                        if (!user.isWhitelisted()) {
+                            user.kick(provider.provide("whitelist.removed").color(NamedTextColor.RED)).exceptionally(kickThrowable -> {
+                                logException(kickThrowable);
+                                return null;
+                            });
                         }
-                    });
+                    }
                     logger.info("Kicked all non-whitelisted players. Took {} seconds.", (System.currentTimeMillis() - startKick) / 1000.0);
-                    return null;
-                }, plugin.getExecutor());
+                });
             }
             String took = String.format("%.2f", (System.currentTimeMillis() - start) / 1000.0);
             sender.sendMessage(provider.provide("command.reload.success", Component.text(took).color(NamedTextColor.YELLOW)).color(NamedTextColor.GREEN));
@@ -381,6 +383,45 @@ public class NecrifyCommand {
                 .clickEvent(ClickEvent.openUrl("https://docs.jvstvshd.de/necrify/")));
     }
 
+    @Command("necrify stats [category]")
+    @CommandDescription("command.stats.description")
+    @Permission(value = {"necrify.command.stats", "necrify.admin"}, mode = Permission.Mode.ANY_OF)
+    public void statsCommand(
+            NecrifyUser sender,
+            @Argument(value = "category", description = "command.stats.description.category", suggestions = "suggestStatsCategories") @Default("caches") String category
+    ) {
+        switch (category) {
+            case "caches" -> plugin.getCacheStatistics().forEach((name, statistics) ->
+                    sender.sendMessage("command.stats.cache", NamedTextColor.GRAY,
+                            Component.text(name, NamedTextColor.YELLOW),
+                            Component.text(statistics.size(), NamedTextColor.YELLOW),
+                            Component.text(String.format(Locale.ROOT, "%.1f", statistics.hitRate() * 100), NamedTextColor.YELLOW),
+                            Component.text(statistics.hitCount(), NamedTextColor.YELLOW),
+                            Component.text(statistics.missCount(), NamedTextColor.YELLOW),
+                            Component.text(statistics.evictionCount(), NamedTextColor.YELLOW)));
+            case "executors" -> plugin.getExecutorStatistics().forEach((name, statistics) ->
+                    sender.sendMessage("command.stats.executor", NamedTextColor.GRAY,
+                            Component.text(name, NamedTextColor.YELLOW),
+                            Component.text(statistics.active(), NamedTextColor.YELLOW),
+                            Component.text(statistics.maxConcurrency(), NamedTextColor.YELLOW),
+                            Component.text(statistics.queued(), NamedTextColor.YELLOW),
+                            Component.text(statistics.queueCapacity(), NamedTextColor.YELLOW),
+                            Component.text(statistics.completed(), NamedTextColor.YELLOW),
+                            Component.text(statistics.rejected(), NamedTextColor.YELLOW)));
+            case "mutes" -> plugin.getMuteDeliveryStatistics().forEach((name, statistics) ->
+                    sender.sendMessage("command.stats.mute-delivery", NamedTextColor.GRAY,
+                            Component.text(name, NamedTextColor.YELLOW),
+                            Component.text(statistics.sent(), NamedTextColor.YELLOW),
+                            Component.text(statistics.acknowledged(), NamedTextColor.YELLOW),
+                            Component.text(statistics.retried(), NamedTextColor.YELLOW),
+                            Component.text(statistics.failed(), NamedTextColor.YELLOW),
+                            Component.text(statistics.pending(), NamedTextColor.YELLOW),
+                            Component.text(statistics.averageLatencyMillis(), NamedTextColor.YELLOW),
+                            Component.text(statistics.maxLatencyMillis(), NamedTextColor.YELLOW)));
+            default -> sender.sendMessage(unknownOption(category, STATS_CATEGORIES));
+        }
+    }
+
     @Command("necrify whitelist [option]")
     @CommandDescription("command.whitelist.description")
     @Permission(value = {"necrify.command.whitelist", "necrify.admin"}, mode = Permission.Mode.ANY_OF)
@@ -612,6 +653,15 @@ public class NecrifyCommand {
                 .toList();
     }
 
+    @Suggestions("suggestStatsCategories")
+    public List<? extends Suggestion> suggestStatsCategories(CommandContext<NecrifyUser> context, CommandInput input) {
+        return STATS_CATEGORIES
+                .stream()
+                .filter(option -> option.toLowerCase().startsWith(input.peekString().toLowerCase()))
+                .map(option -> ComponentTooltipSuggestion.suggestion(option, miniMessage(option)))
+                .toList();
+    }
+
     //HELPER METHODS
 
     public void infinitePunishmentCommand(NecrifyUser sender, NecrifyUser target, String templateOrReasonString,
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class CacheConfigData {
+
+    @JsonProperty("users")
+    private final CachePolicyData users;
+
+    @JsonProperty("names")
+    private final CachePolicyData names;
+
+    @JsonProperty("historical-punishments")
+    @JsonAlias("historicalPunishments")
+    private final CachePolicyData historicalPunishments;
+
+    @JsonProperty("unknown-users")
+    @JsonAlias("unknownUsers")
+    private final CachePolicyData unknownUsers;
+
+    @JsonProperty("profiles")
+    private final CachePolicyData profiles;
+
+    @JsonProperty("reasons")
+    private final CachePolicyData reasons;
+
+    public CacheConfigData(CachePolicyData users, CachePolicyData names, CachePolicyData historicalPunishments, CachePolicyData unknownUsers,
+                           CachePolicyData profiles, CachePolicyData reasons) {
+        this.users = users;
+        this.names = names;
+        this.historicalPunishments = historicalPunishments;
+        this.unknownUsers = unknownUsers;
+        this.profiles = profiles;
+        this.reasons = reasons;
+    }
+
+    public CacheConfigData() {
+        this(new CachePolicyData(5000, 0, 1800), new CachePolicyData(10000, 0, 1800), new CachePolicyData(500, 600, 0),
+                new CachePolicyData(10000, 60, 0), new CachePolicyData(10000, 3600, 0),
+                new CachePolicyData(1024, 0, 0));
+    }
+
+    public CachePolicyData getUsers() {
+        return users;
+    }
+
+    public CachePolicyData getNames() {
+        return names;
+    }
+
+    public CachePolicyData getHistoricalPunishments() {
+        return historicalPunishments;
+    }
+
+    public CachePolicyData getUnknownUsers() {
+        return unknownUsers;
+    }
+
+    public CachePolicyData getProfiles() {
+        return profiles;
+    }
+
+    public CachePolicyData getReasons() {
+        return reasons;
+    }
+}
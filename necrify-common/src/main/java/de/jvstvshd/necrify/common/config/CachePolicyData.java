@@ -0,0 +1,99 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+public class CachePolicyData {
+
+    @JsonProperty("maximum-size")
+    @JsonAlias("maximumSize")
+    private final long maximumSize;
+
+    @JsonProperty("expire-after-write-seconds")
+    @JsonAlias("expireAfterWriteSeconds")
+    private final long expireAfterWriteSeconds;
+
+    @JsonProperty("expire-after-access-seconds")
+    @JsonAlias("expireAfterAccessSeconds")
+    private final long expireAfterAccessSeconds;
+
+    public CachePolicyData(long maximumSize, long expireAfterWriteSeconds, long expireAfterAccessSeconds) {
+        this.maximumSize = maximumSize;
+        this.expireAfterWriteSeconds = expireAfterWriteSeconds;
+        this.expireAfterAccessSeconds = expireAfterAccessSeconds;
+    }
+
+    public CachePolicyData() {
+        this(1000, 0, 1800);
+    }
+
+    /**
+     * Returns the maximum amount of entries the cache may hold before entries are evicted. A negative value means that
+     * the size of the cache is not bounded.
+     *
+     * @return the maximum size of the cache.
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Returns the amount of seconds after which an entry is evicted once it was put into the cache. Values of 0 or less
+     * disable this expiration.
+     *
+     * @return the expiration after write in seconds.
+     */
+    public long getExpireAfterWriteSeconds() {
+        return expireAfterWriteSeconds;
+    }
+
+    /**
+     * Returns the amount of seconds after which an entry is evicted if it was neither read nor written in the meantime.
+     * Values of 0 or less disable this expiration.
+     *
+     * @return the expiration after access in seconds.
+     */
+    public long getExpireAfterAccessSeconds() {
+        return expireAfterAccessSeconds;
+    }
+
+    /**
+     * Creates a new cache builder configured according to this policy. Statistics recording is always enabled.
+     *
+     * @return a new cache builder.
+     */
+    public Caffeine<Object, Object> newBuilder() {
+        var builder = Caffeine.newBuilder().recordStats();
+        if (maximumSize >= 0) {
+            builder.maximumSize(maximumSize);
+        }
+        if (expireAfterWriteSeconds > 0) {
+            builder.expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds));
+        }
+        if (expireAfterAccessSeconds > 0) {
+            builder.expireAfterAccess(Duration.ofSeconds(expireAfterAccessSeconds));
+        }
+        return builder;
+    }
+}
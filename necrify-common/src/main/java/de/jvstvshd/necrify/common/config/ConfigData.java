@@ -20,8 +20,12 @@ package de.jvstvshd.necrify.common.config;
 
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import de.jvstvshd.necrify.api.event.EventDispatcher;
+import de.jvstvshd.necrify.api.event.MethodHandleEventDispatcher;
+import org.greenrobot.eventbus.Logger;
 
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
 
 public class ConfigData {
 
@@ -43,16 +47,37 @@ public class ConfigData {
     @JsonAlias("allowTopLevelCommands")
     private boolean allowTopLevelCommands;
 
-    public ConfigData(DataBaseData dataBaseData, Locale defaultLanguage, PunishmentConfigData punishmentConfigData, boolean whitelistActivated, boolean allowTopLevelCommands) {
+    @JsonProperty("login")
+    private final LoginConfigData loginConfigData;
+
+    @JsonProperty("caches")
+    private final CacheConfigData cacheConfigData;
+
+    @JsonProperty("mojang")
+    private final MojangConfigData mojangConfigData;
+
+    @JsonProperty("executors")
+    private final ExecutorConfigData executorConfigData;
+
+    @JsonProperty("event-dispatcher")
+    @JsonAlias("eventDispatcher")
+    private final EventDispatcherType eventDispatcherType;
+
+    public ConfigData(DataBaseData dataBaseData, Locale defaultLanguage, PunishmentConfigData punishmentConfigData, boolean whitelistActivated, boolean allowTopLevelCommands, LoginConfigData loginConfigData, CacheConfigData cacheConfigData, MojangConfigData mojangConfigData, ExecutorConfigData executorConfigData, EventDispatcherType eventDispatcherType) {
         this.dataBaseData = dataBaseData;
         this.defaultLanguage = defaultLanguage;
         this.punishmentConfigData = punishmentConfigData;
         this.whitelistActivated = whitelistActivated;
         this.allowTopLevelCommands = allowTopLevelCommands;
+        this.loginConfigData = loginConfigData;
+        this.cacheConfigData = cacheConfigData;
+        this.mojangConfigData = mojangConfigData;
+        this.executorConfigData = executorConfigData;
+        this.eventDispatcherType = eventDispatcherType;
     }
 
     public ConfigData() {
-        this(new DataBaseData(), Locale.ENGLISH, new PunishmentConfigData(), false, true);
+        this(new DataBaseData(), Locale.ENGLISH, new PunishmentConfigData(), false, true, new LoginConfigData(), new CacheConfigData(), new MojangConfigData(), new ExecutorConfigData(), EventDispatcherType.EVENTBUS);
     }
 
     public final DataBaseData getDataBaseData() {
@@ -82,4 +107,56 @@ public class ConfigData {
     public PunishmentConfigData getPunishmentConfigData() {
         return punishmentConfigData;
     }
+
+    public LoginConfigData getLoginConfigData() {
+        return loginConfigData;
+    }
+
+    public CacheConfigData getCacheConfigData() {
+        return cacheConfigData;
+    }
+
+    public MojangConfigData getMojangConfigData() {
+        return mojangConfigData;
+    }
+
+    public ExecutorConfigData getExecutorConfigData() {
+        return executorConfigData;
+    }
+
+    public EventDispatcherType getEventDispatcherType() {
+        return eventDispatcherType;
+    }
+
+    /**
+     * The implementation that delivers events to listeners.
+     */
+    public enum EventDispatcherType {
+
+        /**
+         * Events are delivered through a GreenRobot {@link org.greenrobot.eventbus.EventBus}.
+         */
+        @JsonProperty("eventbus")
+        EVENTBUS,
+
+        /**
+         * Events are delivered by a {@link MethodHandleEventDispatcher}, which invokes listeners without reflection.
+         */
+        @JsonProperty("method-handles")
+        METHOD_HANDLES;
+
+        /**
+         * Creates a new event dispatcher of this type.
+         *
+         * @param executorService the executor service for asynchronous dispatching and asynchronous listeners
+         * @param logger          the logger for exceptions thrown by listeners
+         * @return a new event dispatcher
+         */
+        public EventDispatcher newDispatcher(ExecutorService executorService, Logger logger) {
+            return switch (this) {
+                case EVENTBUS -> new EventDispatcher(executorService, logger);
+                case METHOD_HANDLES -> new MethodHandleEventDispatcher(executorService, logger);
+            };
+        }
+    }
 }
@@ -0,0 +1,103 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.jvstvshd.necrify.common.util.BulkheadExecutor;
+import de.jvstvshd.necrify.common.util.NecrifyExecutors;
+
+public class ExecutorConfigData {
+
+    @JsonProperty("mode")
+    private final NecrifyExecutors.Mode mode;
+
+    @JsonProperty("database")
+    private final ExecutorPoolData database;
+
+    @JsonProperty("http")
+    private final ExecutorPoolData http;
+
+    @JsonProperty("events")
+    private final ExecutorPoolData events;
+
+    @JsonProperty("background")
+    private final ExecutorPoolData background;
+
+    public ExecutorConfigData(NecrifyExecutors.Mode mode, ExecutorPoolData database, ExecutorPoolData http, ExecutorPoolData events, ExecutorPoolData background) {
+        this.mode = mode;
+        this.database = database;
+        this.http = http;
+        this.events = events;
+        this.background = background;
+    }
+
+    public ExecutorConfigData() {
+        this(NecrifyExecutors.Mode.VIRTUAL,
+                new ExecutorPoolData(32, 10000, BulkheadExecutor.RejectionPolicy.ABORT),
+                new ExecutorPoolData(8, 1000, BulkheadExecutor.RejectionPolicy.ABORT),
+                new ExecutorPoolData(8, 10000, BulkheadExecutor.RejectionPolicy.ABORT),
+                new ExecutorPoolData(4, 1000, BulkheadExecutor.RejectionPolicy.ABORT));
+    }
+
+    /**
+     * Returns the kind of threads used for asynchronous work, such as database queries and requests to Mojang. Changes
+     * take effect after a restart.
+     *
+     * @return the executor mode.
+     */
+    public NecrifyExecutors.Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Returns the configuration of the executor running database queries.
+     *
+     * @return the database executor configuration.
+     */
+    public ExecutorPoolData getDatabase() {
+        return database;
+    }
+
+    /**
+     * Returns the configuration of the executor running requests to Mojang.
+     *
+     * @return the http executor configuration.
+     */
+    public ExecutorPoolData getHttp() {
+        return http;
+    }
+
+    /**
+     * Returns the configuration of the executor delivering events asynchronously.
+     *
+     * @return the event executor configuration.
+     */
+    public ExecutorPoolData getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the configuration of the executor running maintenance work, such as cancelling expired punishments.
+     *
+     * @return the background executor configuration.
+     */
+    public ExecutorPoolData getBackground() {
+        return background;
+    }
+}
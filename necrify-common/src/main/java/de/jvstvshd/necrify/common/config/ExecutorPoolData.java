@@ -0,0 +1,91 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.jvstvshd.necrify.common.util.BulkheadExecutor;
+import de.jvstvshd.necrify.common.util.NecrifyExecutors;
+
+import java.util.concurrent.ExecutorService;
+
+public class ExecutorPoolData {
+
+    @JsonProperty("max-concurrency")
+    @JsonAlias("maxConcurrency")
+    private final int maxConcurrency;
+
+    @JsonProperty("queue-capacity")
+    @JsonAlias("queueCapacity")
+    private final int queueCapacity;
+
+    @JsonProperty("rejection-policy")
+    @JsonAlias("rejectionPolicy")
+    private final BulkheadExecutor.RejectionPolicy rejectionPolicy;
+
+    public ExecutorPoolData(int maxConcurrency, int queueCapacity, BulkheadExecutor.RejectionPolicy rejectionPolicy) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    public ExecutorPoolData() {
+        this(16, 10000, BulkheadExecutor.RejectionPolicy.ABORT);
+    }
+
+    /**
+     * Returns the maximum amount of tasks of this workload that may be executed at the same time.
+     *
+     * @return the maximum concurrency.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Returns the maximum amount of tasks of this workload that may wait for execution.
+     *
+     * @return the queue capacity.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Returns what happens to tasks that are submitted while the queue is full.
+     *
+     * @return the rejection policy.
+     */
+    public BulkheadExecutor.RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * Creates a new executor for a workload according to this configuration.
+     *
+     * @param name    the name of the executor, used as prefix of its threads' names
+     * @param mode    whether to use virtual or platform threads
+     * @param handler the handler for exceptions that are not caught by a task
+     * @return a new executor
+     */
+    public BulkheadExecutor newExecutor(String name, NecrifyExecutors.Mode mode, Thread.UncaughtExceptionHandler handler) {
+        ExecutorService delegate = NecrifyExecutors.newExecutor(name, mode, handler);
+        return new BulkheadExecutor(name, delegate, maxConcurrency, queueCapacity, rejectionPolicy);
+    }
+}
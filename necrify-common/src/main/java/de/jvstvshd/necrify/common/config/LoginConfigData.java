@@ -0,0 +1,96 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class LoginConfigData {
+
+    @JsonProperty("timeout-millis")
+    @JsonAlias("timeoutMillis")
+    private final long timeoutMillis;
+
+    @JsonProperty("deny-on-failure")
+    @JsonAlias("denyOnFailure")
+    private final boolean denyOnFailure;
+
+    @JsonProperty("skip-unpunished-players")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonAlias("skipUnpunishedPlayers")
+    private final Boolean skipUnpunishedPlayers;
+
+    @JsonProperty("punishment-index-refresh-seconds")
+    @JsonAlias("punishmentIndexRefreshSeconds")
+    private final long punishmentIndexRefreshSeconds;
+
+    public LoginConfigData(long timeoutMillis, boolean denyOnFailure, Boolean skipUnpunishedPlayers, long punishmentIndexRefreshSeconds) {
+        this.timeoutMillis = timeoutMillis;
+        this.denyOnFailure = denyOnFailure;
+        this.skipUnpunishedPlayers = skipUnpunishedPlayers;
+        this.punishmentIndexRefreshSeconds = punishmentIndexRefreshSeconds;
+    }
+
+    public LoginConfigData() {
+        this(10000, true, null, 300);
+    }
+
+    /**
+     * Returns the maximum amount of milliseconds a login may be held back while the joining player's data is loaded.
+     *
+     * @return the deadline for login checks in milliseconds.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Determines what happens if the login checks could not be completed in time or failed due to an error. If this is
+     * true, the player will be denied (fail-closed), otherwise the player is allowed to join (fail-open).
+     *
+     * @return whether players should be denied if their login could not be checked.
+     */
+    public boolean isDenyOnFailure() {
+        return denyOnFailure;
+    }
+
+    /**
+     * Determines whether players without any active ban or mute should be admitted without loading their data. This
+     * does not apply if the whitelist is activated. Unless configured explicitly, this is only enabled if the database
+     * notifies about punishments issued through other proxies, since these would otherwise be missed until the index
+     * of active punishments is reloaded.
+     *
+     * @param notificationsSupported whether the database notifies about changes made through other proxies
+     * @return whether unpunished players skip all login checks.
+     */
+    public boolean isSkipUnpunishedPlayers(boolean notificationsSupported) {
+        return skipUnpunishedPlayers != null ? skipUnpunishedPlayers : notificationsSupported;
+    }
+
+    /**
+     * Returns the interval in seconds in which the index of active punishments is reloaded from the database. This
+     * picks up punishments that were issued through other proxies. A value of 0 or less disables reloading.
+     *
+     * @return the refresh interval of the active punishment index in seconds.
+     */
+    public long getPunishmentIndexRefreshSeconds() {
+        return punishmentIndexRefreshSeconds;
+    }
+}
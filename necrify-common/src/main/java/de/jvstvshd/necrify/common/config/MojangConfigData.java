@@ -0,0 +1,148 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.config;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class MojangConfigData {
+
+    @JsonProperty("profile-endpoint")
+    @JsonAlias("profileEndpoint")
+    private final String profileEndpoint;
+
+    @JsonProperty("name-endpoint")
+    @JsonAlias("nameEndpoint")
+    private final String nameEndpoint;
+
+    @JsonProperty("bulk-endpoint")
+    @JsonAlias("bulkEndpoint")
+    private final String bulkEndpoint;
+
+    @JsonProperty("requests-per-minute")
+    @JsonAlias("requestsPerMinute")
+    private final int requestsPerMinute;
+
+    @JsonProperty("burst")
+    private final int burst;
+
+    @JsonProperty("max-queued-requests")
+    @JsonAlias("maxQueuedRequests")
+    private final int maxQueuedRequests;
+
+    @JsonProperty("batch-delay-millis")
+    @JsonAlias("batchDelayMillis")
+    private final long batchDelayMillis;
+
+    @JsonProperty("timeout-millis")
+    @JsonAlias("timeoutMillis")
+    private final long timeoutMillis;
+
+    public MojangConfigData(String profileEndpoint, String nameEndpoint, String bulkEndpoint, int requestsPerMinute, int burst,
+                            int maxQueuedRequests, long batchDelayMillis, long timeoutMillis) {
+        this.profileEndpoint = profileEndpoint;
+        this.nameEndpoint = nameEndpoint;
+        this.bulkEndpoint = bulkEndpoint;
+        this.requestsPerMinute = requestsPerMinute;
+        this.burst = burst;
+        this.maxQueuedRequests = maxQueuedRequests;
+        this.batchDelayMillis = batchDelayMillis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public MojangConfigData() {
+        this("https://sessionserver.mojang.com/session/minecraft/profile/",
+                "https://api.mojang.com/users/profiles/minecraft/",
+                "https://api.minecraftservices.com/minecraft/profile/lookup/bulk/byname",
+                60, 10, 60, 50, 5000);
+    }
+
+    /**
+     * Returns the endpoint used to look up a player's profile by their uuid. The uuid is appended to this endpoint.
+     *
+     * @return the profile endpoint.
+     */
+    public String getProfileEndpoint() {
+        return profileEndpoint;
+    }
+
+    /**
+     * Returns the endpoint used to look up a single player's uuid by their name. The name is appended to this endpoint.
+     *
+     * @return the name endpoint.
+     */
+    public String getNameEndpoint() {
+        return nameEndpoint;
+    }
+
+    /**
+     * Returns the endpoint used to look up the uuids of up to 10 names at once through a POST request.
+     *
+     * @return the bulk endpoint.
+     */
+    public String getBulkEndpoint() {
+        return bulkEndpoint;
+    }
+
+    /**
+     * Returns the amount of requests that may be sent to Mojang per minute on average.
+     *
+     * @return the sustained request rate.
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    /**
+     * Returns the amount of requests that may be sent at once before the request rate is limited.
+     *
+     * @return the burst size.
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Returns the amount of requests that may wait for the request rate to allow them at the same time. Further
+     * requests fail immediately instead of waiting ever longer.
+     *
+     * @return the maximum amount of delayed requests.
+     */
+    public int getMaxQueuedRequests() {
+        return maxQueuedRequests;
+    }
+
+    /**
+     * Returns the amount of milliseconds name lookups are collected before they are sent as one bulk request.
+     *
+     * @return the batching delay in milliseconds.
+     */
+    public long getBatchDelayMillis() {
+        return batchDelayMillis;
+    }
+
+    /**
+     * Returns the amount of milliseconds after which a request to Mojang is aborted.
+     *
+     * @return the request timeout in milliseconds.
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+}
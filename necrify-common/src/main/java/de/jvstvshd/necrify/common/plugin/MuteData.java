@@ -18,6 +18,7 @@
 
 package de.jvstvshd.necrify.common.plugin;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -55,8 +56,9 @@ public class MuteData {
     /**
      * The protocol version of the mute data. This is used to ensure that the data is correctly interpreted by the sub-servers.
      * Unexpected results may occur if the version of incoming data does not match.
+     * <p>Starting with version 2, mute data is transferred in binary frames as described in {@link MuteDataCodec}.</p>
      */
-    public static final int PROTOCOL_VERSION = 1;
+    public static final int PROTOCOL_VERSION = 2;
 
     /**
      * Starting from 1.2.0-rc.1, this and {@link #RECALCULATION} are the only type that is actively used. All other ones exist merely for compatibility reasons.
@@ -78,28 +80,31 @@ public class MuteData {
     private final int type;
     private final UUID punishmentId;
     private final int version;
+    private final long sequence;
 
+    @JsonCreator
     public MuteData(@JsonProperty("type") int type,
                     @JsonProperty("uuid") UUID uuid,
                     @JsonProperty("reason") String reason,
                     @JsonProperty("expiration") LocalDateTime expiration,
                     @JsonProperty("punishment_id") UUID punishmentId,
-                    @JsonProperty("version") int version) {
+                    @JsonProperty("version") int version,
+                    @JsonProperty("sequence") long sequence) {
         this.uuid = uuid;
         this.reason = reason;
         this.expiration = expiration;
         this.type = type;
         this.punishmentId = punishmentId;
         this.version = version;
+        this.sequence = sequence;
+    }
+
+    public MuteData(int type, UUID uuid, String reason, LocalDateTime expiration, UUID punishmentId, int version) {
+        this(type, uuid, reason, expiration, punishmentId, version, 0);
     }
 
     public MuteData(UUID uuid, String reason, LocalDateTime expiration, int type, UUID punishmentId) {
-        this.uuid = uuid;
-        this.reason = reason;
-        this.expiration = expiration;
-        this.type = type;
-        this.punishmentId = punishmentId;
-        this.version = PROTOCOL_VERSION;
+        this(type, uuid, reason, expiration, punishmentId, PROTOCOL_VERSION, 0);
     }
 
     public UUID getUuid() {
@@ -122,6 +127,29 @@ public class MuteData {
         return version;
     }
 
+    /**
+     * Returns the sequence number of this mute data. Sequence numbers are assigned by the proxy in increasing order, so
+     * sub-servers can ignore mute data that is older than the state they already applied for a player. A sequence
+     * number of 0 means that this mute data has none and is always applied.
+     *
+     * @return the sequence number of this mute data
+     * @since 1.2.6
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * Returns a copy of this mute data with the given sequence number.
+     *
+     * @param sequence the sequence number
+     * @return a copy of this mute data with the given sequence number
+     * @since 1.2.6
+     */
+    public MuteData withSequence(long sequence) {
+        return new MuteData(type, uuid, reason, expiration, punishmentId, version, sequence);
+    }
+
     @Deprecated
     @JsonIgnore
     public boolean isAdd() {
@@ -0,0 +1,578 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.plugin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Encodes and decodes the messages sent through the {@link MuteData#MUTE_DATA_CHANNEL_IDENTIFIER mute data channel}.
+ * <p>Up to protocol version 1, every message contains a single {@link MuteData} object serialized to JSON. Starting with
+ * protocol version 2, messages are binary frames that start with {@link #MAGIC}, which can never be the start of a JSON
+ * message. Sub-servers send {@link #KIND_HELLO hellos} to announce the highest protocol version they support,
+ * {@link #KIND_SNAPSHOT_REQUEST snapshot requests} and {@link #KIND_ACK acknowledgements}. The proxy sends frames
+ * carrying any number of {@link #KIND_MUTES mute data objects} and {@link #KIND_SNAPSHOT snapshots}. It only sends binary
+ * frames to sub-servers that announced support for them and falls back to JSON otherwise.</p>
+ * <p>A frame is laid out as follows:</p>
+ * <pre>
+ * int   magic
+ * byte  protocol version
+ * byte  kind
+ * byte  flags (bit 0: the body is compressed)
+ * [int  length of the uncompressed body, only if compressed]
+ * ...   body, deflated if compressed
+ * </pre>
+ * The body of a hello frame is the announced protocol version as int. The body of a snapshot request is the amount of
+ * players as int followed by their UUIDs (two longs each). The body of a mute frame is the amount of entries as int
+ * followed by the entries, each consisting of the {@link MuteData#getSequence() sequence number} (long), the type (byte),
+ * the player's UUID (two longs), a byte indicating which of the optional fields are present and these fields: the reason
+ * (int length followed by UTF-8 bytes), the expiration in epoch milliseconds (long) and the punishment's UUID (two longs).
+ * A snapshot frame is a mute frame whose body is preceded by the snapshot's sequence number (long), the index of this
+ * frame (int) and the total amount of frames of the snapshot (int). The body of an acknowledgement is the amount of
+ * acknowledged entries as int followed by the player's UUID (two longs) and the sequence number (long) of each entry.
+ */
+public final class MuteDataCodec {
+
+    /**
+     * The first four bytes of every binary frame ("NCRF"). A JSON message starts with its length as unsigned short
+     * followed by '{', so it never starts with these bytes.
+     */
+    public static final int MAGIC = 0x4E435246;
+
+    /**
+     * The protocol version of JSON messages. Sub-servers that understand JSON messages only do not know about any later
+     * version.
+     */
+    public static final int JSON_PROTOCOL_VERSION = 1;
+
+    /**
+     * The first protocol version that uses binary frames.
+     */
+    public static final int BINARY_PROTOCOL_VERSION = 2;
+
+    /**
+     * Frames of this kind carry mute data.
+     */
+    public static final byte KIND_MUTES = 0;
+
+    /**
+     * Frames of this kind are sent by sub-servers to announce the highest protocol version they support.
+     */
+    public static final byte KIND_HELLO = 1;
+
+    /**
+     * Frames of this kind are sent by sub-servers to request the current mute data of the players on them.
+     */
+    public static final byte KIND_SNAPSHOT_REQUEST = 2;
+
+    /**
+     * Frames of this kind are the proxy's response to a {@link #KIND_SNAPSHOT_REQUEST snapshot request}. A snapshot may
+     * consist of several frames.
+     */
+    public static final byte KIND_SNAPSHOT = 3;
+
+    /**
+     * Frames of this kind are sent by sub-servers to acknowledge that they applied the mute data of a
+     * {@link #KIND_MUTES mute frame} or a {@link #KIND_SNAPSHOT snapshot frame}.
+     */
+    public static final byte KIND_ACK = 4;
+
+    /**
+     * Bodies larger than this amount of bytes are compressed.
+     */
+    public static final int COMPRESSION_THRESHOLD = 1024;
+
+    /**
+     * The maximum size of the uncompressed body of a frame. Plugin messages sent to sub-servers may not be larger than
+     * 32767 bytes, so some space is left for the header.
+     */
+    public static final int MAX_BODY_SIZE = 32000;
+
+    private static final int HEADER_SIZE = 4 + 1 + 1 + 1;
+    private static final int SNAPSHOT_PREFIX_SIZE = 8 + 4 + 4;
+    private static final byte FLAG_COMPRESSED = 1;
+    private static final byte HAS_REASON = 1;
+    private static final byte HAS_EXPIRATION = 1 << 1;
+    private static final byte HAS_PUNISHMENT_ID = 1 << 2;
+
+    private MuteDataCodec() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Returns whether the given message is a binary frame rather than a JSON message.
+     *
+     * @param message the received message
+     * @return true if the message starts with {@link #MAGIC}
+     */
+    public static boolean isBinary(byte[] message) {
+        return message.length >= HEADER_SIZE && ((message[0] & 0xFF) << 24 | (message[1] & 0xFF) << 16
+                | (message[2] & 0xFF) << 8 | (message[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * Returns the kind of the given binary frame.
+     *
+     * @param frame the binary frame
+     * @return {@link #KIND_MUTES}, {@link #KIND_HELLO}, {@link #KIND_SNAPSHOT_REQUEST}, {@link #KIND_SNAPSHOT} or
+     * {@link #KIND_ACK}
+     */
+    public static byte kind(byte[] frame) {
+        return frame[5];
+    }
+
+    /**
+     * Returns the protocol version the given binary frame was encoded with.
+     *
+     * @param frame the binary frame
+     * @return the protocol version of the frame
+     */
+    public static int version(byte[] frame) {
+        return frame[4] & 0xFF;
+    }
+
+    /**
+     * Serializes the given mute data to a JSON message as understood by protocol version 1. The message always carries
+     * {@link #JSON_PROTOCOL_VERSION}, regardless of the version of the given mute data.
+     *
+     * @param muteData the mute data to serialize
+     * @return the message
+     * @throws JsonProcessingException if the mute data could not be serialized
+     */
+    public static byte[] encodeJson(MuteData muteData) throws JsonProcessingException {
+        var legacy = new MuteData(muteData.getType(), muteData.getUuid(), muteData.getReason(), muteData.getExpiration(),
+                muteData.getPunishmentId(), JSON_PROTOCOL_VERSION, muteData.getSequence());
+        var serialized = MuteData.OBJECT_MAPPER.writeValueAsString(legacy);
+        var bytes = new ByteArrayOutputStream(serialized.length() + 2);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeUTF(serialized);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Deserializes a JSON message as sent with protocol version 1.
+     *
+     * @param message the message
+     * @return the mute data contained in the message
+     * @throws IOException if the message is malformed
+     */
+    public static MuteData decodeJson(byte[] message) throws IOException {
+        var input = new DataInputStream(new ByteArrayInputStream(message));
+        return MuteData.OBJECT_MAPPER.readValue(input.readUTF(), MuteData.class);
+    }
+
+    /**
+     * Creates a hello frame announcing the given protocol version.
+     *
+     * @param version the highest protocol version the sender supports
+     * @return the frame
+     */
+    public static byte[] encodeHello(int version) {
+        var bytes = new ByteArrayOutputStream(HEADER_SIZE + 4);
+        try (var output = new DataOutputStream(bytes)) {
+            writeHeader(output, KIND_HELLO, (byte) 0);
+            output.writeInt(version);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the protocol version announced by the given hello frame.
+     *
+     * @param frame the hello frame
+     * @return the announced protocol version
+     * @throws IOException if the frame is malformed
+     */
+    public static int decodeHello(byte[] frame) throws IOException {
+        return body(frame).readInt();
+    }
+
+    /**
+     * Creates a snapshot request for the given players.
+     *
+     * @param players the UUIDs of the players whose mute data is requested
+     * @return the frame
+     */
+    public static byte[] encodeSnapshotRequest(List<UUID> players) {
+        var bytes = new ByteArrayOutputStream(HEADER_SIZE + 4 + players.size() * 16);
+        try (var output = new DataOutputStream(bytes)) {
+            writeHeader(output, KIND_SNAPSHOT_REQUEST, (byte) 0);
+            output.writeInt(players.size());
+            for (UUID player : players) {
+                output.writeLong(player.getMostSignificantBits());
+                output.writeLong(player.getLeastSignificantBits());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the players whose mute data is requested by the given snapshot request.
+     *
+     * @param frame the snapshot request
+     * @return the UUIDs of the requested players
+     * @throws IOException if the frame is malformed
+     */
+    public static List<UUID> decodeSnapshotRequest(byte[] frame) throws IOException {
+        var input = body(frame);
+        int count = input.readInt();
+        if (count < 0 || count > (frame.length - HEADER_SIZE) / 16) {
+            throw new IOException("Invalid amount of players " + count);
+        }
+        List<UUID> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(new UUID(input.readLong(), input.readLong()));
+        }
+        return players;
+    }
+
+    /**
+     * Creates an acknowledgement of the given mute data.
+     *
+     * @param muteData the mute data that was applied
+     * @return the frame
+     */
+    public static byte[] encodeAck(List<MuteData> muteData) {
+        var bytes = new ByteArrayOutputStream(HEADER_SIZE + 4 + muteData.size() * 24);
+        try (var output = new DataOutputStream(bytes)) {
+            writeHeader(output, KIND_ACK, (byte) 0);
+            output.writeInt(muteData.size());
+            for (MuteData data : muteData) {
+                output.writeLong(data.getUuid().getMostSignificantBits());
+                output.writeLong(data.getUuid().getLeastSignificantBits());
+                output.writeLong(data.getSequence());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the entries acknowledged by the given acknowledgement.
+     *
+     * @param frame the acknowledgement
+     * @return the acknowledged entries
+     * @throws IOException if the frame is malformed
+     */
+    public static List<Acknowledgement> decodeAck(byte[] frame) throws IOException {
+        var input = body(frame);
+        int count = input.readInt();
+        if (count < 0 || count > (frame.length - HEADER_SIZE) / 24) {
+            throw new IOException("Invalid amount of acknowledged entries " + count);
+        }
+        List<Acknowledgement> acknowledgements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            acknowledgements.add(new Acknowledgement(new UUID(input.readLong(), input.readLong()), input.readLong()));
+        }
+        return acknowledgements;
+    }
+
+    /**
+     * Encodes the given mute data into as few frames as possible. Every frame's body is at most {@link #MAX_BODY_SIZE}
+     * bytes large and compressed if it is larger than {@link #COMPRESSION_THRESHOLD} bytes.
+     *
+     * @param muteData the mute data to encode
+     * @return the frames in the order they have to be sent
+     */
+    public static List<byte[]> encode(List<MuteData> muteData) {
+        var chunks = partition(muteData, 0);
+        List<byte[]> frames = new ArrayList<>(chunks.size());
+        for (Chunk chunk : chunks) {
+            frames.add(frame(KIND_MUTES, chunk.body(new byte[0])));
+        }
+        return frames;
+    }
+
+    /**
+     * Encodes the given mute data as the response to a snapshot request. The snapshot is split into as many frames as
+     * needed, each of which is at most {@link #MAX_BODY_SIZE} bytes large before compression. A snapshot without
+     * any mute data still consists of one frame, so the receiver knows that the snapshot is complete.
+     *
+     * @param muteData         the mute data of all requested players
+     * @param snapshotSequence the sequence number of the snapshot
+     * @return the frames in the order they have to be sent
+     */
+    public static List<byte[]> encodeSnapshot(List<MuteData> muteData, long snapshotSequence) {
+        var chunks = partition(muteData, SNAPSHOT_PREFIX_SIZE);
+        if (chunks.isEmpty()) {
+            chunks = List.of(new Chunk(0, new byte[0]));
+        }
+        List<byte[]> frames = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            var prefix = new ByteArrayOutputStream(SNAPSHOT_PREFIX_SIZE);
+            try (var output = new DataOutputStream(prefix)) {
+                output.writeLong(snapshotSequence);
+                output.writeInt(i);
+                output.writeInt(chunks.size());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            frames.add(frame(KIND_SNAPSHOT, chunks.get(i).body(prefix.toByteArray())));
+        }
+        return frames;
+    }
+
+    /**
+     * Decodes all mute data contained in the given mute frame.
+     *
+     * @param frame the mute frame
+     * @return the mute data in the order it was encoded
+     * @throws IOException if the frame is malformed
+     */
+    public static List<MuteData> decode(byte[] frame) throws IOException {
+        return readEntries(body(frame), version(frame));
+    }
+
+    /**
+     * Decodes a frame of a snapshot.
+     *
+     * @param frame the snapshot frame
+     * @return the decoded part of the snapshot
+     * @throws IOException if the frame is malformed
+     */
+    public static SnapshotChunk decodeSnapshot(byte[] frame) throws IOException {
+        var input = body(frame);
+        long sequence = input.readLong();
+        int index = input.readInt();
+        int total = input.readInt();
+        return new SnapshotChunk(sequence, index, total, readEntries(input, version(frame)));
+    }
+
+    private static List<MuteData> readEntries(DataInputStream input, int version) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_BODY_SIZE) {
+            throw new IOException("Invalid amount of entries " + count);
+        }
+        List<MuteData> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long sequence = input.readLong();
+            int type = input.readByte();
+            var uuid = new UUID(input.readLong(), input.readLong());
+            byte fields = input.readByte();
+            String reason = null;
+            LocalDateTime expiration = null;
+            UUID punishmentId = null;
+            if ((fields & HAS_REASON) != 0) {
+                var reasonBytes = new byte[input.readInt()];
+                input.readFully(reasonBytes);
+                reason = new String(reasonBytes, StandardCharsets.UTF_8);
+            }
+            if ((fields & HAS_EXPIRATION) != 0) {
+                expiration = new Timestamp(input.readLong()).toLocalDateTime();
+            }
+            if ((fields & HAS_PUNISHMENT_ID) != 0) {
+                punishmentId = new UUID(input.readLong(), input.readLong());
+            }
+            result.add(new MuteData(type, uuid, reason, expiration, punishmentId, version, sequence));
+        }
+        return result;
+    }
+
+    /**
+     * Splits the encoded entries into chunks whose bodies, including a prefix of the given size and the amount of
+     * entries, do not exceed {@link #MAX_BODY_SIZE}.
+     */
+    private static List<Chunk> partition(List<MuteData> muteData, int prefixSize) {
+        List<Chunk> chunks = new ArrayList<>();
+        var entries = new ByteArrayOutputStream();
+        int count = 0;
+        for (MuteData data : muteData) {
+            var entry = encodeEntry(data);
+            if (count > 0 && prefixSize + 4 + entries.size() + entry.length > MAX_BODY_SIZE) {
+                chunks.add(new Chunk(count, entries.toByteArray()));
+                entries.reset();
+                count = 0;
+            }
+            entries.writeBytes(entry);
+            count++;
+        }
+        if (count > 0) {
+            chunks.add(new Chunk(count, entries.toByteArray()));
+        }
+        return chunks;
+    }
+
+    private static byte[] encodeEntry(MuteData data) {
+        var bytes = new ByteArrayOutputStream(64);
+        try (var output = new DataOutputStream(bytes)) {
+            output.writeLong(data.getSequence());
+            output.writeByte(data.getType());
+            output.writeLong(data.getUuid().getMostSignificantBits());
+            output.writeLong(data.getUuid().getLeastSignificantBits());
+            byte fields = 0;
+            if (data.getReason() != null) fields |= HAS_REASON;
+            if (data.getExpiration() != null) fields |= HAS_EXPIRATION;
+            if (data.getPunishmentId() != null) fields |= HAS_PUNISHMENT_ID;
+            output.writeByte(fields);
+            if (data.getReason() != null) {
+                var reason = data.getReason().getBytes(StandardCharsets.UTF_8);
+                output.writeInt(reason.length);
+                output.write(reason);
+            }
+            if (data.getExpiration() != null) {
+                //epoch millis in the system's default time zone, like punishment durations are stored
+                output.writeLong(Timestamp.valueOf(data.getExpiration()).getTime());
+            }
+            if (data.getPunishmentId() != null) {
+                output.writeLong(data.getPunishmentId().getMostSignificantBits());
+                output.writeLong(data.getPunishmentId().getLeastSignificantBits());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] frame(byte kind, byte[] uncompressed) {
+        var bytes = new ByteArrayOutputStream(HEADER_SIZE + uncompressed.length);
+        try (var output = new DataOutputStream(bytes)) {
+            if (uncompressed.length > COMPRESSION_THRESHOLD) {
+                writeHeader(output, kind, FLAG_COMPRESSED);
+                output.writeInt(uncompressed.length);
+                output.write(deflate(uncompressed));
+            } else {
+                writeHeader(output, kind, (byte) 0);
+                output.write(uncompressed);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeHeader(DataOutputStream output, byte kind, byte flags) throws IOException {
+        output.writeInt(MAGIC);
+        output.writeByte(BINARY_PROTOCOL_VERSION);
+        output.writeByte(kind);
+        output.writeByte(flags);
+    }
+
+    private static DataInputStream body(byte[] frame) throws IOException {
+        if (!isBinary(frame)) {
+            throw new IOException("Not a binary mute data frame");
+        }
+        if ((frame[6] & FLAG_COMPRESSED) == 0) {
+            return new DataInputStream(new ByteArrayInputStream(frame, HEADER_SIZE, frame.length - HEADER_SIZE));
+        }
+        var lengthInput = new DataInputStream(new ByteArrayInputStream(frame, HEADER_SIZE, 4));
+        int length = lengthInput.readInt();
+        if (length < 0 || length > MAX_BODY_SIZE) {
+            throw new IOException("Invalid uncompressed body length " + length);
+        }
+        return new DataInputStream(new ByteArrayInputStream(inflate(frame, HEADER_SIZE + 4, length)));
+    }
+
+    private static byte[] deflate(byte[] data) {
+        var deflater = new Deflater();
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            var output = new ByteArrayOutputStream(data.length / 2);
+            var buffer = new byte[4096];
+            while (!deflater.finished()) {
+                output.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] frame, int offset, int length) throws IOException {
+        var inflater = new Inflater();
+        try {
+            inflater.setInput(frame, offset, frame.length - offset);
+            var result = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(result, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IOException("Compressed body is shorter than announced");
+            }
+            return result;
+        } catch (DataFormatException e) {
+            throw new IOException("Compressed body is malformed", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * A part of a snapshot.
+     *
+     * @param sequence the sequence number of the snapshot, which is the same for all of its frames
+     * @param index    the index of this frame, starting at 0
+     * @param total    the total amount of frames of the snapshot
+     * @param muteData the mute data contained in this frame
+     */
+    public record SnapshotChunk(long sequence, int index, int total, List<MuteData> muteData) {
+
+        /**
+         * Returns whether this is the last frame of its snapshot.
+         *
+         * @return true if this is the last frame
+         */
+        public boolean isLast() {
+            return index == total - 1;
+        }
+    }
+
+    /**
+     * The acknowledgement of a single entry of mute data.
+     *
+     * @param player   the UUID of the player the mute data belongs to
+     * @param sequence the sequence number of the mute data
+     */
+    public record Acknowledgement(UUID player, long sequence) {
+    }
+
+    private record Chunk(int count, byte[] entries) {
+
+        private byte[] body(byte[] prefix) {
+            var body = new ByteArrayOutputStream(prefix.length + 4 + entries.length);
+            body.writeBytes(prefix);
+            body.writeBytes(new byte[]{(byte) (count >>> 24), (byte) (count >>> 16), (byte) (count >>> 8), (byte) count});
+            body.writeBytes(entries);
+            return body.toByteArray();
+        }
+    }
+}
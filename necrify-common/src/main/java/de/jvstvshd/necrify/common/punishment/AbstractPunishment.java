@@ -32,7 +32,6 @@ import de.jvstvshd.necrify.api.template.NecrifyTemplateStage;
 import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.punishment.log.NecrifyPunishmentLog;
-import de.jvstvshd.necrify.common.util.Util;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.intellij.lang.annotations.Language;
@@ -50,7 +49,12 @@ import java.util.concurrent.ExecutorService;
 
 public abstract class AbstractPunishment implements Punishment {
 
-    private final Component reason;
+    /**
+     * The reason in MiniMessage format if this punishment was loaded from storage, otherwise null. It is deserialized
+     * on the first access of {@link #getReason()}.
+     */
+    private final String serializedReason;
+    private volatile Component reason;
     private final ExecutorService executor;
     private final NecrifyUser user;
     private final UUID punishmentUuid;
@@ -82,7 +86,27 @@ public abstract class AbstractPunishment implements Punishment {
                               @NotNull AbstractNecrifyPlugin plugin,
                               @Nullable Punishment successor,
                               @Nullable LocalDateTime issuedAt) {
-        this.reason = Objects.requireNonNull(reason, "punishment must be reasoned");
+        this(user, Objects.requireNonNull(reason, "punishment must be reasoned"), null, punishmentUuid, plugin, successor, issuedAt);
+    }
+
+    public AbstractPunishment(@NotNull NecrifyUser user,
+                              @NotNull String serializedReason,
+                              @NotNull UUID punishmentUuid,
+                              @NotNull AbstractNecrifyPlugin plugin,
+                              @Nullable Punishment successor,
+                              @Nullable LocalDateTime issuedAt) {
+        this(user, null, Objects.requireNonNull(serializedReason, "punishment must be reasoned"), punishmentUuid, plugin, successor, issuedAt);
+    }
+
+    private AbstractPunishment(@NotNull NecrifyUser user,
+                               @Nullable Component reason,
+                               @Nullable String serializedReason,
+                               @NotNull UUID punishmentUuid,
+                               @NotNull AbstractNecrifyPlugin plugin,
+                               @Nullable Punishment successor,
+                               @Nullable LocalDateTime issuedAt) {
+        this.reason = reason;
+        this.serializedReason = serializedReason;
         this.executor = plugin.getExecutor();
         this.user = Objects.requireNonNull(user, "punishment must be bound to a user");
         this.punishmentUuid = Objects.requireNonNull(punishmentUuid, "punishment must have a uuid");
@@ -95,12 +119,18 @@ public abstract class AbstractPunishment implements Punishment {
     }
 
     public @NotNull Component getReason() {
+        var reason = this.reason;
+        if (reason == null) {
+            //benign race: concurrent callers get the same interned instance
+            reason = plugin.getReasonCache().deserialize(serializedReason);
+            this.reason = reason;
+        }
         return reason;
     }
 
     @Override
     public @NotNull Component getRawReason() {
-        return reason;
+        return getReason();
     }
 
     public ExecutorService getExecutor() {
@@ -170,7 +200,7 @@ public abstract class AbstractPunishment implements Punishment {
     @Override
     public String toString() {
         return "AbstractPunishment{" +
-                "reason=" + reason +
+                "reason=" + getReason() +
                 ", service=" + executor +
                 ", userUuid=" + user.getUuid() +
                 ", userName=" + user.getUsername() +
@@ -258,14 +288,13 @@ public abstract class AbstractPunishment implements Punishment {
         if (cachedLog != null) {
             return CompletableFuture.completedFuture(cachedLog);
         }
-        return Util.executeAsync(() -> {
-            var log = new NecrifyPunishmentLog(plugin, this);
-            log.load(false);
+        var log = new NecrifyPunishmentLog(plugin, this);
+        return log.loadAsync(false).thenApply(_ -> {
             //if (plugin.getConfig().getConfiguration().getDataBaseData().getSqlType().startsWith("postgres")) {
             cachedLog = log;
             //}
             return log;
-        }, executor);
+        });
     }
 
     public void disposeCachedLog() {
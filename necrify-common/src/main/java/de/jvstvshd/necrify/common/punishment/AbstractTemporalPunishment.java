@@ -52,6 +52,11 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
         this.duration = Objects.requireNonNull(duration, "temporal punishment must have a duration");
     }
 
+    public AbstractTemporalPunishment(NecrifyUser user, String serializedReason, UUID punishmentUuid, PunishmentDuration duration, AbstractNecrifyPlugin plugin, Punishment successor, LocalDateTime issuedAt) {
+        super(user, serializedReason, punishmentUuid, plugin, successor, issuedAt);
+        this.duration = Objects.requireNonNull(duration, "temporal punishment must have a duration");
+    }
+
     public @NotNull PunishmentDuration getDuration() {
         return duration;
     }
@@ -96,8 +101,8 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
         }
         var oldDuration = getDuration();
         var oldReason = getReason();
+        var newCreatedAt = creationTime == null ? getCreationTime() : creationTime;
         return executeAsync(() -> {
-            var newCreatedAt = creationTime == null ? getCreationTime() : creationTime;
             var newRsn = newReason == null ? getReason() : newReason;
             Query.query(APPLY_CHANGE)
                     .single(Call.of()
@@ -106,56 +111,62 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
                             .bind(Timestamp.valueOf(newCreatedAt))
                             .bind(getPunishmentUuid(), Adapters.UUID_ADAPTER))
                     .update();
-            if (hasSuccessor()) { //we have to update the successor's time of issuance and expiration accordingly
-                updateSuccessor().join();
-            }
-            var builder = new PunishmentBuilder(getPlugin())
-                    .withUser(getUser())
-                    .withReason(newReason)
-                    .withDuration(newDuration)
-                    .withCreationTime(newCreatedAt)
-                    .withPunishmentUuid(getPunishmentUuid())
-                    .withSuccessor(getSuccessorOrNull());
-            Punishment punishment;
-            if (getType().isBan()) {
-                punishment = builder.buildBan();
-            } else if (getType().isMute()) {
-                punishment = builder.buildMute();
-            } else {
-                throw new IllegalStateException("punishment type is not a ban or mute");
-            }
-            getPlugin().getEventDispatcher().dispatch(new PunishmentChangedEvent(punishment, this));
-            return punishment;
-        }, getExecutor());
+            return null;
+        }, getExecutor())
+                //we have to update the successor's time of issuance and expiration accordingly
+                .thenCompose(_ -> updateSuccessor())
+                .thenApply(_ -> {
+                    var builder = new PunishmentBuilder(getPlugin())
+                            .withUser(getUser())
+                            .withReason(newReason)
+                            .withDuration(newDuration)
+                            .withCreationTime(newCreatedAt)
+                            .withPunishmentUuid(getPunishmentUuid())
+                            .withSuccessor(getSuccessorOrNull());
+                    Punishment punishment;
+                    if (getType().isBan()) {
+                        punishment = builder.buildBan();
+                    } else if (getType().isMute()) {
+                        punishment = builder.buildMute();
+                    } else {
+                        throw new IllegalStateException("punishment type is not a ban or mute");
+                    }
+                    getPlugin().getEventDispatcher().dispatch(new PunishmentChangedEvent(punishment, this));
+                    return punishment;
+                });
     }
 
     @Override
     protected CompletableFuture<Punishment> applyCancellation() throws PunishmentException {
-        return executeAsync(() -> {
-            if (hasSuccessor()) {
-                updateSuccessor().join();
-            }
+        return updateSuccessor().thenCompose(_ -> {
             var predecessor = getPredecessor();
-            if (predecessor != null) {
-                if (hasSuccessor()) {
-                    predecessor.setSuccessor(getSuccessor()).join();
-                } else {
-                    predecessor.setSuccessor(null);
-                }
+            if (predecessor == null) {
+                return CompletableFuture.completedFuture(null);
             }
+            return predecessor.setSuccessor(hasSuccessor() ? getSuccessor() : null);
+        }).thenCompose(_ -> executeAsync(() -> {
             Query.query(APPLY_CANCELLATION)
                     .single(Call.of().bind(getPunishmentUuid(), Adapters.UUID_ADAPTER))
                     .delete();
             return this;
-        }, getExecutor());
+        }, getExecutor()));
     }
 
+    /**
+     * Moves the successor of this punishment, if there is one, so that it begins now and lasts as long as before.
+     *
+     * @return a future completing with the successor or null once the successor has been updated
+     */
     private CompletableFuture<Punishment> updateSuccessor() {
+        if (!hasSuccessor()) {
+            return CompletableFuture.completedFuture(null);
+        }
         var successor = getSuccessor();
         if (successor instanceof TemporalPunishment temporalSuccessor) {
             var total = temporalSuccessor.totalDuration();
             LocalDateTime newExpiration = LocalDateTime.now().plus(total.javaDuration());
-            temporalSuccessor.change(PunishmentDuration.from(newExpiration), LocalDateTime.now(), successor.getReason()).join();
+            return temporalSuccessor.change(PunishmentDuration.from(newExpiration), LocalDateTime.now(), successor.getReason())
+                    .thenApply(_ -> successor);
         } //we just assume that everything except a TemporalPunishment expires immediately or not in an infinite time
         return CompletableFuture.completedFuture(successor);
     }
@@ -200,22 +211,19 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
         if (Util.circularSuccessionChain(this, successor)) {
             throw new IllegalStateException("circular successor chain detected");
         }
+        LocalDateTime successorNewExpiration;
+        if (successor instanceof TemporalPunishment temporalSuccessor) {
+            var total = temporalSuccessor.totalDuration();
+            successorNewExpiration = duration.expiration().plus(total.javaDuration());
+        } else {
+            successorNewExpiration = PunishmentDuration.PERMANENT.expiration();
+        }
+        var issuanceSuccessor = duration.expiration();
         return Util.executeAsync(() -> {
             Query.query(APPLY_SUCCESSOR)
                     .single(Call.of().bind(successor.getPunishmentUuid(), Adapters.UUID_ADAPTER).bind(getPunishmentUuid(), Adapters.UUID_ADAPTER))
                     .update();
-            LocalDateTime successorNewExpiration;
-            if (successor instanceof TemporalPunishment temporalSuccessor) {
-                var total = temporalSuccessor.totalDuration();
-                successorNewExpiration = duration.expiration().plus(total.javaDuration());
-            } else {
-                successorNewExpiration = PunishmentDuration.PERMANENT.expiration();
-            }
-            var issuanceSuccessor = duration.expiration();
-            if (successor instanceof TemporalPunishment temporalSuccessor) {
-                var newSuccessor = temporalSuccessor.change(PunishmentDuration.from(successorNewExpiration, issuanceSuccessor), issuanceSuccessor, successor.getReason()).join();
-                setSuccessor0(newSuccessor);
-            } else {
+            if (!(successor instanceof TemporalPunishment)) {
                 Query.query(APPLY_TIMESTAMP_UPDATE)
                         .single(Call.of()
                                 .bind(Timestamp.valueOf(successorNewExpiration))
@@ -224,8 +232,14 @@ public abstract class AbstractTemporalPunishment extends AbstractPunishment impl
                         .update();
                 setSuccessor0(successor);
             }
-            return this;
-        }, getExecutor());
+            return null;
+        }, getExecutor()).thenCompose(_ -> {
+            if (successor instanceof TemporalPunishment temporalSuccessor) {
+                return temporalSuccessor.change(PunishmentDuration.from(successorNewExpiration, issuanceSuccessor), issuanceSuccessor, successor.getReason())
+                        .thenAccept(this::setSuccessor0);
+            }
+            return CompletableFuture.<Void>completedFuture(null);
+        }).thenApply(_ -> this);
     }
 
     @Override
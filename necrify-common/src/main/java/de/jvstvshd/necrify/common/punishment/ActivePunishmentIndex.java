@@ -0,0 +1,524 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.punishment;
+
+import de.chojo.sadu.mapper.wrapper.Row;
+import de.chojo.sadu.queries.api.call.Call;
+import de.chojo.sadu.queries.api.query.Query;
+import de.jvstvshd.necrify.api.duration.PunishmentDuration;
+import de.jvstvshd.necrify.api.event.punishment.PunishmentCancelledEvent;
+import de.jvstvshd.necrify.api.event.punishment.PunishmentChangedEvent;
+import de.jvstvshd.necrify.api.event.punishment.PunishmentPersecutedEvent;
+import de.jvstvshd.necrify.api.punishment.Punishment;
+import de.jvstvshd.necrify.api.punishment.PunishmentType;
+import de.jvstvshd.necrify.api.punishment.PunishmentTypeRegistry;
+import de.jvstvshd.necrify.api.user.NecrifyUser;
+import de.jvstvshd.necrify.common.event.PostgresPunishmentLogUpdateEvent;
+import de.jvstvshd.necrify.common.io.Adapters;
+import de.jvstvshd.necrify.common.util.Util;
+import org.greenrobot.eventbus.Subscribe;
+import org.greenrobot.eventbus.ThreadMode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory index of all users that are affected by at least one active ban or mute. This index is bulk-loaded from
+ * the database through {@link #load()} and is kept up to date with punishments being enforced, changed or cancelled on
+ * this instance. On PostgreSQL, punishments that were changed through other instances are picked up as soon as the
+ * database notifies about them. Other databases do not send notifications, so such punishments are only picked up with
+ * the next call to {@link #load()}.
+ * <p>
+ * This allows to decide whether a user has to be loaded at all without touching the database. Entries are stored in a
+ * single open-addressing {@code long[]} table with linear probing: every slot consists of the most and least significant
+ * bits of the user's uuid, flags for active bans and mutes and the latest expiration of these punishments. Thus, no
+ * objects are allocated per entry and lookups do not need to allocate anything either.
+ * </p>
+ * <p>The index is conservative: if in doubt, it reports a user as punished. It never reports a punished user as clean
+ * as long as the punishment was loaded or issued through this instance. Punishments issued through other instances
+ * may be missing until the respective notification arrives or, without notifications, until the next reload.</p>
+ */
+public final class ActivePunishmentIndex {
+
+    /*
+     * Permanent punishments are stored with an expiration far in the future, so they pass the expiration check as well.
+     * Punishments that expire after they were loaded are still filtered out by the index itself.
+     */
+    private static final String SELECT_ACTIVE_PUNISHMENTS = "SELECT uuid, type, expiration FROM necrify_punishment " +
+            "WHERE type IN (1, 2, 3, 4) AND expiration > CURRENT_TIMESTAMP;";
+    private static final String SELECT_ACTIVE_PUNISHMENTS_OF_USER = "SELECT uuid, type, expiration FROM necrify_punishment " +
+            "WHERE type IN (1, 2, 3, 4) AND expiration > CURRENT_TIMESTAMP AND uuid = ?;";
+    private static final String SELECT_ACTIVE_PUNISHMENTS_OF_PUNISHED_USER = "SELECT uuid, type, expiration FROM necrify_punishment " +
+            "WHERE type IN (1, 2, 3, 4) AND expiration > CURRENT_TIMESTAMP " +
+            "AND uuid = (SELECT uuid FROM necrify_punishment WHERE punishment_id = ?);";
+
+    private static final int SLOT_SIZE = 4;
+    private static final int MOST_SIGNIFICANT_BITS = 0;
+    private static final int LEAST_SIGNIFICANT_BITS = 1;
+    private static final int FLAGS = 2;
+    private static final int EXPIRATION = 3;
+
+    static final long BAN = 1;
+    static final long MUTE = 2;
+    private static final float LOAD_FACTOR = 0.75f;
+    static final int MINIMUM_CAPACITY = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    private final Object loadLock = new Object();
+    private long[] table = new long[MINIMUM_CAPACITY * SLOT_SIZE];
+    private int size = 0;
+    private volatile boolean loaded = false;
+    /**
+     * Updates that were made while the index is being rebuilt. These get applied to the new table as well, so they
+     * are not lost if they were not part of the database snapshot the rebuild is based on.
+     */
+    private List<Entry> pendingUpdates = null;
+
+    /**
+     * Loads all bans and mutes that did not expire yet from the database and replaces the current content of this index. This method blocks
+     * and should therefore be called asynchronously.
+     */
+    public void load() {
+        load(() -> Query.query(SELECT_ACTIVE_PUNISHMENTS)
+                .single()
+                .map(ActivePunishmentIndex::entry)
+                .all());
+    }
+
+    /**
+     * Replaces the current content of this index with the given entries. Updates made while the entries are retrieved
+     * are applied on top of them.
+     *
+     * @param source the source of all entries of this index
+     */
+    void load(Supplier<List<Entry>> source) {
+        synchronized (loadLock) {
+            synchronized (this) {
+                pendingUpdates = new ArrayList<>();
+            }
+            List<Entry> entries;
+            try {
+                entries = source.get();
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pendingUpdates = null;
+                }
+                throw e;
+            }
+            long now = System.currentTimeMillis();
+            var rebuilt = new long[tableLength(entries.size())];
+            int rebuiltSize = 0;
+            for (Entry entry : entries) {
+                if (entry.expiration() > now && merge(rebuilt, entry) && ++rebuiltSize > threshold(rebuilt)) {
+                    rebuilt = resize(rebuilt);
+                }
+            }
+            long stamp = lock.writeLock();
+            try {
+                synchronized (this) {
+                    table = rebuilt;
+                    size = rebuiltSize;
+                    for (Entry pending : pendingUpdates) {
+                        setLocked(pending);
+                    }
+                    pendingUpdates = null;
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Returns whether this index has been loaded completely at least once. Before, its content must not be relied on.
+     *
+     * @return true if this index has been loaded, false otherwise.
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Checks whether the given user may be affected by an active ban or mute.
+     *
+     * @param uuid the uuid of the user.
+     * @return false if the user is definitely not punished, true if they may be punished.
+     */
+    public boolean isPunished(@NotNull UUID uuid) {
+        return find(uuid, true, true);
+    }
+
+    /**
+     * Checks whether the given user may be affected by an active ban.
+     *
+     * @param uuid the uuid of the user.
+     * @return false if the user is definitely not banned, true if they may be banned.
+     */
+    public boolean isBanned(@NotNull UUID uuid) {
+        return find(uuid, true, false);
+    }
+
+    /**
+     * Checks whether the given user may be affected by an active mute.
+     *
+     * @param uuid the uuid of the user.
+     * @return false if the user is definitely not muted, true if they may be muted.
+     */
+    public boolean isMuted(@NotNull UUID uuid) {
+        return find(uuid, false, true);
+    }
+
+    /**
+     * Returns the amount of users that are currently contained in this index.
+     *
+     * @return the amount of indexed users.
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Recalculates the entry of the given user from their currently loaded punishments.
+     *
+     * @param user    the user whose entry should be updated.
+     * @param added   a punishment that should be considered in addition to the user's punishments, may be null.
+     * @param removed a punishment that should no longer be considered, may be null.
+     */
+    public void update(@NotNull NecrifyUser user, @Nullable Punishment added, @Nullable Punishment removed) {
+        long now = System.currentTimeMillis();
+        long flags = 0;
+        long expiration = 0;
+        List<Punishment> punishments = new ArrayList<>(user.getPunishments());
+        if (added != null) {
+            punishments.add(added);
+        }
+        for (Punishment punishment : punishments) {
+            var id = punishment.getPunishmentUuid();
+            if (removed != null && removed.getPunishmentUuid().equals(id) && punishment != added) {
+                continue;
+            }
+            if (added != null && added.getPunishmentUuid().equals(id) && punishment != added) {
+                continue;
+            }
+            long punishmentFlags = flags(punishment.getType());
+            long punishmentExpiration = expiration(punishment);
+            if (punishmentFlags == 0 || punishmentExpiration <= now) {
+                continue;
+            }
+            flags |= punishmentFlags;
+            expiration = Math.max(expiration, punishmentExpiration);
+        }
+        set(new Entry(user.getUuid(), flags, expiration));
+    }
+
+    @Subscribe(priority = Integer.MAX_VALUE)
+    public void onPunishmentEnforced(PunishmentPersecutedEvent event) {
+        var punishment = event.getPunishment();
+        update(punishment.getUser(), punishment, null);
+    }
+
+    @Subscribe(priority = Integer.MAX_VALUE)
+    public void onPunishmentCancelled(PunishmentCancelledEvent event) {
+        var punishment = event.getPunishment();
+        update(punishment.getUser(), null, punishment);
+    }
+
+    @Subscribe(priority = Integer.MAX_VALUE)
+    public void onPunishmentChanged(PunishmentChangedEvent event) {
+        var punishment = event.getPunishment();
+        update(punishment.getUser(), punishment, event.getOldPunishment());
+    }
+
+    /**
+     * Picks up changes of loaded punishments that were made through other instances. The loaded punishment itself is not
+     * updated yet when this event is dispatched, so the user's entry is reloaded from the database instead.
+     *
+     * @param event the event
+     */
+    @Subscribe(threadMode = ThreadMode.ASYNC)
+    public void onRemotePunishmentUpdate(PostgresPunishmentLogUpdateEvent event) {
+        reloadUser(event.getPunishment().getUser().getUuid());
+    }
+
+    /**
+     * Reloads the entry of the given user from the database. This method blocks and should therefore be called
+     * asynchronously.
+     *
+     * @param uuid the uuid of the user.
+     */
+    public void reloadUser(@NotNull UUID uuid) {
+        var entries = Query.query(SELECT_ACTIVE_PUNISHMENTS_OF_USER)
+                .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
+                .map(ActivePunishmentIndex::entry)
+                .all();
+        set(combine(uuid, entries));
+    }
+
+    /**
+     * Reloads the entry of the user affected by the given punishment from the database. If the punishment does not
+     * exist anymore, its user cannot be determined and their entry is kept as it is. This method blocks and should
+     * therefore be called asynchronously.
+     *
+     * @param punishmentId the uuid of the punishment.
+     */
+    public void reloadUserOf(@NotNull UUID punishmentId) {
+        var entries = Query.query(SELECT_ACTIVE_PUNISHMENTS_OF_PUNISHED_USER)
+                .single(Call.of().bind(punishmentId, Adapters.UUID_ADAPTER))
+                .map(ActivePunishmentIndex::entry)
+                .all();
+        if (!entries.isEmpty()) {
+            set(combine(entries.getFirst().uuid(), entries));
+        }
+    }
+
+    private static Entry combine(UUID uuid, List<Entry> entries) {
+        long now = System.currentTimeMillis();
+        long flags = 0;
+        long expiration = 0;
+        for (Entry entry : entries) {
+            if (entry.expiration() > now) {
+                flags |= entry.flags();
+                expiration = Math.max(expiration, entry.expiration());
+            }
+        }
+        return new Entry(uuid, flags, expiration);
+    }
+
+    /**
+     * Replaces the entry of the entry's user. An entry without flags removes the user from this index.
+     *
+     * @param entry the new entry
+     */
+    void set(Entry entry) {
+        long stamp = lock.writeLock();
+        try {
+            synchronized (this) {
+                if (pendingUpdates != null) {
+                    pendingUpdates.add(entry);
+                }
+                setLocked(entry);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void setLocked(Entry entry) {
+        int slot = slotOf(table, entry.uuid().getMostSignificantBits(), entry.uuid().getLeastSignificantBits());
+        if (entry.flags() == 0) {
+            if (slot >= 0) {
+                delete(table, slot);
+                size--;
+            }
+            return;
+        }
+        if (slot >= 0) {
+            table[slot + FLAGS] = entry.flags();
+            table[slot + EXPIRATION] = entry.expiration();
+            return;
+        }
+        if (merge(table, entry) && ++size > threshold(table)) {
+            table = resize(table);
+        }
+    }
+
+    private boolean find(UUID uuid, boolean bans, boolean mutes) {
+        long mostSigBits = uuid.getMostSignificantBits();
+        long leastSigBits = uuid.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        boolean result = find(table, mostSigBits, leastSigBits, bans, mutes);
+        if (lock.validate(stamp)) {
+            return result;
+        }
+        stamp = lock.readLock();
+        try {
+            return find(table, mostSigBits, leastSigBits, bans, mutes);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static boolean find(long[] table, long mostSigBits, long leastSigBits, boolean bans, boolean mutes) {
+        int slot = slotOf(table, mostSigBits, leastSigBits);
+        if (slot < 0 || table[slot + EXPIRATION] <= System.currentTimeMillis()) {
+            return false;
+        }
+        long flags = table[slot + FLAGS];
+        return (bans && (flags & BAN) != 0) || (mutes && (flags & MUTE) != 0);
+    }
+
+    /**
+     * Searches the slot of the given uuid.
+     *
+     * @return the index of the slot's first element or -1 if the uuid is not contained in the table.
+     */
+    private static int slotOf(long[] table, long mostSigBits, long leastSigBits) {
+        int mask = table.length / SLOT_SIZE - 1;
+        int index = hash(mostSigBits, leastSigBits) & mask;
+        for (int i = 0; i <= mask; i++) {
+            int slot = ((index + i) & mask) * SLOT_SIZE;
+            if (table[slot + FLAGS] == 0) {
+                return -1;
+            }
+            if (table[slot + MOST_SIGNIFICANT_BITS] == mostSigBits && table[slot + LEAST_SIGNIFICANT_BITS] == leastSigBits) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts the given entry into the table or merges it with an existing entry of the same user.
+     *
+     * @return true if a new slot was occupied, false if an existing slot was updated.
+     */
+    private static boolean merge(long[] table, Entry entry) {
+        long mostSigBits = entry.uuid().getMostSignificantBits();
+        long leastSigBits = entry.uuid().getLeastSignificantBits();
+        int mask = table.length / SLOT_SIZE - 1;
+        int index = hash(mostSigBits, leastSigBits) & mask;
+        for (int i = 0; ; i++) {
+            int slot = ((index + i) & mask) * SLOT_SIZE;
+            if (table[slot + FLAGS] == 0) {
+                table[slot + MOST_SIGNIFICANT_BITS] = mostSigBits;
+                table[slot + LEAST_SIGNIFICANT_BITS] = leastSigBits;
+                table[slot + EXPIRATION] = entry.expiration();
+                table[slot + FLAGS] = entry.flags();
+                return true;
+            }
+            if (table[slot + MOST_SIGNIFICANT_BITS] == mostSigBits && table[slot + LEAST_SIGNIFICANT_BITS] == leastSigBits) {
+                table[slot + FLAGS] |= entry.flags();
+                table[slot + EXPIRATION] = Math.max(table[slot + EXPIRATION], entry.expiration());
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Removes the entry at the given slot and shifts back following entries of the same probe sequence, so no
+     * tombstones are needed.
+     */
+    private static void delete(long[] table, int slot) {
+        int mask = table.length / SLOT_SIZE - 1;
+        int hole = slot / SLOT_SIZE;
+        int current = hole;
+        while (true) {
+            current = (current + 1) & mask;
+            int currentSlot = current * SLOT_SIZE;
+            if (table[currentSlot + FLAGS] == 0) {
+                break;
+            }
+            int home = hash(table[currentSlot + MOST_SIGNIFICANT_BITS], table[currentSlot + LEAST_SIGNIFICANT_BITS]) & mask;
+            //move the entry into the hole if its home position does not lie cyclically within (hole, current]
+            if (((current - home) & mask) >= ((current - hole) & mask)) {
+                System.arraycopy(table, currentSlot, table, hole * SLOT_SIZE, SLOT_SIZE);
+                hole = current;
+            }
+        }
+        int holeSlot = hole * SLOT_SIZE;
+        table[holeSlot + MOST_SIGNIFICANT_BITS] = 0;
+        table[holeSlot + LEAST_SIGNIFICANT_BITS] = 0;
+        table[holeSlot + FLAGS] = 0;
+        table[holeSlot + EXPIRATION] = 0;
+    }
+
+    private static long[] resize(long[] table) {
+        var resized = new long[table.length * 2];
+        for (int slot = 0; slot < table.length; slot += SLOT_SIZE) {
+            if (table[slot + FLAGS] == 0) {
+                continue;
+            }
+            int mask = resized.length / SLOT_SIZE - 1;
+            int index = hash(table[slot + MOST_SIGNIFICANT_BITS], table[slot + LEAST_SIGNIFICANT_BITS]) & mask;
+            while (resized[index * SLOT_SIZE + FLAGS] != 0) {
+                index = (index + 1) & mask;
+            }
+            System.arraycopy(table, slot, resized, index * SLOT_SIZE, SLOT_SIZE);
+        }
+        return resized;
+    }
+
+    private static int threshold(long[] table) {
+        return (int) (table.length / SLOT_SIZE * LOAD_FACTOR);
+    }
+
+    private static int tableLength(int expectedEntries) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity * LOAD_FACTOR < expectedEntries) {
+            capacity <<= 1;
+        }
+        return capacity * SLOT_SIZE;
+    }
+
+    /**
+     * Returns the amount of slots of the current table.
+     *
+     * @return the capacity of this index.
+     */
+    int capacity() {
+        long stamp = lock.readLock();
+        try {
+            return table.length / SLOT_SIZE;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    static int hash(long mostSigBits, long leastSigBits) {
+        long hash = mostSigBits ^ Long.rotateLeft(leastSigBits, 32);
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash;
+    }
+
+    private static long flags(PunishmentType type) {
+        return type.isBan() ? BAN : type.isMute() ? MUTE : 0;
+    }
+
+    private static long expiration(Punishment punishment) {
+        return PunishmentDuration.ofPunishment(punishment).expirationAsTimestamp().getTime();
+    }
+
+    private static Entry entry(Row row) throws SQLException {
+        return new Entry(Util.getUuid(row, 1), flags(PunishmentTypeRegistry.getType(row.getInt(2))), row.getTimestamp(3).getTime());
+    }
+
+    /**
+     * The state of a single user.
+     *
+     * @param uuid       the uuid of the user
+     * @param flags      {@link #BAN} and/or {@link #MUTE}, or 0 if the user is not punished
+     * @param expiration the latest expiration of the user's active punishments in epoch millis
+     */
+    record Entry(UUID uuid, long flags, long expiration) {
+    }
+}
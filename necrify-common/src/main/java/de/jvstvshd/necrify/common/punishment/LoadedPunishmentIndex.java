@@ -0,0 +1,122 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.punishment;
+
+import de.jvstvshd.necrify.api.Necrify;
+import de.jvstvshd.necrify.api.punishment.Punishment;
+import de.jvstvshd.necrify.api.user.NecrifyUser;
+import de.jvstvshd.necrify.common.user.AbstractUserManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An index of all punishments of currently loaded users, keyed by the punishment's uuid. It is maintained by the users
+ * themselves whenever punishments get added to or removed from them, so that looking up a loaded punishment by its id
+ * does not require to iterate over all loaded users and their punishments.
+ * <p>
+ * Since a user may get evicted from the cache or be replaced by another instance while it is being loaded, every lookup
+ * verifies that the punishment still belongs to the currently loaded instance of its user. Stale entries are removed or
+ * replaced with the punishment of the loaded instance.
+ * </p>
+ */
+public final class LoadedPunishmentIndex {
+
+    private final Map<UUID, Punishment> punishments = new ConcurrentHashMap<>();
+    private final Necrify necrify;
+
+    public LoadedPunishmentIndex(Necrify necrify) {
+        this.necrify = necrify;
+    }
+
+    /**
+     * Adds the given punishment to this index, replacing any previous punishment with the same id.
+     *
+     * @param punishment the punishment to add
+     */
+    public void add(@NotNull Punishment punishment) {
+        punishments.put(punishment.getPunishmentUuid(), punishment);
+    }
+
+    /**
+     * Removes the given punishment from this index. If another instance is registered for the same id, it is kept.
+     *
+     * @param punishment the punishment to remove
+     */
+    public void remove(@NotNull Punishment punishment) {
+        punishments.remove(punishment.getPunishmentUuid(), punishment);
+    }
+
+    /**
+     * Removes all punishments of the given user from this index. This should be called when the user gets unloaded.
+     *
+     * @param user the user whose punishments should be removed
+     */
+    public void removeAll(@NotNull NecrifyUser user) {
+        for (Punishment punishment : user.getPunishments()) {
+            remove(punishment);
+        }
+    }
+
+    /**
+     * Retrieves the ongoing punishment with the given id, if its user is currently loaded.
+     *
+     * @param punishmentUuid the uuid of the punishment
+     * @return the punishment or an empty optional if it does not belong to a loaded user
+     */
+    public Optional<Punishment> get(@NotNull UUID punishmentUuid) {
+        var punishment = punishments.get(punishmentUuid);
+        if (punishment == null) {
+            return Optional.empty();
+        }
+        var user = punishment.getUser();
+        var loaded = loadedUser(user.getUuid());
+        if (loaded.isPresent() && loaded.get() != user) {
+            //the user was loaded concurrently and another instance won, so index the punishment of that instance instead
+            var actual = loaded.get().getPunishment(punishmentUuid);
+            actual.ifPresentOrElse(this::add, () -> punishments.remove(punishmentUuid, punishment));
+            return actual;
+        }
+        if (loaded.isEmpty() || !punishment.isOngoing()) {
+            punishments.remove(punishmentUuid, punishment);
+            return Optional.empty();
+        }
+        return Optional.of(punishment);
+    }
+
+    private Optional<NecrifyUser> loadedUser(UUID uuid) {
+        //checking the owner of a punishment must not count as an access to the user cache, as it would skew its statistics
+        if (necrify.getUserManager() instanceof AbstractUserManager<?> userManager) {
+            return userManager.getLoadedUser(uuid);
+        }
+        return necrify.getUserManager().getUser(uuid);
+    }
+
+    /**
+     * Returns the amount of punishments in this index, including entries that have not yet been identified as stale.
+     *
+     * @return the size of this index
+     */
+    public int size() {
+        return punishments.size();
+    }
+}
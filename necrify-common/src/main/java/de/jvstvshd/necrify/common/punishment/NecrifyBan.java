@@ -43,6 +43,10 @@ public class NecrifyBan extends AbstractTemporalPunishment implements Ban {
         super(user, reason, punishmentUuid, duration, plugin, successor, issuedAt);
     }
 
+    public NecrifyBan(NecrifyUser user, String serializedReason, UUID punishmentUuid, PunishmentDuration duration, AbstractNecrifyPlugin plugin, Punishment successor, LocalDateTime issuedAt) {
+        super(user, serializedReason, punishmentUuid, duration, plugin, successor, issuedAt);
+    }
+
     @Override
     public CompletableFuture<Punishment> applyPunishment() throws PunishmentException {
         return super.applyPunishment().whenComplete((p, throwable) -> tryKick());
@@ -41,6 +41,10 @@ public class NecrifyMute extends AbstractTemporalPunishment implements Mute {
         super(user, reason, punishmentUuid, duration, plugin, successor, creationTime);
     }
 
+    public NecrifyMute(NecrifyUser user, String serializedReason, UUID punishmentUuid, PunishmentDuration duration, AbstractNecrifyPlugin plugin, Punishment successor, LocalDateTime creationTime) {
+        super(user, serializedReason, punishmentUuid, duration, plugin, successor, creationTime);
+    }
+
     @Override
     public @NotNull StandardPunishmentType getType() {
         return isPermanent() ? StandardPunishmentType.PERMANENT_MUTE : StandardPunishmentType.TEMPORARY_MUTE;
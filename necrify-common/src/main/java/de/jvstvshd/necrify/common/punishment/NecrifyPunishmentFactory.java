@@ -18,18 +18,14 @@
 
 package de.jvstvshd.necrify.common.punishment;
 
-import de.jvstvshd.necrify.api.duration.PunishmentDuration;
 import de.jvstvshd.necrify.api.punishment.Punishment;
+import de.jvstvshd.necrify.api.punishment.PunishmentData;
 import de.jvstvshd.necrify.api.punishment.PunishmentFactory;
 import de.jvstvshd.necrify.api.punishment.PunishmentType;
-import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
-import net.kyori.adventure.text.Component;
 import org.jetbrains.annotations.NotNull;
 
-import java.time.LocalDateTime;
 import java.util.Map;
-import java.util.UUID;
 
 public class NecrifyPunishmentFactory implements PunishmentFactory {
 
@@ -41,19 +37,19 @@ public class NecrifyPunishmentFactory implements PunishmentFactory {
 
     @Override
     public @NotNull Punishment createPunishment(@NotNull PunishmentType type, @NotNull Map<String, Object> data) {
-        final PunishmentDuration duration = (PunishmentDuration) data.get("duration");
-        final Component reason = (Component) data.get("reason");
-        final UUID punishmentUuid = (UUID) data.get("punishmentUuid");
-        final NecrifyUser user = (NecrifyUser) data.get("user");
-        final Punishment successor = (Punishment) data.get("successor");
-        final LocalDateTime creationTime = (LocalDateTime) data.get("issued_at");
+        return createPunishment(type, PunishmentData.fromMap(data));
+    }
+
+    @Override
+    public @NotNull Punishment createPunishment(@NotNull PunishmentType type, @NotNull PunishmentData data) {
         var builder = PunishmentBuilder.newBuilder(plugin)
-                .withDuration(duration)
-                .withReason(reason)
-                .withUser(user)
-                .withPunishmentUuid(punishmentUuid)
-                .withSuccessor(successor)
-                .withCreationTime(creationTime);
+                .withDuration(data.duration())
+                .withReason(data.reason())
+                .withSerializedReason(data.serializedReason())
+                .withUser(data.user())
+                .withPunishmentUuid(data.punishmentUuid())
+                .withSuccessor(data.successor())
+                .withCreationTime(data.issuedAt());
         Punishment punishment;
         switch (type.standard()) {
             case TEMPORARY_BAN, PERMANENT_BAN -> punishment = builder.buildBan();
@@ -32,6 +32,7 @@ public class PunishmentBuilder {
     private final AbstractNecrifyPlugin plugin;
     private NecrifyUser user;
     private Component reason;
+    private String serializedReason;
     private PunishmentDuration duration;
     private UUID punishmentUuid;
     private Punishment successor;
@@ -63,6 +64,22 @@ public class PunishmentBuilder {
         return this;
     }
 
+    public String serializedReason() {
+        return serializedReason;
+    }
+
+    /**
+     * Sets the reason in MiniMessage format. In contrast to {@link #withReason(Component)}, the reason is deserialized
+     * lazily once it is accessed. If both are set, the deserialized reason takes precedence.
+     *
+     * @param serializedReason the reason in MiniMessage format
+     * @return this builder
+     */
+    public PunishmentBuilder withSerializedReason(String serializedReason) {
+        this.serializedReason = serializedReason;
+        return this;
+    }
+
     public PunishmentDuration duration() {
         return duration;
     }
@@ -101,6 +118,9 @@ public class PunishmentBuilder {
 
     public NecrifyBan buildBan() {
         validateValues();
+        if (reason == null) {
+            return new NecrifyBan(user, serializedReason, punishmentUuid, duration.absolute(), plugin, successor, creationTime);
+        }
         return new NecrifyBan(user, reason, punishmentUuid, duration.absolute(), plugin, successor, creationTime);
     }
 
@@ -111,11 +131,14 @@ public class PunishmentBuilder {
      */
     public NecrifyKick buildKick() {
         validateValues();
-        return plugin.createKick(reason, user, punishmentUuid);
+        return plugin.createKick(reason != null ? reason : plugin.getReasonCache().deserialize(serializedReason), user, punishmentUuid);
     }
 
     public NecrifyMute buildMute() {
         validateValues();
+        if (reason == null) {
+            return new NecrifyMute(user, serializedReason, punishmentUuid, duration.absolute(), plugin, successor, creationTime);
+        }
         return new NecrifyMute(user, reason, punishmentUuid, duration.absolute(), plugin, successor, creationTime);
     }
 
@@ -124,7 +147,7 @@ public class PunishmentBuilder {
             punishmentUuid = UUID.randomUUID();
         if (user == null)
             throw new NullPointerException("user is null");
-        if (reason == null)
+        if (reason == null && serializedReason == null)
             throw new NullPointerException("reason is null");
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.punishment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
+import de.jvstvshd.necrify.common.config.CachePolicyData;
+import de.jvstvshd.necrify.common.util.Util;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A bounded cache of deserialized punishment reasons, keyed by their MiniMessage representation. Moderators tend to reuse
+ * a small set of reasons, so punishments and log entries with the same reason share one component tree instead of each
+ * holding its own copy. This is safe since components are immutable.
+ */
+public final class ReasonCache {
+
+    private final Cache<String, Component> reasons;
+
+    public ReasonCache(CachePolicyData policy) {
+        this.reasons = policy.newBuilder().build();
+    }
+
+    /**
+     * Deserializes the given MiniMessage string or returns the already deserialized component for it.
+     *
+     * @param serialized the reason in MiniMessage format
+     * @return the deserialized reason
+     */
+    @NotNull
+    public Component deserialize(@NotNull String serialized) {
+        return reasons.get(serialized, MiniMessage.miniMessage()::deserialize);
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache. Every hit is a reason that did not have to be deserialized and
+     * held again.
+     *
+     * @return the statistics of this cache
+     */
+    public CacheStatistics statistics() {
+        return Util.cacheStatistics(reasons);
+    }
+}
@@ -33,6 +33,7 @@ import de.jvstvshd.necrify.api.user.UserManager;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.io.Adapters;
 import de.jvstvshd.necrify.common.punishment.HistoricalPunishment;
+import de.jvstvshd.necrify.common.util.SingleFlight;
 import de.jvstvshd.necrify.common.util.Util;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.jetbrains.annotations.NotNull;
@@ -44,7 +45,7 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Default implementation of {@link PunishmentLog} for minecraft servers.
@@ -59,6 +60,7 @@ public class NecrifyPunishmentLog implements PunishmentLog {
     private final UserManager userManager;
     private final Logger logger;
     private final UUID uuid;
+    private final SingleFlight<UUID, Boolean> loads = new SingleFlight<>();
 
     /**
      * @param plugin
@@ -84,68 +86,142 @@ public class NecrifyPunishmentLog implements PunishmentLog {
     /**
      * Loads the log from the database. This method should be called right after instantiation of this object, otherwise
      * there will be no data contained in this object.
-     * <p>This method is ran synchronously and should not be called on the main thread. Use an asynchronous context yourself.
+     * <p>This method blocks until the log has been loaded. Prefer {@link #loadAsync(boolean)}, especially from within
+     * tasks running on one of the plugin's executors.
      *
      * @param loadIfAlreadyLoaded whether to load the log if it is already loaded
      * @return true if there was log data found and loaded, otherwise false
+     * @throws IllegalStateException if waiting for the log would deadlock the plugin's executor the current thread belongs to
      */
-    public synchronized boolean load(boolean loadIfAlreadyLoaded) {
+    public boolean load(boolean loadIfAlreadyLoaded) {
+        return Util.join(loadAsync(loadIfAlreadyLoaded));
+    }
+
+    /**
+     * Loads the log from the database. This method should be called right after instantiation of this object, otherwise
+     * there will be no data contained in this object. Actors, predecessors and successors of all entries are resolved
+     * without blocking any thread while waiting for them.
+     * <p>If the log is already being loaded, the future of that load is returned instead of starting another one.</p>
+     *
+     * @param loadIfAlreadyLoaded whether to load the log if it is already loaded
+     * @return a future completing with true if there was log data found and loaded, otherwise false
+     */
+    public CompletableFuture<Boolean> loadAsync(boolean loadIfAlreadyLoaded) {
         if (!loadIfAlreadyLoaded && !entries.isEmpty()) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
+        return loads.load(uuid, this::load0);
+    }
+
+    private synchronized CompletableFuture<Boolean> load0() {
         if (punishment == null) {
             punishment = new HistoricalPunishment(uuid, null, null, null, this);
         }
-        //Prevents deadlock. See method documentation for more information.
+        var loadedPunishment = punishment;
+        //Prevents infinite recursion when resolving predecessors and successors that refer back to this punishment.
         //This procedure should be save since the values inside the historical punishment are updated afterwards, so there
         //should be no missing data.
-        plugin.getHistoricalPunishmentCache().put(uuid, punishment);
-        AtomicInteger index = new AtomicInteger();
-        var entries = Query.query("SELECT id, actor_id, message, expiration, reason, predecessor, successor, action, " +
-                        "begins_at, created_at FROM punishment_log WHERE punishment_id = ? ORDER BY id ASC")
-                .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
-                .map(row -> fromRow(row, plugin, this, punishment, index.getAndIncrement())).all();
-        if (entries.isEmpty()) {
-            //If there are no entries, the punishment is invalid and should be removed from the cache for historical punishments
-            //it got cached into above.
-            plugin.getHistoricalPunishmentCache().invalidate(uuid);
-            return false;
-        }
-        Collections.sort(entries);
-        this.entries.clear();
-        this.entries.addAll(entries);
-        if (punishment instanceof HistoricalPunishment historicalPunishment) {
-            historicalPunishment.setCreationTime(getLatestEntry().beginsAt())
-                    .setExpirationTime(getLatestEntry().duration().expiration())
-                    .setUser(getEntry(PunishmentLogAction.INFORMATION).actor());
-        }
-        return true;
+        plugin.getHistoricalPunishmentCache().put(uuid, loadedPunishment);
+        return Util.executeAsync(() -> Query.query("SELECT id, actor_id, message, expiration, reason, predecessor, successor, action, " +
+                                "begins_at, created_at FROM punishment_log WHERE punishment_id = ? ORDER BY id ASC")
+                        .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
+                        .map(LogRow::of)
+                        .all(), plugin.getExecutor())
+                .thenCompose(rows -> {
+                    if (rows.isEmpty()) {
+                        //If there are no entries, the punishment is invalid and should be removed from the cache for historical punishments
+                        //it got cached into above.
+                        plugin.getHistoricalPunishmentCache().invalidate(uuid);
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    return resolveEntries(rows, plugin, this, loadedPunishment, 0).thenApply(loaded -> {
+                        var sorted = new ArrayList<>(loaded);
+                        Collections.sort(sorted);
+                        synchronized (entries) {
+                            entries.clear();
+                            entries.addAll(sorted);
+                        }
+                        if (loadedPunishment instanceof HistoricalPunishment historicalPunishment) {
+                            historicalPunishment.setCreationTime(getLatestEntry().beginsAt())
+                                    .setExpirationTime(getLatestEntry().duration().expiration())
+                                    .setUser(getEntry(PunishmentLogAction.INFORMATION).actor());
+                        }
+                        return true;
+                    });
+                });
     }
 
-    public static PunishmentLogEntry fromRow(Row row, AbstractNecrifyPlugin plugin, PunishmentLog log, Punishment punishment, int index) throws SQLException {
-        var id = row.getInt(1);
-        var actorUuid = Util.getUuid(row, 2);
-        NecrifyUser actor;
-        if (actorUuid == null) {
-            actor = null;
-        } else {
-            actor = plugin.getUserManager().loadUser(actorUuid).join().orElseThrow(() -> new IllegalStateException("Actor not found " + actorUuid));
+    /**
+     * Turns the given rows into log entries. All actors are loaded at once and every referenced punishment only once;
+     * the returned future completes as soon as all of them are available.
+     *
+     * @param rows       the rows read from the database
+     * @param plugin     the plugin instance
+     * @param log        the log the entries belong to
+     * @param punishment the punishment the entries belong to
+     * @param firstIndex the index of the first entry
+     * @return a future completing with the entries in the order of the given rows
+     */
+    public static CompletableFuture<List<PunishmentLogEntry>> resolveEntries(List<LogRow> rows, AbstractNecrifyPlugin plugin, PunishmentLog log, Punishment punishment, int firstIndex) {
+        Set<UUID> actorIds = new HashSet<>();
+        Map<UUID, CompletableFuture<Optional<Punishment>>> punishments = new HashMap<>();
+        for (LogRow row : rows) {
+            if (row.actorId() != null) {
+                actorIds.add(row.actorId());
+            }
+            for (UUID related : new UUID[]{row.predecessorId(), row.successorId()}) {
+                if (related != null) {
+                    punishments.computeIfAbsent(related, plugin::getPunishment);
+                }
+            }
         }
-        var message = row.getString(3);
-        var duration = PunishmentDuration.fromTimestamp(row.getTimestamp(4));
-        var reason = MiniMessage.miniMessage().deserialize(row.getString(5));
-        var predecessor = getPunishment(Util.getUuid(row, 6), plugin);
-        var successor = getPunishment(Util.getUuid(row, 7), plugin);
-        var action = PunishmentLogActionRegistry.getAction(row.getString(8)).orElse(PunishmentLogAction.UNKNOWN);
-        var beginsAt = row.getTimestamp(9).toLocalDateTime();
-        var instant = row.getTimestamp(10).toLocalDateTime();
-        return new PunishmentLogEntry(actor, message, duration, reason, predecessor, punishment, successor,
-                beginsAt, action, log, instant, index);
+        var actorsFuture = plugin.getUserManager().loadUsers(actorIds);
+        var punishmentsFuture = CompletableFuture.allOf(punishments.values().toArray(CompletableFuture[]::new));
+        return actorsFuture.thenCombine(punishmentsFuture, (actors, _) -> {
+            List<PunishmentLogEntry> entries = new ArrayList<>(rows.size());
+            int index = firstIndex;
+            for (LogRow row : rows) {
+                NecrifyUser actor = null;
+                if (row.actorId() != null) {
+                    actor = actors.get(row.actorId());
+                    if (actor == null) {
+                        throw new IllegalStateException("Actor not found " + row.actorId());
+                    }
+                }
+                entries.add(new PunishmentLogEntry(actor, row.message(), row.duration(), plugin.getReasonCache().deserialize(row.reason()),
+                        related(row.predecessorId(), punishments), punishment, related(row.successorId(), punishments),
+                        row.beginsAt(), row.action(), log, row.createdAt(), index++));
+            }
+            return entries;
+        });
     }
 
     @Nullable
-    private static Punishment getPunishment(@Nullable UUID uuid, AbstractNecrifyPlugin plugin) {
-        return uuid == null ? null : plugin.getPunishment(uuid).join().orElse(null);
+    private static Punishment related(@Nullable UUID uuid, Map<UUID, CompletableFuture<Optional<Punishment>>> punishments) {
+        //all futures have been completed at this point
+        return uuid == null ? null : punishments.get(uuid).getNow(Optional.empty()).orElse(null);
+    }
+
+    /**
+     * A row of the punishment log as read from the database. Actors, predecessors and successors are only referenced by
+     * their ids and get resolved by {@link #resolveEntries(List, AbstractNecrifyPlugin, PunishmentLog, Punishment, int)}.
+     */
+    public record LogRow(int id, @Nullable UUID actorId, String message, PunishmentDuration duration, String reason,
+                         @Nullable UUID predecessorId, @Nullable UUID successorId, PunishmentLogAction action,
+                         LocalDateTime beginsAt, LocalDateTime createdAt) {
+
+        public static LogRow of(Row row) throws SQLException {
+            return new LogRow(row.getInt(1),
+                    Util.getUuid(row, 2),
+                    row.getString(3),
+                    PunishmentDuration.fromTimestamp(row.getTimestamp(4)),
+                    row.getString(5),
+                    Util.getUuid(row, 6),
+                    Util.getUuid(row, 7),
+                    PunishmentLogActionRegistry.getAction(row.getString(8)).orElse(PunishmentLogAction.UNKNOWN),
+                    row.getTimestamp(9).toLocalDateTime(),
+                    row.getTimestamp(10).toLocalDateTime());
+        }
     }
 
     @Override
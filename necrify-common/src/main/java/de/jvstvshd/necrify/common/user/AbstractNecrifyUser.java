@@ -128,6 +128,7 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
     @Override
     public @NotNull CompletableFuture<Punishment> punish(@NotNull Punishment punishment) {
         punishments.add(punishment);
+        plugin.getLoadedPunishmentIndex().add(punishment);
         return punishment.punish();
     }
 
@@ -147,7 +148,13 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
     }
 
     protected synchronized void validatePunishments() {
-        punishments.removeIf(punishment -> !punishment.isOngoing());
+        punishments.removeIf(punishment -> {
+            if (punishment.isOngoing()) {
+                return false;
+            }
+            plugin.getLoadedPunishmentIndex().remove(punishment);
+            return true;
+        });
     }
 
     @Override
@@ -171,8 +178,7 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
     @Override
     public @NotNull CompletableFuture<Punishment> punishModelled(@NotNull NecrifyTemplate template) {
         var nextStage = getNextTemplateStage(template);
-        Map<String, Object> data = Map.of("user", this, "duration", nextStage.duration(), "punishmentUuid", UUID.randomUUID(),
-                "reason", nextStage.reason());
+        var data = new PunishmentData(UUID.randomUUID(), this, nextStage.reason(), nextStage.duration());
         var punishment = PunishmentTypeRegistry.createPunishment(nextStage.punishmentType(), data);
         return punishment.punish().whenComplete((punishment1, throwable) -> {
             var secondNextStage = nextStage.nextOrThis();
@@ -224,7 +230,7 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
 
     @Override
     public @NotNull CompletableFuture<String> queryUsername(boolean update) {
-        return MojangAPI.getPlayerNameAsync(uuid, executor).thenApplyAsync(s -> {
+        return plugin.getProfileResolver().getName(uuid).thenApplyAsync(s -> {
             if (update)
                 username = s.orElse(null);
             return s.orElse(null);
@@ -256,10 +262,12 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
         if (punishments.contains(punishment))
             return;
         punishments.add(punishment);
+        plugin.getLoadedPunishmentIndex().add(punishment);
     }
 
     public void removePunishment(Punishment punishment) {
         punishments.remove(punishment);
+        plugin.getLoadedPunishmentIndex().remove(punishment);
     }
 
     @Override
@@ -277,6 +285,16 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
         return messageProvider;
     }
 
+    /**
+     * Sets the user's current stage of the given template without persisting it. This is used when loading the user.
+     *
+     * @param template the template
+     * @param stage    the user's current stage of this template
+     */
+    void putTemplateStage(NecrifyTemplate template, NecrifyTemplateStage stage) {
+        templateStages.put(template, stage);
+    }
+
     /**
      * Loads all template stages of this user from the storage. This method will be executed asynchronously and will not
      * block the calling thread unless using {@link CompletableFuture#join()} or similar.
@@ -285,7 +303,7 @@ public abstract class AbstractNecrifyUser implements NecrifyUser {
         return Util.executeAsync(() -> {
             Query.query("SELECT template.name, stage.index FROM necrify_punishment_template_stage stage, " +
                             "necrify_punishment_template template, necrify_punishment_template_user_stage users WHERE " +
-                            "users.user_id = ? AND template.id = users.template_id AND stage.template_id = template.id")
+                            "users.user_id = ? AND template.id = users.template_id AND stage.id = users.stage_id")
                     .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
                     .map(row -> {
                         var template = plugin.getTemplateManager().getTemplate(row.getString(1));
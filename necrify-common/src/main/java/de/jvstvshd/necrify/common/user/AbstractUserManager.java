@@ -18,27 +18,32 @@
 
 package de.jvstvshd.necrify.common.user;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.benmanes.caffeine.cache.Cache;
 import de.chojo.sadu.queries.api.call.Call;
 import de.chojo.sadu.queries.api.query.Query;
 import de.jvstvshd.necrify.api.event.origin.EventOrigin;
 import de.jvstvshd.necrify.api.event.user.UserLoadedEvent;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.api.user.UserManager;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.io.Adapters;
+import de.jvstvshd.necrify.common.io.NecrifyDatabase;
+import de.jvstvshd.necrify.common.util.SingleFlight;
 import de.jvstvshd.necrify.common.util.Util;
 import org.intellij.lang.annotations.Language;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collection;
-import java.util.Locale;
-import java.util.Optional;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.LongAdder;
 
 import static de.jvstvshd.necrify.common.util.Util.executeAsync;
 import static de.jvstvshd.necrify.common.util.Util.getUuid;
@@ -46,36 +51,109 @@ import static java.util.Optional.empty;
 
 public abstract class AbstractUserManager<T extends NecrifyUser> implements UserManager {
 
+    /**
+     * Selects a user together with all of their punishments. Every punishment yields one row; users without punishments
+     * yield exactly one row whose punishment columns are null. The placeholders are replaced by the template stage
+     * columns and joins of the current database (see {@link #hydrationQuery(String)}) and the condition selecting the user(s).
+     */
+    @Language("sql")
+    private static final String HYDRATE_USER_QUERY = "SELECT u.uuid, u.name, u.whitelisted, p.type, p.expiration, p.reason, " +
+            "p.punishment_id, p.successor, p.issued_at, %s FROM necrify_user u LEFT JOIN necrify_punishment p ON p.uuid = u.uuid%s WHERE %s;";
+
+    /**
+     * Aggregates all template stages of a user into a json array of [template name, stage index] pairs. Only PostgreSQL
+     * supports punishment templates.
+     */
     @Language("sql")
-    private static final String SELECT_USER_QUERY = "SELECT name, whitelisted FROM necrify_user WHERE uuid = ?;";
+    private static final String POSTGRES_TEMPLATE_STAGES_JOIN = " LEFT JOIN LATERAL (SELECT json_agg(json_build_array(t.name, s.index))::text AS stages " +
+            "FROM necrify_punishment_template_user_stage us JOIN necrify_punishment_template t ON t.id = us.template_id " +
+            "JOIN necrify_punishment_template_stage s ON s.id = us.stage_id WHERE us.user_id = u.uuid) ts ON TRUE";
+
+    private static final String CONDITION_UUID = "u.uuid = ?";
+    private static final String CONDITION_NAME = "%s = ?";
+    private static final String CONDITION_PUNISHMENT_ID = "u.uuid = (SELECT uuid FROM necrify_punishment WHERE punishment_id = ?)";
+
+    /**
+     * The maximum amount of users that are loaded with one query by {@link #loadUsers(Collection)}.
+     */
+    private static final int BULK_LOAD_CHUNK_SIZE = 100;
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Language("sql")
-    private static final String SELECT_USER_BY_NAME_QUERY = "SELECT uuid, whitelisted FROM necrify_user WHERE LOWER(name) = ?";
+    private static final String SELECT_UUID_BY_NAME = "SELECT u.uuid FROM necrify_user u WHERE %s = ?;";
 
     @Language("sql")
-    private static final String SELECT_USER_PUNISHMENTS_QUERY =
-            "SELECT type, expiration, reason, punishment_id, successor, issued_at FROM necrify_punishment WHERE uuid = ?;";
+    private static final String SELECT_NAME_BY_UUID = "SELECT name FROM necrify_user WHERE uuid = ? AND name IS NOT NULL;";
 
+    /**
+     * Inserts a new user unless a user with this uuid already exists, in which case nothing is changed. This makes
+     * concurrent creations of the same user, e.g. by two proxies, idempotent.
+     */
+    @Language("sql")
+    private static final String INSERT_NEW_USER_POSTGRES = "INSERT INTO necrify_user (uuid, name, whitelisted) VALUES (?, ?, ?) ON CONFLICT (uuid) DO NOTHING;";
     @Language("sql")
-    private static final String INSERT_NEW_USER = "INSERT INTO necrify_user (uuid, name, whitelisted) VALUES (?, ?, ?);";
+    private static final String INSERT_NEW_USER_MYSQL = "INSERT IGNORE INTO necrify_user (uuid, name, whitelisted) VALUES (?, ?, ?);";
 
     private final ExecutorService executor;
     private final Cache<UUID, T> userCache;
     private final Cache<String, UUID> nameCache;
+    /**
+     * Users whose player is currently connected. These are held strongly and are not subject to the eviction policy of
+     * {@link #userCache}, so that there is exactly one instance per online player for the whole session. They are
+     * moved to {@link #userCache} once the player disconnects.
+     */
+    private final Map<UUID, T> onlineUsers = new ConcurrentHashMap<>();
+    private final LongAdder onlineUserHits = new LongAdder();
     private final AbstractNecrifyPlugin plugin;
+    /**
+     * Loads that are currently in progress, keyed by either the user's uuid or their lower-cased name. Concurrent
+     * requests for the same key share the same database round trip and thus also the same user instance.
+     */
+    private final SingleFlight<Object, Optional<NecrifyUser>> inFlightLoads = new SingleFlight<>();
+    /**
+     * Same as {@link #inFlightLoads}, but for {@link #loadOrCreateUser(UUID)} and {@link #loadOrCreateUser(String)}.
+     */
+    private final SingleFlight<Object, Optional<NecrifyUser>> inFlightCreations = new SingleFlight<>();
+    /**
+     * Uuids and lower-cased names that could neither be found in the database nor at Mojang. Lookups for these are
+     * answered without any I/O until the entry expires or a user with this uuid or name gets created.
+     */
+    private final Cache<Object, Boolean> unknownUsers;
 
     public AbstractUserManager(ExecutorService executor, Cache<UUID, T> userCache, Cache<String, UUID> nameCache, AbstractNecrifyPlugin plugin) {
         this.executor = executor;
         this.userCache = userCache;
         this.nameCache = nameCache;
         this.plugin = plugin;
+        this.unknownUsers = plugin.getConfig().getConfiguration().getCacheConfigData().getUnknownUsers().newBuilder().build();
     }
 
     @Override
     public @NotNull Optional<NecrifyUser> getUser(@NotNull UUID uuid) {
+        var online = onlineUsers.get(uuid);
+        if (online != null) {
+            onlineUserHits.increment();
+            return Optional.of(online);
+        }
         return Optional.ofNullable(userCache.getIfPresent(uuid));
     }
 
+    /**
+     * Returns the user with the given uuid if it is loaded. Unlike {@link #getUser(UUID)}, this lookup is not recorded
+     * in the statistics of the user caches, so it is suited for internal consistency checks.
+     *
+     * @param uuid the uuid of the user
+     * @return the loaded user or an empty Optional if the user is not loaded
+     */
+    public @NotNull Optional<NecrifyUser> getLoadedUser(@NotNull UUID uuid) {
+        var online = onlineUsers.get(uuid);
+        if (online != null) {
+            return Optional.of(online);
+        }
+        return Optional.ofNullable(userCache.asMap().get(uuid));
+    }
+
     @Override
     public @NotNull Optional<NecrifyUser> getUser(@NotNull String player) {
         var uuid = tryAcquireUuid(player);
@@ -91,25 +169,14 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
         if (cached.isPresent()) {
             return CompletableFuture.completedFuture(cached);
         }
-        return executeAsync(() -> {
-            var user = Query.query(SELECT_USER_QUERY)
-                    .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
-                    .map(row -> constructUser(uuid, row.getString(1), row.getBoolean(2), plugin))
-                    .first();
-            user.ifPresent(velocityUser -> {
-                var loader = new UserLoader(velocityUser);
-                Query.query(SELECT_USER_PUNISHMENTS_QUERY)
-                        .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
-                        .map(loader::addDataFromRow).all();
-                loadPunishmentsToUser(loader);
-            });
-            //will cause compilation error: return user.map(this::cache);
-            return user.map(velocityUser -> {
-                cache(velocityUser);
-                plugin.getEventDispatcher().dispatch(new UserLoadedEvent(velocityUser).setOrigin(EventOrigin.ofClass(getClass())));
-                return velocityUser;
-            });
-        }, executor);
+        return inFlightLoads.load(uuid, () -> executeAsync(() -> {
+            var alreadyLoaded = getUser(uuid);
+            if (alreadyLoaded.isPresent()) {
+                return alreadyLoaded;
+            }
+            var user = hydrateUser(CONDITION_UUID, Call.of().bind(uuid, Adapters.UUID_ADAPTER));
+            return user.map(this::cacheLoaded);
+        }, executor));
     }
 
     @Override
@@ -123,32 +190,19 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
         if (parsedUuid != null) {
             return loadUser(parsedUuid);
         }
-        return executeAsync(() -> {
-            var user = Query.query(SELECT_USER_BY_NAME_QUERY)
-                    .single(Call.of().bind(pl))
-                    .map(row -> constructUser(getUuid(row, 1), pl, row.getBoolean(2), plugin))
-                    .first();
-            user.ifPresent(velocityUser -> {
-                var loader = new UserLoader(velocityUser);
-                Query.query(SELECT_USER_PUNISHMENTS_QUERY)
-                        .single(Call.of().bind(velocityUser.getUuid(), Adapters.UUID_ADAPTER))
-                        .map(loader::addDataFromRow).all();
-                loadPunishmentsToUser(loader);
-            });
-            //will cause compilation error: return user.map(this::cache);
-            return user.map(velocityUser -> {
-                cache(velocityUser);
-                plugin.getEventDispatcher().dispatch(new UserLoadedEvent(velocityUser).setOrigin(EventOrigin.ofClass(getClass())));
-                return velocityUser;
-            });
-        }, executor);
+        return inFlightLoads.load(pl, () -> executeAsync(() -> {
+            var alreadyLoaded = getUser(pl);
+            if (alreadyLoaded.isPresent()) {
+                return alreadyLoaded;
+            }
+            var user = hydrateUser(CONDITION_NAME.formatted(lowerNameColumn()), Call.of().bind(pl));
+            return user.map(this::cacheLoaded);
+        }, executor));
     }
 
     @Override
     public Optional<NecrifyUser> getUserByPunishmentId(@NotNull UUID uuid) {
-        return userCache.asMap().values().stream()
-                .flatMap(t -> t.getPunishments().stream())
-                .filter(punishment -> punishment.getUuid() == uuid).findFirst().map(Punishment::getUser);
+        return plugin.getLoadedPunishmentIndex().get(uuid).map(Punishment::getUser);
     }
 
     @Override
@@ -158,27 +212,16 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
             return CompletableFuture.completedFuture(optional);
         }
         return executeAsync(() -> {
-            var user= Query.query("SELECT necrify_user.* FROM necrify_user, necrify_punishment WHERE necrify_punishment.punishment_id = ? AND necrify_punishment.uuid = necrify_user.uuid")
-                    .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
-                    .map(row -> constructUser(uuid, row.getString(1), row.getBoolean(2), plugin))
-                    .first();
-            user.ifPresent(velocityUser -> {
-                var loader = new UserLoader(velocityUser);
-                Query.query(SELECT_USER_PUNISHMENTS_QUERY)
-                        .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
-                        .map(loader::addDataFromRow).all();
-                loadPunishmentsToUser(loader);
-            });
-            return user.map(this::cache);
+            var user = hydrateUser(CONDITION_PUNISHMENT_ID, Call.of().bind(uuid, Adapters.UUID_ADAPTER));
+            return user.map(this::cacheLoaded);
         }, executor);
     }
 
     @Override
     public @NotNull CompletableFuture<Optional<NecrifyUser>> createUser(@NotNull UUID uuid) {
-        return executeAsync(() -> {
-            var name = MojangAPI.getPlayerName(uuid);
-            return name.map(s -> createUser(uuid, s));
-        }, executor);
+        return resolveName(uuid).thenCompose(name -> name.isEmpty()
+                ? CompletableFuture.completedFuture(empty())
+                : executeAsync(() -> Optional.of(createUser(uuid, name.get())), executor));
     }
 
     @Override
@@ -187,10 +230,53 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
         if (parsedUuid != null) {
             return loadUser(parsedUuid);
         }
-        return executeAsync(() -> {
-            var uuid = MojangAPI.getUuid(player);
-            return uuid.map(id -> createUser(id, player));
-        }, executor);
+        return resolveUuid(player).thenCompose(uuid -> uuid.isEmpty()
+                ? CompletableFuture.completedFuture(empty())
+                : executeAsync(() -> Optional.of(createUser(uuid.get(), player)), executor));
+    }
+
+    /**
+     * Resolves the name of the player with the given uuid. The sources are queried in the order online players, loaded
+     * users, the necrify_user table and finally the Mojang API, so that an outbound request is only made for players
+     * that are completely unknown to this server.
+     *
+     * @param uuid the uuid of the player
+     * @return a future containing the name of the player or an empty Optional if there is no such player
+     */
+    public CompletableFuture<Optional<String>> resolveName(@NotNull UUID uuid) {
+        var known = getNameIfOnline(uuid).or(() -> getUser(uuid).map(NecrifyUser::getUsername));
+        if (known.isPresent()) {
+            return CompletableFuture.completedFuture(known);
+        }
+        return executeAsync(() -> Query.query(SELECT_NAME_BY_UUID)
+                .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER))
+                .map(row -> row.getString(1))
+                .first(), executor)
+                .thenCompose(name -> name.isPresent()
+                        ? CompletableFuture.completedFuture(name)
+                        : plugin.getProfileResolver().getName(uuid));
+    }
+
+    /**
+     * Resolves the uuid of the player with the given name, case-insensitively. The sources are queried in the order
+     * online players, the name cache, the necrify_user table and finally the Mojang API, so that an outbound request is
+     * only made for players that are completely unknown to this server.
+     *
+     * @param name the name of the player
+     * @return a future containing the uuid of the player or an empty Optional if there is no such player
+     */
+    public CompletableFuture<Optional<UUID>> resolveUuid(@NotNull String name) {
+        var known = tryAcquireUuid(name);
+        if (known != null) {
+            return CompletableFuture.completedFuture(Optional.of(known));
+        }
+        return executeAsync(() -> Query.query(SELECT_UUID_BY_NAME.formatted(lowerNameColumn()))
+                .single(Call.of().bind(name.toLowerCase(Locale.ROOT)))
+                .map(row -> getUuid(row, 1))
+                .first(), executor)
+                .thenCompose(uuid -> uuid.isPresent()
+                        ? CompletableFuture.completedFuture(uuid)
+                        : plugin.getProfileResolver().getUuid(name));
     }
 
     /**
@@ -202,29 +288,275 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
      * @throws IllegalStateException if the user already exists
      */
     private NecrifyUser createUser(UUID uuid, String playerName) {
-        //var playerName = name.toLowerCase(Locale.ROOT);
-        var result = Query.query(INSERT_NEW_USER)
+        if (!insertUser(uuid, playerName)) {
+            throw new IllegalStateException("User does already exist");
+        }
+        return cacheCreated(uuid, playerName);
+    }
+
+    /**
+     * Creates the user with the given uuid and name or loads them if they already exist. Creating a user that does not
+     * exist yet takes exactly one statement, so this should be used if the user was just looked up unsuccessfully.
+     * Expects to be executed in an async context.
+     *
+     * @param uuid       non-null uuid of the user
+     * @param playerName non-null name of the user
+     * @return the created or loaded user
+     */
+    private Optional<NecrifyUser> createOrLoadUser(UUID uuid, String playerName) {
+        if (insertUser(uuid, playerName)) {
+            return Optional.of(cacheCreated(uuid, playerName));
+        }
+        //the user already existed or has been created concurrently, e.g. by another proxy
+        return hydrateUser(CONDITION_UUID, Call.of().bind(uuid, Adapters.UUID_ADAPTER)).map(this::cacheLoaded);
+    }
+
+    /**
+     * Loads the user with the given uuid or creates them with the given name if they do not exist yet. Loading a user
+     * that already exists takes exactly one query. Expects to be executed in an async context.
+     *
+     * @param uuid       non-null uuid of the user
+     * @param playerName non-null name of the user
+     * @return the loaded or created user
+     */
+    private Optional<NecrifyUser> loadOrInsertUser(UUID uuid, String playerName) {
+        var user = hydrateUser(CONDITION_UUID, Call.of().bind(uuid, Adapters.UUID_ADAPTER));
+        if (user.isPresent()) {
+            return user.map(this::cacheLoaded);
+        }
+        return createOrLoadUser(uuid, playerName);
+    }
+
+    private boolean insertUser(UUID uuid, String playerName) {
+        var result = Query.query(insertUserQuery())
                 .single(Call.of().bind(uuid, Adapters.UUID_ADAPTER).bind(playerName).bind(false))
                 .insert();
         if (result.hasExceptions()) {
             throw new RuntimeException("failed to create user", result.exceptions().getFirst());
         }
-        if (!result.changed()) {
-            throw new IllegalStateException("User does already exist");
-        }
-        var user = constructUser(uuid, playerName, false, plugin);
-        plugin.getEventDispatcher().dispatch(new UserLoadedEvent(user));
-        return cache(user);
+        return result.changed();
+    }
+
+    private NecrifyUser cacheCreated(UUID uuid, String playerName) {
+        return cacheLoaded(constructUser(uuid, playerName, false, plugin));
     }
 
     @Override
     public @NotNull CompletableFuture<Optional<NecrifyUser>> loadOrCreateUser(@NotNull UUID uuid) {
-        return loadUser(uuid).thenApplyAsync(optional -> optional.or(() -> createUser(uuid).join()), executor);
+        var cached = getUser(uuid);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        if (unknownUsers.getIfPresent(uuid) != null) {
+            return CompletableFuture.completedFuture(empty());
+        }
+        return inFlightCreations.load(uuid, () -> loadUser(uuid)
+                .thenCompose(optional -> optional.isPresent()
+                        ? CompletableFuture.completedFuture(optional)
+                        : createMissingUser(uuid))
+                .thenApply(result -> rememberIfUnknown(uuid, result)));
+    }
+
+    /**
+     * Creates the user with the given uuid, who was just found to be missing in the database. Therefore, their name is
+     * only looked up among online players and at Mojang.
+     *
+     * @param uuid the uuid of the user
+     * @return a future containing the created user or an empty Optional if there is no such player
+     */
+    private CompletableFuture<Optional<NecrifyUser>> createMissingUser(UUID uuid) {
+        var known = getNameIfOnline(uuid);
+        var name = known.isPresent() ? CompletableFuture.completedFuture(known) : plugin.getProfileResolver().getName(uuid);
+        return name.thenCompose(resolved -> resolved.isEmpty()
+                ? CompletableFuture.completedFuture(Optional.<NecrifyUser>empty())
+                : executeAsync(() -> createOrLoadUser(uuid, resolved.get()), executor));
     }
 
     @Override
     public @NotNull CompletableFuture<Optional<NecrifyUser>> loadOrCreateUser(@NotNull String player) {
-        return loadUser(player).thenApplyAsync(optional -> optional.or(() -> createUser(player).join()), executor);
+        var cached = getUser(player);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        var key = player.toLowerCase(Locale.ROOT);
+        if (unknownUsers.getIfPresent(key) != null) {
+            return CompletableFuture.completedFuture(empty());
+        }
+        var parsedUuid = Util.parseUuid(player);
+        if (parsedUuid != null) {
+            return loadOrCreateUser(parsedUuid);
+        }
+        return inFlightCreations.load(key, () -> loadUser(player)
+                .thenCompose(optional -> optional.isPresent()
+                        ? CompletableFuture.completedFuture(optional)
+                        : resolveUuid(player).thenCompose(uuid -> uuid.isEmpty()
+                        ? CompletableFuture.completedFuture(Optional.<NecrifyUser>empty())
+                        : executeAsync(() -> createOrLoadUser(uuid.get(), player), executor)))
+                .thenApply(result -> rememberIfUnknown(key, result)));
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Optional<NecrifyUser>> loadOrCreateUser(@NotNull UUID uuid, @NotNull String name) {
+        var cached = getUser(uuid);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        //the name is already known, so a missing user can be created right away without asking Mojang first
+        return inFlightCreations.load(uuid, () -> executeAsync(() -> loadOrInsertUser(uuid, name), executor));
+    }
+
+    private Optional<NecrifyUser> rememberIfUnknown(Object key, Optional<NecrifyUser> result) {
+        if (result.isEmpty()) {
+            unknownUsers.put(key, Boolean.TRUE);
+        }
+        return result;
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, NecrifyUser>> loadUsers(@NotNull Collection<UUID> uuids) {
+        Map<UUID, NecrifyUser> users = new HashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID uuid : new LinkedHashSet<>(uuids)) {
+            getUser(uuid).ifPresentOrElse(user -> users.put(uuid, user), () -> missing.add(uuid));
+        }
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(users);
+        }
+        return executeAsync(() -> {
+            for (int i = 0; i < missing.size(); i += BULK_LOAD_CHUNK_SIZE) {
+                var chunk = missing.subList(i, Math.min(i + BULK_LOAD_CHUNK_SIZE, missing.size()));
+                var call = Call.of();
+                for (UUID uuid : chunk) {
+                    call = call.bind(uuid, Adapters.UUID_ADAPTER);
+                }
+                var condition = "u.uuid IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+                for (T user : hydrateUsers(condition, call)) {
+                    users.put(user.getUuid(), cacheLoaded(user));
+                }
+            }
+            return users;
+        }, executor);
+    }
+
+    @Override
+    public @NotNull CompletableFuture<Map<UUID, NecrifyUser>> loadOrCreateUsers(@NotNull Collection<UUID> uuids) {
+        return loadUsers(uuids).thenCompose(users -> {
+            //the bulk query did not find these users, so there is no need to look them up again
+            var creations = uuids.stream()
+                    .distinct()
+                    .filter(uuid -> !users.containsKey(uuid))
+                    .map(uuid -> unknownUsers.getIfPresent(uuid) != null
+                            ? CompletableFuture.completedFuture(Optional.<NecrifyUser>empty())
+                            : inFlightCreations.load(uuid, () -> createMissingUser(uuid)
+                            .thenApply(result -> rememberIfUnknown(uuid, result))))
+                    .toList();
+            return CompletableFuture.allOf(creations.toArray(CompletableFuture[]::new)).thenApply(_ -> {
+                Map<UUID, NecrifyUser> result = new HashMap<>(users);
+                for (CompletableFuture<Optional<NecrifyUser>> creation : creations) {
+                    creation.join().ifPresent(user -> result.put(user.getUuid(), user));
+                }
+                return result;
+            });
+        });
+    }
+
+    /**
+     * Loads the user matching the given condition with a single query. This includes the user's data, punishments and
+     * template stages. The user is not cached.
+     * <p>Expects to be executed in an async context, otherwise blocks the current thread.</p>
+     *
+     * @param condition the sql condition selecting the user, referring to the user table as {@code u}
+     * @param call      the call binding the parameters of the condition
+     * @return the loaded user or {@link Optional#empty()} if no user matches the condition
+     */
+    protected Optional<T> hydrateUser(String condition, Call call) {
+        var users = hydrateUsers(condition, call);
+        return users.isEmpty() ? empty() : Optional.of(users.getFirst());
+    }
+
+    /**
+     * Loads all users matching the given condition with a single query. This includes the users' data, punishments and
+     * template stages. The users are not cached.
+     * <p>Expects to be executed in an async context, otherwise blocks the current thread.</p>
+     *
+     * @param condition the sql condition selecting the users, referring to the user table as {@code u}
+     * @param call      the call binding the parameters of the condition
+     * @return all loaded users
+     */
+    protected List<T> hydrateUsers(String condition, Call call) {
+        Map<UUID, UserLoader> loaders = new LinkedHashMap<>();
+        Query.query(hydrationQuery(condition))
+                .single(call)
+                .map(row -> {
+                    var uuid = getUuid(row, 1);
+                    var loader = loaders.get(uuid);
+                    if (loader == null) {
+                        var user = constructUser(uuid, row.getString(2), row.getBoolean(3), plugin);
+                        loadTemplateStages(user, row.getString(10));
+                        loader = new UserLoader(user);
+                        loaders.put(uuid, loader);
+                    }
+                    if (row.getObject(7) != null) {
+                        loader.addDataFromRow(row, 4);
+                    }
+                    return null;
+                }).all();
+        List<T> users = new ArrayList<>(loaders.size());
+        for (UserLoader loader : loaders.values()) {
+            loadPunishmentsToUser(loader);
+            //noinspection unchecked
+            users.add((T) loader.getUser());
+        }
+        return users;
+    }
+
+    /**
+     * Returns the expression matching the lower-cased name of a user, so that lookups by name can use the index created
+     * for it. MariaDB does not support functional indexes and therefore uses a generated column instead.
+     */
+    private static String lowerNameColumn() {
+        if (NecrifyDatabase.SQL_TYPE.toLowerCase(Locale.ROOT).equals("mariadb")) {
+            return "u.name_lower";
+        }
+        return "LOWER(u.name)";
+    }
+
+    private static String insertUserQuery() {
+        if (NecrifyDatabase.SQL_TYPE.toLowerCase(Locale.ROOT).startsWith("postgres")) {
+            return INSERT_NEW_USER_POSTGRES;
+        }
+        return INSERT_NEW_USER_MYSQL;
+    }
+
+    private static String hydrationQuery(String condition) {
+        if (NecrifyDatabase.SQL_TYPE.toLowerCase(Locale.ROOT).startsWith("postgres")) {
+            return HYDRATE_USER_QUERY.formatted("ts.stages", POSTGRES_TEMPLATE_STAGES_JOIN, condition);
+        }
+        return HYDRATE_USER_QUERY.formatted("NULL AS stages", "", condition);
+    }
+
+    private void loadTemplateStages(T user, @Nullable String stages) {
+        if (stages == null) {
+            return;
+        }
+        try {
+            for (JsonNode node : OBJECT_MAPPER.readTree(stages)) {
+                var templateName = node.get(0).asText();
+                var stageIndex = node.get(1).asInt();
+                var template = plugin.getTemplateManager().getTemplate(templateName);
+                if (template.isEmpty()) {
+                    plugin.getLogger().warn("Template {} not found for user {}", templateName, user.getUuid());
+                    continue;
+                }
+                try {
+                    ((AbstractNecrifyUser) user).putTemplateStage(template.get(), template.get().getStage(stageIndex));
+                } catch (NoSuchElementException | IndexOutOfBoundsException e) {
+                    plugin.getLogger().warn("Template stage {} not found in template {} for user {}", stageIndex, templateName, user.getUuid());
+                }
+            }
+        } catch (JsonProcessingException e) {
+            plugin.getLogger().error("Could not parse template stages of user {}", user.getUuid(), e);
+        }
     }
 
     @Nullable
@@ -233,28 +565,96 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
         return parsed.orElseGet(() -> getUuidIfOnline(name).orElseGet(() -> nameCache.getIfPresent(name.toLowerCase(Locale.ROOT))));
     }
 
+    /**
+     * Caches the given user. If there is already a cached instance of this user, the cached instance is kept and returned
+     * instead, so that there is only one instance per user at any time.
+     *
+     * @param user the user to cache
+     * @return the cached instance of this user
+     */
     protected T cache(@NotNull T user) {
-        userCache.put(user.getUuid(), user);
-        if (user.getUsername() != null) {
-            nameCache.put(user.getUsername().toLowerCase(Locale.ROOT), user.getUuid());
+        T cached;
+        if (isOnline(user.getUuid())) {
+            cached = pin(user);
+        } else {
+            var online = onlineUsers.get(user.getUuid());
+            if (online != null) {
+                cached = online;
+            } else {
+                var existing = userCache.asMap().putIfAbsent(user.getUuid(), user);
+                cached = existing != null ? existing : user;
+            }
+        }
+        //the user was created or loaded in the meantime, possibly by another instance
+        unknownUsers.invalidate(cached.getUuid());
+        if (cached.getUsername() != null) {
+            var name = cached.getUsername().toLowerCase(Locale.ROOT);
+            nameCache.put(name, cached.getUuid());
+            unknownUsers.invalidate(name);
+        }
+        return cached;
+    }
+
+    /**
+     * Moves the given user into the set of online users, where it is not subject to eviction until {@link #unpin(UUID)}
+     * is called. If there is already an instance of this user held by this manager, that instance is pinned and returned
+     * instead.
+     *
+     * @param user the user whose player has connected
+     * @return the pinned instance of this user
+     */
+    protected T pin(@NotNull T user) {
+        return onlineUsers.computeIfAbsent(user.getUuid(), uuid -> {
+            var cached = userCache.asMap().remove(uuid);
+            if (cached != null) {
+                return cached;
+            }
+            //the user may have been evicted in the meantime, which also removed its punishments from the index
+            user.getPunishments().forEach(plugin.getLoadedPunishmentIndex()::add);
+            return user;
+        });
+    }
+
+    /**
+     * Moves the user with the given uuid from the set of online users back into the evicting user cache. This should be
+     * called once the player has disconnected.
+     *
+     * @param uuid the uuid of the user whose player has disconnected
+     * @return the user that was unpinned or null if the user was not pinned
+     */
+    @Nullable
+    protected T unpin(@NotNull UUID uuid) {
+        var user = onlineUsers.get(uuid);
+        if (user == null) {
+            return null;
         }
+        //demote within the map's lock so that a concurrent pin of the same user always finds it in one of both maps
+        onlineUsers.computeIfPresent(uuid, (_, pinned) -> {
+            userCache.put(uuid, pinned);
+            return null;
+        });
         return user;
     }
 
+    private NecrifyUser cacheLoaded(T user) {
+        var cached = cache(user);
+        if (cached == user) {
+            plugin.getEventDispatcher().dispatch(new UserLoadedEvent(user).setOrigin(EventOrigin.ofClass(getClass())));
+        }
+        return cached;
+    }
+
     public void loadPunishmentsToUser(UserLoader loader) {
         var invalidPunishments = loader.getInvalidPunishments();
         var punishments = loader.loadPunishments();
-        if (!invalidPunishments.isEmpty()) {
-            //execute in async context to avoid blocking the current thread and somewhere in the future, does not matter that much when
-            plugin.getExecutor().submit(() -> invalidPunishments.stream()
-                    .map(uuid -> punishments.stream().filter(punishment -> punishment.getUuid().equals(uuid)).findFirst().orElse(null))
-                    .forEach(punishment -> {
-                        if (punishment != null) {
-                            punishment.cancel().join();
-                        }
-                    }));
-        }
-        for (Punishment loadedPunishment : loader.loadPunishments()) {
+        for (UUID invalidPunishment : invalidPunishments) {
+            //the cancellation is neither time-critical nor awaited; failures are logged by the cancellation itself
+            punishments.stream()
+                    .filter(punishment -> punishment.getUuid().equals(invalidPunishment))
+                    .findFirst()
+                    .ifPresent(punishment -> plugin.getBackgroundExecutor().execute(punishment::cancel));
+        }
+        for (Punishment loadedPunishment : punishments) {
             if (loadedPunishment.isOngoing())
                 ((AbstractNecrifyUser) loader.getUser()).addPunishment(loadedPunishment);
         }
@@ -276,12 +676,50 @@ public abstract class AbstractUserManager<T extends NecrifyUser> implements User
         return plugin;
     }
 
+    /**
+     * Returns a snapshot of the statistics of the caches managed by this user manager, keyed by the name of the cache.
+     *
+     * @return the statistics of the user and name cache
+     */
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        var statistics = new LinkedHashMap<String, CacheStatistics>();
+        statistics.put("online-users", new CacheStatistics(onlineUsers.size(), onlineUserHits.sum(), 0, 0));
+        statistics.put("users", Util.cacheStatistics(userCache));
+        statistics.put("names", Util.cacheStatistics(nameCache));
+        statistics.put("unknown-users", Util.cacheStatistics(unknownUsers));
+        return statistics;
+    }
+
     @Override
     public @NotNull Collection<? extends NecrifyUser> getLoadedUsers() {
-        return userCache.asMap().values();
+        var loadedUsers = new ArrayList<T>(onlineUsers.size() + (int) userCache.estimatedSize());
+        loadedUsers.addAll(onlineUsers.values());
+        for (T user : userCache.asMap().values()) {
+            if (!onlineUsers.containsKey(user.getUuid())) {
+                loadedUsers.add(user);
+            }
+        }
+        return loadedUsers;
     }
 
     public abstract Optional<UUID> getUuidIfOnline(String name);
 
+    /**
+     * Returns the name of the player with the given uuid if they are currently connected.
+     *
+     * @param uuid the uuid of the player
+     * @return the name of the player or an empty Optional if the player is not connected
+     */
+    public abstract Optional<String> getNameIfOnline(UUID uuid);
+
+    /**
+     * Checks whether the player with the given uuid is currently connected. Users of online players are held outside
+     * the evicting user cache.
+     *
+     * @param uuid the uuid of the player
+     * @return true if the player is connected, false otherwise
+     */
+    public abstract boolean isOnline(UUID uuid);
+
     public abstract T constructUser(UUID uuid, String playerName, boolean whitelisted, AbstractNecrifyPlugin plugin);
 }
@@ -0,0 +1,370 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
+import de.jvstvshd.necrify.common.config.CachePolicyData;
+import de.jvstvshd.necrify.common.config.MojangConfigData;
+import de.jvstvshd.necrify.common.util.Util;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Resolves names and uuids of players through Mojang's API. All requests share one {@link HttpClient} and are subject
+ * to a token bucket, so that bursts of lookups do not exceed Mojang's rate limits. Concurrent lookups of the same
+ * player share one request and successful results are cached. Lookups of uuids by name that arrive within
+ * {@link MojangConfigData#getBatchDelayMillis()} are sent as one bulk request of up to {@value #BULK_LIMIT} names.
+ * <p>
+ * All endpoints are configurable, which allows to use a proxy or a stub server instead of Mojang's API.
+ * </p>
+ * <p>Lookups of players that do not exist complete with an empty optional. If Mojang could not be reached or
+ * responded with an error (e.g. because of rate limiting), the returned future completes exceptionally instead, so
+ * that callers do not mistake an unavailable API for an unknown player. The same applies if more than
+ * {@link MojangConfigData#getMaxQueuedRequests()} requests are already waiting for the rate limit.</p>
+ */
+public final class MojangProfileResolver {
+
+    /**
+     * The maximum amount of names Mojang accepts in one bulk request.
+     */
+    public static final int BULK_LIMIT = 10;
+
+    private final MojangConfigData config;
+    private final Executor executor;
+    private final HttpClient httpClient;
+    private final TokenBucket tokenBucket;
+    private final Cache<UUID, String> names;
+    private final Cache<String, UUID> uuids;
+    /**
+     * Lookups that are currently in progress, keyed by either the uuid (name lookups) or the lower-cased name (uuid
+     * lookups) of the player.
+     */
+    private final Map<Object, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final Object batchLock = new Object();
+    private List<PendingLookup> batch = new ArrayList<>();
+
+    public MojangProfileResolver(@NotNull MojangConfigData config, @NotNull CachePolicyData cachePolicy, @NotNull Executor executor) {
+        this.config = config;
+        this.executor = executor;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofMillis(config.getTimeoutMillis()))
+                .build();
+        this.tokenBucket = new TokenBucket(config.getBurst(), config.getRequestsPerMinute(), config.getMaxQueuedRequests());
+        this.names = cachePolicy.newBuilder().build();
+        this.uuids = cachePolicy.newBuilder().build();
+    }
+
+    /**
+     * Resolves the current name of the player with the given uuid.
+     *
+     * @param uuid the uuid of the player
+     * @return a future completing with the player's name or an empty optional if there is no such player
+     */
+    @NotNull
+    public CompletableFuture<Optional<String>> getName(@NotNull UUID uuid) {
+        var cached = names.getIfPresent(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        return coalesce(uuid, () -> send(URI.create(config.getProfileEndpoint() + uuid), null).thenApply(response -> {
+            if (response.statusCode() == 204 || response.statusCode() == 404) {
+                return Optional.<String>empty();
+            }
+            var name = readString(requireOk(response), "name");
+            name.ifPresent(value -> remember(uuid, value));
+            return name;
+        }));
+    }
+
+    /**
+     * Resolves the uuid of the player with the given name. The name is case-insensitive.
+     *
+     * @param name the name of the player
+     * @return a future completing with the player's uuid or an empty optional if there is no such player
+     */
+    @NotNull
+    public CompletableFuture<Optional<UUID>> getUuid(@NotNull String name) {
+        var key = name.toLowerCase(Locale.ROOT);
+        var cached = uuids.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Optional.of(cached));
+        }
+        return coalesce(key, () -> enqueue(key));
+    }
+
+    /**
+     * Resolves the uuids of all players with the given names. Lookups are sent in bulk requests of up to
+     * {@value #BULK_LIMIT} names.
+     *
+     * @param names the names of the players
+     * @return a future completing with a map containing the uuid of every player that exists, keyed by the lower-cased name
+     */
+    @NotNull
+    public CompletableFuture<Map<String, UUID>> getUuids(@NotNull Collection<String> names) {
+        Map<String, CompletableFuture<Optional<UUID>>> lookups = new HashMap<>();
+        for (String name : names) {
+            lookups.computeIfAbsent(name.toLowerCase(Locale.ROOT), this::getUuid);
+        }
+        return CompletableFuture.allOf(lookups.values().toArray(CompletableFuture[]::new)).thenApply(_ -> {
+            Map<String, UUID> result = new HashMap<>();
+            lookups.forEach((name, lookup) -> lookup.join().ifPresent(uuid -> result.put(name, uuid)));
+            return result;
+        });
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the caches of resolved names and uuids.
+     *
+     * @return the statistics of this resolver's caches
+     */
+    public Map<String, CacheStatistics> getCacheStatistics() {
+        var statistics = new LinkedHashMap<String, CacheStatistics>();
+        statistics.put("profile-names", Util.cacheStatistics(names));
+        statistics.put("profile-uuids", Util.cacheStatistics(uuids));
+        return statistics;
+    }
+
+    private CompletableFuture<Optional<UUID>> enqueue(String name) {
+        var lookup = new PendingLookup(name, new CompletableFuture<>());
+        List<PendingLookup> full = null;
+        boolean first;
+        synchronized (batchLock) {
+            batch.add(lookup);
+            first = batch.size() == 1;
+            if (batch.size() >= BULK_LIMIT) {
+                full = batch;
+                batch = new ArrayList<>();
+            }
+        }
+        if (full != null) {
+            flush(full);
+        } else if (first) {
+            CompletableFuture.delayedExecutor(config.getBatchDelayMillis(), TimeUnit.MILLISECONDS, executor).execute(this::flushPending);
+        }
+        return lookup.future();
+    }
+
+    private void flushPending() {
+        List<PendingLookup> pending;
+        synchronized (batchLock) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            pending = batch;
+            batch = new ArrayList<>();
+        }
+        flush(pending);
+    }
+
+    private void flush(List<PendingLookup> lookups) {
+        CompletableFuture<Map<String, UUID>> request;
+        try {
+            request = lookups.size() == 1 ? lookupSingle(lookups.getFirst().name()) : lookupBulk(lookups);
+        } catch (RuntimeException e) {
+            request = CompletableFuture.failedFuture(e);
+        }
+        request.whenComplete((found, throwable) -> {
+            for (PendingLookup lookup : lookups) {
+                if (throwable != null) {
+                    lookup.future().completeExceptionally(throwable);
+                    continue;
+                }
+                lookup.future().complete(Optional.ofNullable(found.get(lookup.name())));
+            }
+        });
+    }
+
+    private CompletableFuture<Map<String, UUID>> lookupSingle(String name) {
+        var uri = URI.create(config.getNameEndpoint() + URLEncoder.encode(name, StandardCharsets.UTF_8));
+        return send(uri, null).thenApply(response -> {
+            if (response.statusCode() == 204 || response.statusCode() == 404) {
+                return Map.of();
+            }
+            Map<String, UUID> found = new HashMap<>();
+            readProfile(JsonParser.parseString(requireOk(response).body()), found);
+            return found;
+        });
+    }
+
+    private CompletableFuture<Map<String, UUID>> lookupBulk(List<PendingLookup> lookups) {
+        var body = new JsonArray(lookups.size());
+        for (PendingLookup lookup : lookups) {
+            body.add(lookup.name());
+        }
+        return send(URI.create(config.getBulkEndpoint()), body.toString()).thenApply(response -> {
+            Map<String, UUID> found = new HashMap<>();
+            for (JsonElement element : JsonParser.parseString(requireOk(response).body()).getAsJsonArray()) {
+                readProfile(element, found);
+            }
+            return found;
+        });
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(URI uri, @Nullable String jsonBody) {
+        var builder = HttpRequest.newBuilder(uri).timeout(Duration.ofMillis(config.getTimeoutMillis()));
+        if (jsonBody == null) {
+            builder.GET();
+        } else {
+            builder.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(jsonBody));
+        }
+        var request = builder.build();
+        return acquirePermit().thenCompose(_ -> httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private CompletableFuture<Void> acquirePermit() {
+        long waitNanos = tokenBucket.reserve();
+        if (waitNanos < 0) {
+            return CompletableFuture.failedFuture(new IOException("Too many requests to Mojang are waiting for the rate limit"));
+        }
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS, executor));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(Object key, Supplier<CompletableFuture<T>> lookup) {
+        var promise = new CompletableFuture<T>();
+        var existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            return existing.copy();
+        }
+        CompletableFuture<T> future;
+        try {
+            future = lookup.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        future.whenComplete((result, throwable) -> {
+            inFlight.remove(key, promise);
+            if (throwable != null) {
+                promise.completeExceptionally(throwable);
+            } else {
+                promise.complete(result);
+            }
+        });
+        return promise.copy();
+    }
+
+    private void remember(UUID uuid, String name) {
+        names.put(uuid, name);
+        uuids.put(name.toLowerCase(Locale.ROOT), uuid);
+    }
+
+    private static HttpResponse<String> requireOk(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new CompletionException(new IOException("Mojang responded with status " + response.statusCode() + " to " + response.uri()));
+        }
+        return response;
+    }
+
+    /**
+     * Reads a profile consisting of the player's id and name, caches it and puts it into the given map, keyed by the
+     * lower-cased name.
+     */
+    private void readProfile(JsonElement element, Map<String, UUID> found) {
+        if (element == null || !element.isJsonObject()) {
+            return;
+        }
+        var profile = element.getAsJsonObject();
+        var id = profile.get("id");
+        var name = profile.get("name");
+        if (id == null || name == null) {
+            return;
+        }
+        var uuid = Util.parseUuid(id.getAsString());
+        if (uuid != null) {
+            remember(uuid, name.getAsString());
+            found.put(name.getAsString().toLowerCase(Locale.ROOT), uuid);
+        }
+    }
+
+    private static Optional<String> readString(HttpResponse<String> response, String member) {
+        var element = JsonParser.parseString(response.body());
+        if (element == null || !element.isJsonObject()) {
+            return Optional.empty();
+        }
+        var value = element.getAsJsonObject().get(member);
+        return value == null || value.isJsonNull() ? Optional.empty() : Optional.of(value.getAsString());
+    }
+
+    private record PendingLookup(String name, CompletableFuture<Optional<UUID>> future) {
+    }
+
+    /**
+     * A token bucket that hands out reservations instead of rejecting requests: if there is no token left, the caller
+     * is told how long to wait until its token becomes available. Only a limited amount of tokens may be reserved in
+     * advance, so waits cannot grow without bound.
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double nanosPerToken;
+        private final double maxReserved;
+        private double tokens;
+        private long lastRefill;
+
+        private TokenBucket(int burst, int requestsPerMinute, int maxReserved) {
+            this.capacity = Math.max(1, burst);
+            this.nanosPerToken = TimeUnit.MINUTES.toNanos(1) / (double) Math.max(1, requestsPerMinute);
+            this.maxReserved = Math.max(0, maxReserved);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+        }
+
+        /**
+         * Reserves one token.
+         *
+         * @return the amount of nanoseconds to wait until the reserved token is available, 0 if it is available now or -1
+         * if too many tokens have been reserved in advance already
+         */
+        private synchronized long reserve() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerToken);
+            lastRefill = now;
+            if (tokens - 1 < -maxReserved) {
+                return -1;
+            }
+            tokens -= 1;
+            return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * nanosPerToken);
+        }
+    }
+}
@@ -32,17 +32,20 @@ import org.postgresql.PGNotification;
 import org.slf4j.Logger;
 
 import javax.sql.DataSource;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 
 /**
  * This class is responsible for updating punishment log instances of punishments when they are updated.
  * This is handled through Postgres' NOTIFY/LISTEN mechanism.<br>
- * Only loaded punishment logs get updated.
+ * Only loaded punishment logs get updated. The {@link de.jvstvshd.necrify.common.punishment.ActivePunishmentIndex} is
+ * updated for every notification.
  */
 public class PostgresPunishmentLogUpdater implements Callable<Void> {
 
     public static final String CHANNEL_NAME = "necrify_punishment_log_update";
+    private static final int NOTIFICATION_TIMEOUT_MILLIS = 1000;
 
     private final DataSource dataSource;
     private final UserManager userManager;
@@ -65,7 +68,8 @@ public class PostgresPunishmentLogUpdater implements Callable<Void> {
             try (var statement = connection.createStatement()) {
                 statement.execute("LISTEN necrify_punishment_log_update");
                 while (!Thread.currentThread().isInterrupted()) {
-                    var notifications = pgConnection.getNotifications();
+                    //blocks until notifications arrive instead of polling the connection continuously
+                    var notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT_MILLIS);
                     for (PGNotification notification : notifications) {
                         handleNotification(notification.getParameter());
                     }
@@ -84,28 +88,30 @@ public class PostgresPunishmentLogUpdater implements Callable<Void> {
             var uuid = UUID.fromString(split[0]);
             var id = Integer.parseInt(split[1]);
             var punishment = getPunishment(uuid);
-            if (punishment == null) {
-                return;
-            }
-            var log = Util.getCachedLog(punishment);
+            var log = punishment == null ? null : Util.getCachedLog(punishment);
             if (log == null) {
+                //no event is dispatched for punishments whose log is not loaded, but the index has to know about them
+                plugin.getActivePunishmentIndex().reloadUserOf(uuid);
                 return;
             }
             var result = Query.query("SELECT id, actor_id, message, expiration, reason, predecessor, successor, action, begins_at, created_at FROM punishment_log WHERE id = ?;")
                     .single(Call.of().bind(id))
-                    .map(row -> NecrifyPunishmentLog.fromRow(row, plugin, log, punishment, log.getEntries().size()))
+                    .map(NecrifyPunishmentLog.LogRow::of)
                     .first();
-            result.ifPresent(punishmentLogEntry ->
-                    dispatcher.dispatch(new PostgresPunishmentLogUpdateEvent(punishment, punishmentLogEntry)));
+            result.ifPresent(row -> NecrifyPunishmentLog.resolveEntries(List.of(row), plugin, log, punishment, log.getEntries().size())
+                    .whenComplete((entries, throwable) -> {
+                        if (throwable != null) {
+                            logger.error("An exception occurred while handling the notification: ", throwable);
+                            return;
+                        }
+                        dispatcher.dispatch(new PostgresPunishmentLogUpdateEvent(punishment, entries.getFirst()));
+                    }));
         } catch (Exception e) {
             logger.error("An exception occurred while handling the notification: ", e);
         }
     }
 
     private Punishment getPunishment(UUID uuid) {
-        return userManager.getLoadedUsers().stream()
-                .flatMap(user -> user.getPunishments().stream())
-                .filter(punishment -> punishment.getPunishmentUuid().equals(uuid)).findFirst().orElse(null);
-
+        return plugin.getLoadedPunishmentIndex().get(uuid).orElse(null);
     }
 }
@@ -21,22 +21,20 @@ package de.jvstvshd.necrify.common.user;
 import de.chojo.sadu.mapper.wrapper.Row;
 import de.jvstvshd.necrify.api.duration.PunishmentDuration;
 import de.jvstvshd.necrify.api.punishment.Punishment;
+import de.jvstvshd.necrify.api.punishment.PunishmentData;
+import de.jvstvshd.necrify.api.punishment.PunishmentType;
 import de.jvstvshd.necrify.api.punishment.PunishmentTypeRegistry;
-import de.jvstvshd.necrify.api.punishment.StandardPunishmentType;
 import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.api.user.UserLoadOrderCoordinator;
 import de.jvstvshd.necrify.common.util.Util;
-import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.minimessage.MiniMessage;
 
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.*;
 
 public final class UserLoader {
 
-    private final List<Map<String, Object>> data = new ArrayList<>();
+    private final List<PunishmentRow> data = new ArrayList<>();
     private final List<UUID> invalidPunishments = new ArrayList<>();
     private final NecrifyUser user;
 
@@ -44,34 +42,36 @@ public final class UserLoader {
         this.user = user;
     }
 
-    public void addData(Map<String, Object> data) {
-        this.data.add(data);
+    public void addData(PunishmentType type, PunishmentData data) {
+        this.data.add(new PunishmentRow(type, data));
     }
 
     public Void addDataFromRow(Row row) {
+        return addDataFromRow(row, 1);
+    }
+
+    /**
+     * Adds the punishment data contained in the given row. The columns type, expiration, reason, punishment_id, successor
+     * and issued_at are expected in this order, starting at the given column index.
+     *
+     * @param row         the row containing the punishment data
+     * @param firstColumn the index of the type column
+     * @return null
+     */
+    public Void addDataFromRow(Row row, int firstColumn) {
         try {
-            final StandardPunishmentType type = PunishmentTypeRegistry.getType(row.getInt(1)).standard();
-            final LocalDateTime timestamp = row.getTimestamp(2).toLocalDateTime();
-            final LocalDateTime issuedAt = row.getTimestamp(6).toLocalDateTime();
+            final PunishmentType type = PunishmentTypeRegistry.getType(row.getInt(firstColumn)).standard();
+            final LocalDateTime timestamp = row.getTimestamp(firstColumn + 1).toLocalDateTime();
+            final LocalDateTime issuedAt = row.getTimestamp(firstColumn + 5).toLocalDateTime();
             final PunishmentDuration duration = PunishmentDuration.from(timestamp, issuedAt);
-            final Component reason = MiniMessage.miniMessage().deserialize(row.getString(3));
-            final UUID punishmentUuid = Util.getUuid(row, 4);
-            final UUID successorId = Util.getUuid(row, 5);
+            //deserialized lazily by the punishment, most reasons will never be displayed
+            final String reason = row.getString(firstColumn + 2);
+            final UUID punishmentUuid = Util.getUuid(row, firstColumn + 3);
+            final UUID successorId = Util.getUuid(row, firstColumn + 4);
             if (duration.expiration().isBefore(LocalDateTime.now())) {
                 invalidPunishments.add(punishmentUuid);
             }
-            var data = new HashMap<String, Object>() {
-                {
-                    put("type", type);
-                    put("duration", duration);
-                    put("reason", reason);
-                    put("punishmentUuid", punishmentUuid);
-                    put("user", user);
-                    put("successorId", successorId);
-                    put("issued_at", issuedAt);
-                }
-            };
-            addData(data);
+            addData(type, new PunishmentData(punishmentUuid, user, null, reason, duration, successorId, null, issuedAt));
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -79,15 +79,14 @@ public final class UserLoader {
     }
 
     public List<Punishment> loadPunishments() {
-        var ordered = UserLoadOrderCoordinator.topologicalSort(data);
-        Map<UUID, Punishment> loaded = new HashMap<>();
-        for (Map<String, Object> dataMap : ordered) {
-            var type = (StandardPunishmentType) dataMap.get("type");
-            if (dataMap.get("successorId") != null) {
-                var successor = loaded.get((UUID) dataMap.get("successorId"));
-                dataMap.put("successor", successor);
+        var ordered = UserLoadOrderCoordinator.topologicalSort(data, row -> row.data().punishmentUuid(), row -> row.data().successorId());
+        Map<UUID, Punishment> loaded = HashMap.newHashMap(ordered.size());
+        for (PunishmentRow row : ordered) {
+            var punishmentData = row.data();
+            if (punishmentData.successorId() != null) {
+                punishmentData = punishmentData.withSuccessor(loaded.get(punishmentData.successorId()));
             }
-            var punishment = PunishmentTypeRegistry.createPunishment(type, dataMap);
+            var punishment = PunishmentTypeRegistry.createPunishment(row.type(), punishmentData);
             loaded.put(punishment.getPunishmentUuid(), punishment);
         }
         return new ArrayList<>(loaded.values());
@@ -98,11 +97,20 @@ public final class UserLoader {
         return user;
     }
 
-    public List<Map<String, Object>> getData() {
+    public List<PunishmentRow> getData() {
         return data;
     }
 
     public List<UUID> getInvalidPunishments() {
         return invalidPunishments;
     }
+
+    /**
+     * A single punishment of the user that is about to be instantiated.
+     *
+     * @param type the type of the punishment
+     * @param data the data of the punishment
+     */
+    public record PunishmentRow(PunishmentType type, PunishmentData data) {
+    }
 }
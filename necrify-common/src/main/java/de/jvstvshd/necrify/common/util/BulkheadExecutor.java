@@ -0,0 +1,284 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import de.jvstvshd.necrify.api.metrics.ExecutorStatistics;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * An executor that isolates one kind of workload from all others. At most {@code maxConcurrency} tasks are executed at
+ * the same time on the underlying executor, and at most {@code queueCapacity} tasks may wait for execution. Tasks that
+ * exceed this limit are handled according to the {@link RejectionPolicy}. This prevents a slow workload, e.g. requests
+ * to an unresponsive web service, from occupying all threads and delaying unrelated work.
+ * <p>This executor has its own lifecycle: shutting it down stops it from accepting new tasks and lets it run the queued
+ * ones, but never shuts down the underlying executor, which may be shared. Tasks running on this executor must not wait
+ * for other tasks of the same executor, since all permits may be held by waiting tasks; see {@link #current()} and
+ * {@link Util#join(CompletableFuture)}.</p>
+ *
+ * @since 1.2.6
+ */
+public final class BulkheadExecutor extends AbstractExecutorService {
+
+    private static final ThreadLocal<BulkheadExecutor> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final ExecutorService delegate;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final RejectionPolicy rejectionPolicy;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger workers = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final Object terminationLock = new Object();
+    private volatile boolean shutdown;
+
+    public BulkheadExecutor(@NotNull String name, @NotNull ExecutorService delegate, int maxConcurrency, int queueCapacity, @NotNull RejectionPolicy rejectionPolicy) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must not be negative");
+        }
+        this.name = name;
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+        this.rejectionPolicy = rejectionPolicy;
+    }
+
+    @Override
+    public void execute(@NotNull Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("Executor " + name + " has been shut down");
+        }
+        if (queued.incrementAndGet() > queueCapacity && workers.get() >= maxConcurrency) {
+            queued.decrementAndGet();
+            reject(command);
+            return;
+        }
+        queue.add(command);
+        startWorkerIfPossible();
+    }
+
+    private void reject(Runnable command) {
+        rejected.increment();
+        switch (rejectionPolicy) {
+            case CALLER_RUNS -> command.run();
+            case ABORT -> throw new RejectedExecutionException("Queue of executor " + name + " is full (" + queueCapacity + " tasks)");
+        }
+    }
+
+    private void startWorkerIfPossible() {
+        while (true) {
+            int current = workers.get();
+            if (current >= maxConcurrency) {
+                return;
+            }
+            if (workers.compareAndSet(current, current + 1)) {
+                try {
+                    delegate.execute(this::work);
+                } catch (RejectedExecutionException e) {
+                    workers.decrementAndGet();
+                    throw e;
+                }
+                return;
+            }
+        }
+    }
+
+    private void work() {
+        CURRENT.set(this);
+        try {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                queued.decrementAndGet();
+                active.incrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    var thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                } finally {
+                    active.decrementAndGet();
+                    completed.increment();
+                }
+            }
+        } finally {
+            CURRENT.remove();
+            workers.decrementAndGet();
+            //a task may have been queued after the queue was found to be empty but before this worker was released
+            if (!queue.isEmpty()) {
+                startWorkerIfPossible();
+            } else if (shutdown) {
+                signalIfTerminated();
+            }
+        }
+    }
+
+    private void signalIfTerminated() {
+        if (isTerminated()) {
+            synchronized (terminationLock) {
+                terminationLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the executor whose task is currently running on the calling thread.
+     *
+     * @return the executor of the current thread or null if the current thread does not run a task of a bulkhead executor
+     */
+    public static BulkheadExecutor current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Returns whether all permits of this executor are held, so that queued tasks cannot start until a running task
+     * completes.
+     *
+     * @return true if this executor runs as many tasks as it may run at the same time
+     */
+    boolean isSaturated() {
+        return workers.get() >= maxConcurrency;
+    }
+
+    /**
+     * Returns the executor that completes the given future, if it was created by a task of a bulkhead executor through
+     * {@link Util#executeAsync(Callable, Executor)} or derived from such a future.
+     *
+     * @param future the future
+     * @return the executor completing the future or null if it is unknown
+     */
+    static BulkheadExecutor completingExecutor(CompletableFuture<?> future) {
+        return future instanceof TaskFuture<?> taskFuture ? taskFuture.executor : null;
+    }
+
+    /**
+     * Returns a snapshot of this executor's statistics.
+     *
+     * @return the current statistics
+     */
+    public ExecutorStatistics statistics() {
+        return new ExecutorStatistics(active.get(), Math.max(0, queued.get()), completed.sum(), rejected.sum(), maxConcurrency, queueCapacity);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        signalIfTerminated();
+    }
+
+    /**
+     * Shuts this executor down and returns the tasks that have not been started yet. Running tasks are not interrupted.
+     *
+     * @return the tasks that were still queued
+     */
+    @Override
+    public @NotNull List<Runnable> shutdownNow() {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>();
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            queued.decrementAndGet();
+            pending.add(task);
+        }
+        signalIfTerminated();
+        return pending;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && workers.get() == 0 && queue.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (terminationLock) {
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(terminationLock, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A future that is completed by a task of a bulkhead executor. Futures derived from it, e.g. through
+     * {@link CompletableFuture#thenApply(java.util.function.Function)}, are considered to be completed by the same
+     * executor.
+     *
+     * @param <T> the type of the result
+     */
+    static final class TaskFuture<T> extends CompletableFuture<T> {
+
+        private final BulkheadExecutor executor;
+
+        TaskFuture(BulkheadExecutor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public <U> CompletableFuture<U> newIncompleteFuture() {
+            return new TaskFuture<>(executor);
+        }
+    }
+
+    /**
+     * Determines what happens to tasks submitted while the queue of an executor is full.
+     */
+    public enum RejectionPolicy {
+
+        /**
+         * The task is rejected with a {@link RejectedExecutionException}.
+         */
+        @JsonProperty("abort")
+        ABORT,
+
+        /**
+         * The task is executed directly by the thread submitting it, which slows down the submitter. This must not be
+         * used if tasks are submitted from threads that must not block, such as threads of the database executor.
+         */
+        @JsonProperty("caller-runs")
+        CALLER_RUNS
+    }
+}
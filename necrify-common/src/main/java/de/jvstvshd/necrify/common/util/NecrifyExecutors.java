@@ -0,0 +1,100 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Creates the executors Necrify runs its asynchronous work on. All threads are named after the executor they belong to
+ * and report uncaught exceptions to the given handler.
+ *
+ * @since 1.2.6
+ */
+public final class NecrifyExecutors {
+
+    private NecrifyExecutors() {
+    }
+
+    /**
+     * Creates a new executor for I/O-bound work, like database queries or HTTP requests, according to the given mode.
+     *
+     * @param name    the name of the executor, used as prefix of its threads' names
+     * @param mode    whether to use virtual or platform threads
+     * @param handler the handler for exceptions that are not caught by a task
+     * @return a new executor
+     */
+    public static ExecutorService newExecutor(@NotNull String name, @NotNull Mode mode, @NotNull Thread.UncaughtExceptionHandler handler) {
+        return switch (mode) {
+            case VIRTUAL -> newVirtualExecutor(name, handler);
+            case PLATFORM -> newPlatformExecutor(name, handler);
+        };
+    }
+
+    /**
+     * Creates a new executor that runs every task in its own virtual thread. Blocking operations like JDBC calls do not
+     * occupy a platform thread while waiting, so many of them can wait at the same time without a large thread pool.
+     *
+     * @param name    the name of the executor, used as prefix of its threads' names
+     * @param handler the handler for exceptions that are not caught by a task
+     * @return a new executor using virtual threads
+     */
+    public static ExecutorService newVirtualExecutor(@NotNull String name, @NotNull Thread.UncaughtExceptionHandler handler) {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                .name(name + "-", 0)
+                .uncaughtExceptionHandler(handler)
+                .factory());
+    }
+
+    /**
+     * Creates a new cached thread pool of platform threads, which was the only executor model before virtual threads
+     * were supported.
+     *
+     * @param name    the name of the executor, used as prefix of its threads' names
+     * @param handler the handler for exceptions that are not caught by a task
+     * @return a new executor using a cached pool of platform threads
+     */
+    public static ExecutorService newPlatformExecutor(@NotNull String name, @NotNull Thread.UncaughtExceptionHandler handler) {
+        return Executors.newCachedThreadPool(Thread.ofPlatform()
+                .name(name + "-", 0)
+                .uncaughtExceptionHandler(handler)
+                .factory());
+    }
+
+    /**
+     * The kind of threads an executor uses.
+     */
+    public enum Mode {
+
+        /**
+         * Every task runs in a new virtual thread.
+         */
+        @JsonProperty("virtual")
+        VIRTUAL,
+
+        /**
+         * Tasks run in a cached pool of platform threads.
+         */
+        @JsonProperty("platform")
+        PLATFORM
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Deduplicates concurrent asynchronous loads. A load is only started if there is no load in progress for the same key;
+ * otherwise, the caller receives the result of the ongoing load. Loads never block a thread while waiting for each
+ * other, so they may be composed freely on the same executor.
+ *
+ * @param <K> the type of the keys identifying loads
+ * @param <V> the type of the results
+ * @since 1.2.6
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Executes the given load unless there is already a load in progress for the same key. In this case, the future of
+     * the ongoing load is returned instead, so that all concurrent callers share one database round trip and receive
+     * the same result. Every caller receives its own copy of the future, so completing or cancelling it does not affect
+     * other callers.
+     *
+     * @param key  the key identifying the load
+     * @param load the load to execute if there is none in progress
+     * @return a future completing with the result of the (shared) load
+     */
+    public CompletableFuture<V> load(@NotNull K key, @NotNull Supplier<CompletableFuture<V>> load) {
+        var promise = new CompletableFuture<V>();
+        var ongoing = inFlight.putIfAbsent(key, promise);
+        if (ongoing != null) {
+            return ongoing.copy();
+        }
+        CompletableFuture<V> future;
+        try {
+            future = load.get();
+        } catch (Throwable throwable) {
+            future = CompletableFuture.failedFuture(throwable);
+        }
+        future.whenComplete((result, throwable) -> {
+            //remove first so that callbacks of the promise cannot join a load that has already been completed
+            inFlight.remove(key, promise);
+            if (throwable != null) {
+                promise.completeExceptionally(throwable);
+            } else {
+                promise.complete(result);
+            }
+        });
+        return promise.copy();
+    }
+
+    /**
+     * Returns the amount of loads currently in progress.
+     *
+     * @return the amount of loads in progress
+     */
+    public int size() {
+        return inFlight.size();
+    }
+}
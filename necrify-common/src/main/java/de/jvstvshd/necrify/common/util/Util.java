@@ -18,9 +18,11 @@
 
 package de.jvstvshd.necrify.common.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import de.chojo.sadu.core.conversion.UUIDConverter;
 import de.chojo.sadu.mapper.wrapper.Row;
 import de.jvstvshd.necrify.api.message.MessageProvider;
+import de.jvstvshd.necrify.api.metrics.CacheStatistics;
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import de.jvstvshd.necrify.api.punishment.TemporalPunishment;
 import de.jvstvshd.necrify.common.io.NecrifyDatabase;
@@ -34,6 +36,8 @@ import net.kyori.adventure.text.event.HoverEventSource;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.sql.SQLException;
 import java.time.format.DateTimeFormatter;
@@ -53,6 +57,8 @@ public class Util {
 
     public static final DateTimeFormatter dtf = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm:ss");
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(Util.class);
+
     private Util() {
     }
 
@@ -83,7 +89,8 @@ public class Util {
     }
 
     public static <T> CompletableFuture<T> executeAsync(Callable<T> task, Executor service) {
-        CompletableFuture<T> cf = new CompletableFuture<>();
+        //remember the executor, so that waiting for the future on a thread of the same executor can be detected
+        CompletableFuture<T> cf = service instanceof BulkheadExecutor bulkhead ? new BulkheadExecutor.TaskFuture<>(bulkhead) : new CompletableFuture<>();
         service.execute(() -> {
             try {
                 cf.complete(task.call());
@@ -94,6 +101,43 @@ public class Util {
         return cf;
     }
 
+    /**
+     * Waits for the given future and returns its result. This is only meant for synchronous legacy APIs. Waiting on a
+     * thread of one of Necrify's executors is refused if the future is completed by a task of the same executor and all
+     * of this executor's threads are busy, since the task could never start. Otherwise, a warning is logged and the
+     * current thread blocks, as waiting still delays other tasks of the executor.
+     *
+     * @param future the future to wait for
+     * @param <T>    the type of the result
+     * @return the result of the future
+     * @throws IllegalStateException if the future is not completed yet and waiting for it would deadlock the
+     *                               {@link BulkheadExecutor} of the current thread
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        var executor = BulkheadExecutor.current();
+        if (executor != null && !future.isDone()) {
+            if (BulkheadExecutor.completingExecutor(future) == executor && executor.isSaturated()) {
+                throw new IllegalStateException("Blocking on a thread of executor " + executor.getName() + " for one of its own " +
+                        "tasks would deadlock it, use the asynchronous variant instead");
+            }
+            LOGGER.warn("Blocking on a thread of executor {}, which delays its other tasks; use the asynchronous variant instead",
+                    executor.getName());
+        }
+        return future.join();
+    }
+
+    /**
+     * Creates a snapshot of the statistics of the given cache. Statistics are only available if the cache was built with
+     * {@link com.github.benmanes.caffeine.cache.Caffeine#recordStats()}.
+     *
+     * @param cache the cache
+     * @return the statistics of the cache
+     */
+    public static CacheStatistics cacheStatistics(Cache<?, ?> cache) {
+        var stats = cache.stats();
+        return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
     public static TextComponent copyComponent(String text, MessageProvider provider) {
         return Component.text(text).clickEvent(ClickEvent.suggestCommand(text))
                 .hoverEvent((HoverEventSource<Component>) op -> HoverEvent.showText(provider.provide("commands.general.copy").color(NamedTextColor.GREEN)));
@@ -0,0 +1,3 @@
+ALTER TABLE necrify_user
+    ADD COLUMN IF NOT EXISTS name_lower VARCHAR(16) AS (LOWER(name)) PERSISTENT;
+CREATE INDEX IF NOT EXISTS necrify_user_name_lower_idx ON necrify_user (name_lower);
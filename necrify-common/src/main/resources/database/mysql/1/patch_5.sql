@@ -0,0 +1,12 @@
+-- Functional indexes require MySQL 8.0.13 or newer. MySQL does not support CREATE INDEX IF NOT EXISTS, so the index is
+-- only created through a prepared statement if it does not exist yet.
+SET @necrify_create_name_index = IF((SELECT COUNT(*)
+                                     FROM information_schema.statistics
+                                     WHERE table_schema = DATABASE()
+                                       AND table_name = 'necrify_user'
+                                       AND index_name = 'necrify_user_name_lower_idx') = 0,
+                                    'CREATE INDEX necrify_user_name_lower_idx ON necrify_user ((LOWER(name)))',
+                                    'DO 0');
+PREPARE necrify_create_name_index FROM @necrify_create_name_index;
+EXECUTE necrify_create_name_index;
+DEALLOCATE PREPARE necrify_create_name_index;
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS necrify_user_name_lower_idx ON necrify_schema.necrify_user (LOWER(name));
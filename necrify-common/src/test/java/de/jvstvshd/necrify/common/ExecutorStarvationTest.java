@@ -0,0 +1,526 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.chojo.sadu.queries.api.configuration.QueryConfiguration;
+import de.jvstvshd.necrify.api.duration.PunishmentDuration;
+import de.jvstvshd.necrify.api.event.EventDispatcher;
+import de.jvstvshd.necrify.api.event.Slf4jLogger;
+import de.jvstvshd.necrify.api.message.MessageProvider;
+import de.jvstvshd.necrify.api.punishment.Punishment;
+import de.jvstvshd.necrify.api.punishment.PunishmentManager;
+import de.jvstvshd.necrify.api.punishment.log.PunishmentLogAction;
+import de.jvstvshd.necrify.api.punishment.util.PlayerResolver;
+import de.jvstvshd.necrify.api.user.NecrifyUser;
+import de.jvstvshd.necrify.api.user.UserManager;
+import de.jvstvshd.necrify.common.config.ConfigurationManager;
+import de.jvstvshd.necrify.common.io.NecrifyDatabase;
+import de.jvstvshd.necrify.common.punishment.NecrifyBan;
+import de.jvstvshd.necrify.common.punishment.NecrifyKick;
+import de.jvstvshd.necrify.common.punishment.log.NecrifyPunishmentLog;
+import de.jvstvshd.necrify.common.user.AbstractNecrifyUser;
+import de.jvstvshd.necrify.common.user.AbstractUserManager;
+import net.kyori.adventure.audience.Audience;
+import net.kyori.adventure.text.Component;
+import org.incendo.cloud.type.tuple.Pair;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Drives composed operations of punishments, punishment logs and the user manager through a plugin whose database and
+ * background executors only have a single thread each. If any step blocks such a thread to wait for another task of
+ * the same executor, e.g. by a reintroduced {@code join()}, the operation either fails or never completes, so every
+ * operation is guarded by a timeout. The database accepts every statement and answers queries with scripted rows.
+ */
+public class ExecutorStarvationTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorStarvationTest.class);
+    private static final long TIMEOUT_SECONDS = 10;
+    private static final int USERS = 16;
+    private static final String CONFIG = """
+            executors:
+              mode: "platform"
+              database:
+                max-concurrency: 1
+                queue-capacity: 10000
+                rejection-policy: "abort"
+              background:
+                max-concurrency: 1
+                queue-capacity: 1000
+                rejection-policy: "abort"
+            """;
+
+    @TempDir
+    Path directory;
+    private String sqlType;
+    private FakeDatabase database;
+    private TestPlugin plugin;
+    private TestUserManager userManager;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        sqlType = NecrifyDatabase.SQL_TYPE;
+        NecrifyDatabase.SQL_TYPE = "postgresql";
+        database = new FakeDatabase();
+        QueryConfiguration.setDefault(QueryConfiguration.builder(database.dataSource()).setThrowExceptions(true).build());
+        var config = directory.resolve("config.yml");
+        Files.writeString(config, CONFIG);
+        plugin = new TestPlugin(new ConfigurationManager(config));
+        assertTrue(plugin.loadConfig());
+        assertEquals(1, plugin.getConfig().getConfiguration().getExecutorConfigData().getDatabase().getMaxConcurrency());
+        plugin.registerFactories();
+        plugin.setEventDispatcher(new EventDispatcher(plugin.getEventExecutor(), new Slf4jLogger(LOGGER)));
+        plugin.systemUser = new TestUser(new UUID(0, 0), "console", plugin);
+        userManager = new TestUserManager(plugin);
+        plugin.setUserManager(userManager);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        NecrifyDatabase.SQL_TYPE = sqlType;
+        plugin.getExecutor().shutdownNow();
+        plugin.getHttpExecutor().shutdownNow();
+        plugin.getEventExecutor().shutdownNow();
+        plugin.getBackgroundExecutor().shutdownNow();
+    }
+
+    @Test
+    public void testSuccessionChangeAndCancellation() {
+        List<CompletableFuture<Punishment>> cancellations = new ArrayList<>();
+        List<NecrifyBan> successors = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            var user = new TestUser(UUID.randomUUID(), "user" + i, plugin);
+            var ban = ban(user, 1);
+            var successor = ban(user, 2);
+            successors.add(successor);
+            //moving the successor, changing the predecessor and cancelling the successor each compose several queries
+            cancellations.add(ban.setSuccessor(successor)
+                    .thenCompose(_ -> ban.change(PunishmentDuration.from(LocalDateTime.now().plusHours(3)), null, Component.text("changed")))
+                    .thenCompose(_ -> successor.cancel()));
+        }
+        await(CompletableFuture.allOf(cancellations.toArray(CompletableFuture[]::new)));
+        for (int i = 0; i < USERS; i++) {
+            assertEquals(successors.get(i), cancellations.get(i).join());
+        }
+        assertEquals(USERS, database.count("DELETE FROM necrify_punishment"));
+        //once when the successor is set, once when it is cancelled
+        assertEquals(USERS * 2, database.count("SET successor = ?"));
+    }
+
+    @Test
+    public void testLogLoadResolvesRelatedPunishments() {
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        //the related punishment is neither cached nor belongs to a user, so it is loaded from its own log
+        database.respond("FROM punishment_log", parameters -> {
+            if (first.equals(parameters.getFirst())) {
+                return List.<Object[]>of(logRow(null, second));
+            } else if (second.equals(parameters.getFirst())) {
+                return List.<Object[]>of(logRow(first, null));
+            }
+            return List.of();
+        });
+        var log = new NecrifyPunishmentLog(plugin, first);
+        assertTrue(await(log.loadAsync(false)));
+        var entry = log.getEntry(PunishmentLogAction.INFORMATION);
+        assertNotNull(entry);
+        assertNotNull(entry.successor());
+        assertEquals(second, entry.successor().getUuid());
+        assertEquals(2, database.count("FROM punishment_log"));
+    }
+
+    @Test
+    public void testUserLoadCancelsExpiredPunishments() {
+        var uuid = UUID.randomUUID();
+        var expired = UUID.randomUUID();
+        var successor = UUID.randomUUID();
+        var now = LocalDateTime.now();
+        database.respond("FROM necrify_user u LEFT JOIN", parameters -> {
+            if (!uuid.equals(parameters.getFirst())) {
+                return List.of();
+            }
+            return List.of(
+                    userRow(uuid, expired, successor, now.minusHours(2), now.minusHours(1)),
+                    userRow(uuid, successor, null, now.minusHours(1), now.plusHours(1)));
+        });
+        var user = await(userManager.loadUser(uuid)).orElseThrow();
+        //the cancellation moves the successor and deletes the expired punishment in the background
+        await(database.executed("DELETE FROM necrify_punishment"));
+        assertEquals(1, database.count("UPDATE necrify_punishment SET reason = ?"));
+        assertEquals(List.of(successor), user.getPunishments().stream().map(Punishment::getUuid).toList());
+    }
+
+    private NecrifyBan ban(TestUser user, int hours) {
+        var ban = new NecrifyBan(user, Component.text("ban"), UUID.randomUUID(),
+                PunishmentDuration.from(LocalDateTime.now().plusHours(hours)), plugin, null, LocalDateTime.now());
+        user.addPunishment(ban);
+        return ban;
+    }
+
+    private static Object[] logRow(UUID predecessor, UUID successor) {
+        var now = Timestamp.valueOf(LocalDateTime.now());
+        return new Object[]{1, null, "created", Timestamp.valueOf(LocalDateTime.now().plusHours(1)), "reason", predecessor,
+                successor, PunishmentLogAction.INFORMATION.name(), now, now};
+    }
+
+    private static Object[] userRow(UUID uuid, UUID punishment, UUID successor, LocalDateTime issuedAt, LocalDateTime expiration) {
+        return new Object[]{uuid, "Player", false, 1, Timestamp.valueOf(expiration), "reason", punishment, successor,
+                Timestamp.valueOf(issuedAt), null};
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        return future.orTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS).join();
+    }
+
+    /**
+     * A database that accepts every statement. Queries containing a registered fragment are answered with the rows of the
+     * registered responder, all other queries return no rows.
+     */
+    private static final class FakeDatabase {
+
+        private final Map<String, Function<List<Object>, List<Object[]>>> responders = new ConcurrentHashMap<>();
+        private final Map<String, CompletableFuture<Void>> awaited = new ConcurrentHashMap<>();
+        private final List<String> executed = new CopyOnWriteArrayList<>();
+
+        void respond(String fragment, Function<List<Object>, List<Object[]>> responder) {
+            responders.put(fragment, responder);
+        }
+
+        long count(String fragment) {
+            return executed.stream().filter(sql -> sql.contains(fragment)).count();
+        }
+
+        CompletableFuture<Void> executed(String fragment) {
+            var future = awaited.computeIfAbsent(fragment, _ -> new CompletableFuture<>());
+            if (count(fragment) > 0) {
+                future.complete(null);
+            }
+            return future;
+        }
+
+        DataSource dataSource() {
+            return proxy(DataSource.class, (method, _) -> method.getName().equals("getConnection") ? connection() : null);
+        }
+
+        private Connection connection() {
+            return proxy(Connection.class, (method, args) -> switch (method.getName()) {
+                case "prepareStatement", "prepareCall" -> statement((String) args[0]);
+                case "createStatement" -> statement("");
+                default -> null;
+            });
+        }
+
+        private PreparedStatement statement(String preparedSql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            List<Object[]> result = new ArrayList<>();
+            return proxy(PreparedStatement.class, (method, args) -> {
+                var name = method.getName();
+                if (name.startsWith("set") && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    return null;
+                }
+                var sql = args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                return switch (name) {
+                    case "executeQuery", "execute" -> {
+                        result.clear();
+                        result.addAll(execute(sql, new ArrayList<>(parameters.values())));
+                        yield name.equals("execute") ? isQuery(sql) : resultSet(result);
+                    }
+                    case "executeUpdate" -> {
+                        execute(sql, List.of());
+                        yield 1;
+                    }
+                    case "executeLargeUpdate" -> {
+                        execute(sql, List.of());
+                        yield 1L;
+                    }
+                    case "executeBatch" -> {
+                        execute(sql, List.of());
+                        yield new int[]{1};
+                    }
+                    case "getResultSet" -> resultSet(result);
+                    case "getGeneratedKeys" -> resultSet(List.of());
+                    case "getUpdateCount" -> isQuery(sql) ? -1 : 1;
+                    case "getLargeUpdateCount" -> isQuery(sql) ? -1L : 1L;
+                    default -> null;
+                };
+            });
+        }
+
+        private List<Object[]> execute(String sql, List<Object> parameters) {
+            executed.add(sql);
+            awaited.forEach((fragment, future) -> {
+                if (sql.contains(fragment)) {
+                    future.complete(null);
+                }
+            });
+            for (var responder : responders.entrySet()) {
+                if (sql.contains(responder.getKey())) {
+                    return responder.getValue().apply(parameters);
+                }
+            }
+            return List.of();
+        }
+
+        private static boolean isQuery(String sql) {
+            return sql.stripLeading().toUpperCase(Locale.ROOT).startsWith("SELECT");
+        }
+
+        private static ResultSet resultSet(List<Object[]> rows) {
+            var cursor = new int[]{-1};
+            var wasNull = new boolean[1];
+            return proxy(ResultSet.class, (method, args) -> {
+                var name = method.getName();
+                if (name.equals("next")) {
+                    return ++cursor[0] < rows.size();
+                } else if (name.equals("wasNull")) {
+                    return wasNull[0];
+                } else if (name.startsWith("get") && args.length > 0 && args[0] instanceof Integer column) {
+                    var value = rows.get(cursor[0])[column - 1];
+                    wasNull[0] = value == null;
+                    return convert(value, method.getReturnType());
+                }
+                return null;
+            });
+        }
+
+        private static Object convert(Object value, Class<?> type) {
+            if (value == null) {
+                return null;
+            } else if (type == String.class) {
+                return value.toString();
+            } else if (type == int.class) {
+                return ((Number) value).intValue();
+            } else if (type == long.class) {
+                return ((Number) value).longValue();
+            }
+            return value;
+        }
+
+        /**
+         * Creates a proxy of the given JDBC interface. Methods the handler returns null for return null, false or zero.
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, BiFunction<Method, Object[], Object> handler) {
+            return (T) Proxy.newProxyInstance(ExecutorStarvationTest.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        default -> "Fake" + type.getSimpleName();
+                    };
+                }
+                var result = handler.apply(method, args == null ? new Object[0] : args);
+                return result != null ? result : defaultValue(method.getReturnType());
+            });
+        }
+
+        private static Object defaultValue(Class<?> type) {
+            if (type == boolean.class) {
+                return false;
+            } else if (type == int.class) {
+                return 0;
+            } else if (type == long.class) {
+                return 0L;
+            } else if (type == short.class) {
+                return (short) 0;
+            } else if (type == byte.class) {
+                return (byte) 0;
+            } else if (type == float.class) {
+                return 0F;
+            } else if (type == double.class) {
+                return 0D;
+            }
+            return null;
+        }
+    }
+
+    private static final class TestPlugin extends AbstractNecrifyPlugin {
+
+        private PunishmentManager punishmentManager;
+        private PlayerResolver playerResolver;
+        private MessageProvider messageProvider;
+        private UserManager userManager;
+        private EventDispatcher eventDispatcher;
+        private NecrifyUser systemUser;
+
+        TestPlugin(ConfigurationManager configurationManager) {
+            super(configurationManager, LOGGER);
+        }
+
+        @Override
+        public NecrifyKick createKick(Component reason, NecrifyUser user, UUID punishmentUuid) {
+            throw new UnsupportedOperationException("kicks are not supported by the test plugin");
+        }
+
+        @Override
+        public Set<Pair<String, UUID>> getOnlinePlayers() {
+            return Set.of();
+        }
+
+        @Override
+        public NecrifyUser getSystemUser() {
+            return systemUser;
+        }
+
+        @Override
+        public boolean isWhitelistActive() {
+            return false;
+        }
+
+        @Override
+        public PunishmentManager getPunishmentManager() {
+            return punishmentManager;
+        }
+
+        @Override
+        public void setPunishmentManager(PunishmentManager punishmentManager) {
+            this.punishmentManager = punishmentManager;
+        }
+
+        @Override
+        public PlayerResolver getPlayerResolver() {
+            return playerResolver;
+        }
+
+        @Override
+        public void setPlayerResolver(PlayerResolver playerResolver) {
+            this.playerResolver = playerResolver;
+        }
+
+        @Override
+        public MessageProvider getMessageProvider() {
+            return messageProvider;
+        }
+
+        @Override
+        public void setMessageProvider(@NotNull MessageProvider messageProvider) {
+            this.messageProvider = messageProvider;
+        }
+
+        @Override
+        public UserManager getUserManager() {
+            return userManager;
+        }
+
+        @Override
+        public void setUserManager(@NotNull UserManager userManager) {
+            this.userManager = userManager;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T extends Punishment> CompletableFuture<Optional<T>> getPunishment(@NotNull UUID punishmentId) {
+            var cachedPunishment = getCachedPunishment(punishmentId);
+            if (cachedPunishment.isPresent()) {
+                return CompletableFuture.completedFuture((Optional<T>) cachedPunishment);
+            }
+            return userManager.loadUserByPunishmentId(punishmentId).thenCompose(user -> user
+                    .flatMap(necrifyUser -> necrifyUser.getPunishment(punishmentId))
+                    .map(punishment -> CompletableFuture.completedFuture(Optional.of((T) punishment)))
+                    .orElseGet(() -> loadHistoricalPunishment(punishmentId)));
+        }
+
+        @Override
+        public EventDispatcher getEventDispatcher() {
+            return eventDispatcher;
+        }
+
+        @Override
+        public void setEventDispatcher(@NotNull EventDispatcher eventDispatcher) {
+            this.eventDispatcher = eventDispatcher;
+        }
+    }
+
+    private static final class TestUser extends AbstractNecrifyUser {
+
+        TestUser(UUID uuid, String username, AbstractNecrifyPlugin plugin) {
+            super(uuid, username, plugin, false);
+        }
+
+        @Override
+        public void executeOnAudience(@NotNull Consumer<Audience> consumer) {
+        }
+
+        @Override
+        public boolean hasPermission(@NotNull String permission) {
+            return true;
+        }
+
+        @Override
+        public @NotNull Locale getLocale() {
+            return Locale.ENGLISH;
+        }
+    }
+
+    private static final class TestUserManager extends AbstractUserManager<TestUser> {
+
+        TestUserManager(AbstractNecrifyPlugin plugin) {
+            super(plugin.getExecutor(), Caffeine.newBuilder().build(), Caffeine.newBuilder().build(), plugin);
+        }
+
+        @Override
+        public Optional<UUID> getUuidIfOnline(String name) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<String> getNameIfOnline(UUID uuid) {
+            return Optional.empty();
+        }
+
+        @Override
+        public boolean isOnline(UUID uuid) {
+            return false;
+        }
+
+        @Override
+        public TestUser constructUser(UUID uuid, String playerName, boolean whitelisted, AbstractNecrifyPlugin plugin) {
+            return new TestUser(uuid, playerName, plugin);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.plugin;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MuteDataCodecTest {
+
+    @Test
+    public void testRoundtrip() throws IOException {
+        var expiration = LocalDateTime.now().plusDays(3).truncatedTo(ChronoUnit.MILLIS);
+        var mutes = List.of(
+                new MuteData(UUID.randomUUID(), "<red>You are muted: spam ä€", expiration, MuteData.RECALCULATION, UUID.randomUUID()).withSequence(42),
+                new MuteData(UUID.randomUUID(), null, null, MuteData.RESET, null).withSequence(43));
+        var frames = MuteDataCodec.encode(mutes);
+        assertEquals(1, frames.size());
+        var frame = frames.getFirst();
+        assertTrue(MuteDataCodec.isBinary(frame));
+        assertEquals(MuteDataCodec.KIND_MUTES, MuteDataCodec.kind(frame));
+        assertMuteDataEquals(mutes, MuteDataCodec.decode(frame));
+    }
+
+    @Test
+    public void testLargeBatchIsSplitAndCompressed() throws IOException {
+        List<MuteData> mutes = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            mutes.add(new MuteData(UUID.randomUUID(), "<red>You were muted for advertising. Appeal on our website.",
+                    LocalDateTime.now().plusHours(i).truncatedTo(ChronoUnit.MILLIS), MuteData.RECALCULATION, UUID.randomUUID()));
+        }
+        var frames = MuteDataCodec.encode(mutes);
+        assertTrue(frames.size() > 1);
+        List<MuteData> decoded = new ArrayList<>();
+        for (byte[] frame : frames) {
+            assertTrue(frame.length <= Short.MAX_VALUE);
+            decoded.addAll(MuteDataCodec.decode(frame));
+        }
+        assertMuteDataEquals(mutes, decoded);
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        List<MuteData> mutes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            mutes.add(new MuteData(UUID.randomUUID(), "<red>You were muted for spamming. " + i,
+                    LocalDateTime.now().plusMinutes(i).truncatedTo(ChronoUnit.MILLIS), MuteData.RECALCULATION, UUID.randomUUID()).withSequence(7));
+        }
+        var frames = MuteDataCodec.encodeSnapshot(mutes, 7);
+        List<MuteData> decoded = new ArrayList<>();
+        for (int i = 0; i < frames.size(); i++) {
+            assertEquals(MuteDataCodec.KIND_SNAPSHOT, MuteDataCodec.kind(frames.get(i)));
+            var chunk = MuteDataCodec.decodeSnapshot(frames.get(i));
+            assertEquals(7, chunk.sequence());
+            assertEquals(i, chunk.index());
+            assertEquals(frames.size(), chunk.total());
+            assertEquals(i == frames.size() - 1, chunk.isLast());
+            decoded.addAll(chunk.muteData());
+        }
+        assertMuteDataEquals(mutes, decoded);
+
+        var empty = MuteDataCodec.encodeSnapshot(List.of(), 8);
+        assertEquals(1, empty.size());
+        assertTrue(MuteDataCodec.decodeSnapshot(empty.getFirst()).isLast());
+    }
+
+    @Test
+    public void testSnapshotRequest() throws IOException {
+        var players = List.of(UUID.randomUUID(), UUID.randomUUID());
+        var request = MuteDataCodec.encodeSnapshotRequest(players);
+        assertEquals(MuteDataCodec.KIND_SNAPSHOT_REQUEST, MuteDataCodec.kind(request));
+        assertEquals(players, MuteDataCodec.decodeSnapshotRequest(request));
+    }
+
+    @Test
+    public void testAck() throws IOException {
+        var mutes = List.of(
+                new MuteData(UUID.randomUUID(), "reason", null, MuteData.RECALCULATION, null).withSequence(10),
+                new MuteData(UUID.randomUUID(), null, null, MuteData.RESET, null).withSequence(11));
+        var ack = MuteDataCodec.encodeAck(mutes);
+        assertEquals(MuteDataCodec.KIND_ACK, MuteDataCodec.kind(ack));
+        var acknowledgements = MuteDataCodec.decodeAck(ack);
+        assertEquals(List.of(new MuteDataCodec.Acknowledgement(mutes.get(0).getUuid(), 10),
+                new MuteDataCodec.Acknowledgement(mutes.get(1).getUuid(), 11)), acknowledgements);
+    }
+
+    @Test
+    public void testHello() throws IOException {
+        var hello = MuteDataCodec.encodeHello(MuteData.PROTOCOL_VERSION);
+        assertTrue(MuteDataCodec.isBinary(hello));
+        assertEquals(MuteDataCodec.KIND_HELLO, MuteDataCodec.kind(hello));
+        assertEquals(MuteData.PROTOCOL_VERSION, MuteDataCodec.decodeHello(hello));
+    }
+
+    @Test
+    public void testJsonIsNotBinary() throws IOException {
+        var muteData = new MuteData(UUID.randomUUID(), "reason", LocalDateTime.now().plusDays(1), MuteData.RECALCULATION, UUID.randomUUID());
+        var json = MuteDataCodec.encodeJson(muteData);
+        assertFalse(MuteDataCodec.isBinary(json));
+        var decoded = MuteDataCodec.decodeJson(json);
+        assertMuteDataEquals(List.of(muteData), List.of(decoded));
+        assertEquals(MuteDataCodec.JSON_PROTOCOL_VERSION, decoded.getVersion());
+    }
+
+    private static void assertMuteDataEquals(List<MuteData> expected, List<MuteData> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            var expectedData = expected.get(i);
+            var actualData = actual.get(i);
+            assertEquals(expectedData.getType(), actualData.getType());
+            assertEquals(expectedData.getUuid(), actualData.getUuid());
+            assertEquals(expectedData.getReason(), actualData.getReason());
+            assertEquals(expectedData.getExpiration(), actualData.getExpiration());
+            assertEquals(expectedData.getPunishmentId(), actualData.getPunishmentId());
+            assertEquals(expectedData.getSequence(), actualData.getSequence());
+        }
+    }
+}
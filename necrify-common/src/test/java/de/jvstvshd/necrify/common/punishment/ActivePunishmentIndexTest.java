@@ -0,0 +1,154 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.punishment;
+
+import de.jvstvshd.necrify.common.punishment.ActivePunishmentIndex.Entry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ActivePunishmentIndexTest {
+
+    private static final long FUTURE = System.currentTimeMillis() + 3_600_000;
+
+    @Test
+    public void testInsertAndMerge() {
+        var index = new ActivePunishmentIndex();
+        var uuid = UUID.randomUUID();
+        index.load(() -> List.of(
+                new Entry(uuid, ActivePunishmentIndex.BAN, FUTURE),
+                new Entry(uuid, ActivePunishmentIndex.MUTE, FUTURE + 1000),
+                new Entry(UUID.randomUUID(), ActivePunishmentIndex.BAN, System.currentTimeMillis() - 1000)));
+        assertTrue(index.isLoaded());
+        assertEquals(1, index.size());
+        assertTrue(index.isBanned(uuid));
+        assertTrue(index.isMuted(uuid));
+        assertFalse(index.isPunished(UUID.randomUUID()));
+
+        index.set(new Entry(uuid, ActivePunishmentIndex.MUTE, FUTURE));
+        assertEquals(1, index.size());
+        assertFalse(index.isBanned(uuid));
+        assertTrue(index.isMuted(uuid));
+
+        index.set(new Entry(uuid, 0, 0));
+        assertEquals(0, index.size());
+        assertFalse(index.isPunished(uuid));
+    }
+
+    @Test
+    public void testExpiredEntryIsNotPunished() {
+        var index = new ActivePunishmentIndex();
+        var uuid = UUID.randomUUID();
+        index.set(new Entry(uuid, ActivePunishmentIndex.BAN, System.currentTimeMillis() - 1));
+        assertFalse(index.isPunished(uuid));
+    }
+
+    @Test
+    public void testDeleteShiftsBackAcrossWrapAround() {
+        var index = new ActivePunishmentIndex();
+        int last = index.capacity() - 1;
+        //a occupies the last slot, b wraps around to the first slot and c, whose home is the first slot, is pushed to the second one
+        var a = uuidWithHome(last, index.capacity());
+        var b = uuidWithHome(last, index.capacity());
+        var c = uuidWithHome(0, index.capacity());
+        for (UUID uuid : List.of(a, b, c)) {
+            index.set(new Entry(uuid, ActivePunishmentIndex.BAN, FUTURE));
+        }
+        assertEquals(3, index.size());
+
+        index.set(new Entry(a, 0, 0));
+        assertFalse(index.isPunished(a));
+        assertTrue(index.isPunished(b));
+        assertTrue(index.isPunished(c));
+
+        index.set(new Entry(b, 0, 0));
+        assertFalse(index.isPunished(b));
+        assertTrue(index.isPunished(c));
+        assertEquals(1, index.size());
+
+        //the slots were freed, so re-inserting must not create duplicates
+        index.set(new Entry(a, ActivePunishmentIndex.MUTE, FUTURE));
+        index.set(new Entry(c, ActivePunishmentIndex.MUTE, FUTURE));
+        assertEquals(2, index.size());
+        assertTrue(index.isMuted(c));
+        assertFalse(index.isBanned(c));
+    }
+
+    @Test
+    public void testResize() {
+        var index = new ActivePunishmentIndex();
+        List<UUID> uuids = new ArrayList<>();
+        for (int i = 0; i < ActivePunishmentIndex.MINIMUM_CAPACITY * 2; i++) {
+            var uuid = UUID.randomUUID();
+            uuids.add(uuid);
+            index.set(new Entry(uuid, ActivePunishmentIndex.BAN, FUTURE));
+        }
+        assertEquals(uuids.size(), index.size());
+        assertTrue(index.capacity() > ActivePunishmentIndex.MINIMUM_CAPACITY);
+        for (int i = 0; i < uuids.size(); i += 2) {
+            index.set(new Entry(uuids.get(i), 0, 0));
+        }
+        for (int i = 0; i < uuids.size(); i++) {
+            assertEquals(i % 2 == 1, index.isBanned(uuids.get(i)));
+        }
+    }
+
+    @Test
+    public void testUpdatesDuringLoadAreKept() {
+        var index = new ActivePunishmentIndex();
+        var loaded = UUID.randomUUID();
+        var cancelled = UUID.randomUUID();
+        var added = UUID.randomUUID();
+        index.load(() -> {
+            //these updates happen after the database snapshot was taken
+            index.set(new Entry(cancelled, 0, 0));
+            index.set(new Entry(added, ActivePunishmentIndex.MUTE, FUTURE));
+            return List.of(new Entry(loaded, ActivePunishmentIndex.BAN, FUTURE), new Entry(cancelled, ActivePunishmentIndex.BAN, FUTURE));
+        });
+        assertTrue(index.isBanned(loaded));
+        assertFalse(index.isPunished(cancelled));
+        assertTrue(index.isMuted(added));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testFailedLoadKeepsContent() {
+        var index = new ActivePunishmentIndex();
+        var uuid = UUID.randomUUID();
+        index.set(new Entry(uuid, ActivePunishmentIndex.BAN, FUTURE));
+        assertThrows(IllegalStateException.class, () -> index.load(() -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+        assertFalse(index.isLoaded());
+        assertTrue(index.isBanned(uuid));
+    }
+
+    private static UUID uuidWithHome(int home, int capacity) {
+        while (true) {
+            var uuid = UUID.randomUUID();
+            if ((ActivePunishmentIndex.hash(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) & (capacity - 1)) == home) {
+                return uuid;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.punishment;
+
+import de.jvstvshd.necrify.common.config.CachePolicyData;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReasonCacheTest {
+
+    private static final int PUNISHMENTS = 20_000;
+    private static final List<String> REASONS = List.of(
+            "<red>Hacking</red> <gray>(kill aura)</gray>",
+            "<yellow>Spamming in chat</yellow>",
+            "<gold><bold>Griefing</bold> at spawn</gold>",
+            "<red>Insulting other players</red>",
+            "<aqua>Advertising <underlined>other servers</underlined></aqua>");
+
+    private final ReasonCache cache = new ReasonCache(new CachePolicyData(1024, 0, 0));
+
+    @Test
+    public void testIdenticalReasonsAreShared() {
+        var reason = REASONS.getFirst();
+        var deserialized = cache.deserialize(copy(reason));
+        assertSame(deserialized, cache.deserialize(copy(reason)));
+        assertEquals(MiniMessage.miniMessage().deserialize(reason), deserialized);
+        assertEquals(1, cache.statistics().hitCount());
+    }
+
+    /**
+     * Compares the heap retained by punishments that share a few reasons. Before reasons were loaded lazily, every
+     * punishment held its own deserialized component tree. Now, it holds the serialized reason until it is accessed
+     * and the interned component tree afterwards.
+     */
+    @Test
+    public void testLazyInternedReasonsRetainLessHeap() {
+        long eager = retainedBytes(serialized -> new LoadedReason(null, MiniMessage.miniMessage().deserialize(serialized)));
+        long lazy = retainedBytes(serialized -> new LoadedReason(serialized, null));
+        long interned = retainedBytes(serialized -> new LoadedReason(serialized, cache.deserialize(serialized)));
+        var measured = "eager: %d bytes, lazy: %d bytes, interned: %d bytes".formatted(eager, lazy, interned);
+        assertTrue(lazy * 2 < eager, measured);
+        assertTrue(interned * 2 < eager, measured);
+    }
+
+    /**
+     * Returns the amount of bytes retained by {@value #PUNISHMENTS} reasons that are created by the given function.
+     * Every reason is copied into a new string, just like reasons read from the database.
+     */
+    private static long retainedBytes(Function<String, LoadedReason> loader) {
+        long before = usedHeap();
+        var loaded = new LoadedReason[PUNISHMENTS];
+        for (int i = 0; i < loaded.length; i++) {
+            loaded[i] = loader.apply(copy(REASONS.get(i % REASONS.size())));
+        }
+        long after = usedHeap();
+        Reference.reachabilityFence(loaded);
+        return after - before;
+    }
+
+    private static String copy(String reason) {
+        return new StringBuilder(reason).toString();
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * The fields {@link AbstractPunishment} holds its reason in.
+     */
+    private record LoadedReason(String serialized, Object reason) {
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.user;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.jvstvshd.necrify.common.config.CachePolicyData;
+import de.jvstvshd.necrify.common.config.MojangConfigData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the resolver against a stub of Mojang's API. Players whose name starts with "unknown" do not exist.
+ */
+public class MojangProfileResolverTest {
+
+    private static final UUID EXISTING = UUID.fromString("069a79f4-44e9-4726-a5be-fca90e38aaf5");
+    private static final UUID NO_CONTENT = UUID.fromString("00000000-0000-0000-0000-000000000204");
+    private static final UUID NOT_FOUND = UUID.fromString("00000000-0000-0000-0000-000000000404");
+    private static final UUID RATE_LIMITED = UUID.fromString("00000000-0000-0000-0000-000000000429");
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicInteger profileRequests = new AtomicInteger();
+    private final AtomicInteger nameRequests = new AtomicInteger();
+    private final List<Integer> bulkSizes = new CopyOnWriteArrayList<>();
+    private final List<Long> requestTimes = new CopyOnWriteArrayList<>();
+    private volatile long responseDelayMillis = 0;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/profile/", exchange -> {
+            profileRequests.incrementAndGet();
+            requestTimes.add(System.nanoTime());
+            delay();
+            var uuid = UUID.fromString(exchange.getRequestURI().getPath().substring("/profile/".length()));
+            if (uuid.equals(NO_CONTENT)) {
+                respond(exchange, 204, null);
+            } else if (uuid.equals(NOT_FOUND)) {
+                respond(exchange, 404, null);
+            } else if (uuid.equals(RATE_LIMITED)) {
+                respond(exchange, 429, null);
+            } else {
+                respond(exchange, 200, profile(uuid, "Player_" + uuid.toString().substring(0, 4)).toString());
+            }
+        });
+        server.createContext("/name/", exchange -> {
+            nameRequests.incrementAndGet();
+            var name = exchange.getRequestURI().getPath().substring("/name/".length());
+            if (name.startsWith("unknown")) {
+                respond(exchange, 404, null);
+            } else {
+                respond(exchange, 200, profile(uuidOf(name), name).toString());
+            }
+        });
+        server.createContext("/bulk", exchange -> {
+            var names = JsonParser.parseString(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8)).getAsJsonArray();
+            bulkSizes.add(names.size());
+            var profiles = new JsonArray();
+            for (var name : names) {
+                if (!name.getAsString().startsWith("unknown")) {
+                    profiles.add(profile(uuidOf(name.getAsString()), name.getAsString()));
+                }
+            }
+            respond(exchange, 200, profiles.toString());
+        });
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentLookupsAreCoalesced() throws Exception {
+        responseDelayMillis = 200;
+        var resolver = resolver(60, 10, 60);
+        var first = resolver.getName(EXISTING);
+        var second = resolver.getName(EXISTING);
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertTrue(first.get().isPresent());
+        assertEquals(1, profileRequests.get());
+        //the result is cached now
+        assertEquals(first.get(), resolver.getName(EXISTING).get(5, TimeUnit.SECONDS));
+        assertEquals(1, profileRequests.get());
+    }
+
+    @Test
+    public void testStatusCodes() throws Exception {
+        var resolver = resolver(60, 10, 60);
+        assertEquals(Optional.empty(), resolver.getName(NO_CONTENT).get(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), resolver.getName(NOT_FOUND).get(5, TimeUnit.SECONDS));
+        var exception = assertThrows(ExecutionException.class, () -> resolver.getName(RATE_LIMITED).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertEquals(Optional.empty(), resolver.getUuid("unknown_player").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLookupsAreBatched() throws Exception {
+        var resolver = resolver(600, 100, 60);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            names.add((i % 5 == 0 ? "unknown" : "player") + i);
+        }
+        var uuids = resolver.getUuids(names).get(5, TimeUnit.SECONDS);
+        assertEquals(20, uuids.size());
+        assertEquals(uuidOf("player1"), uuids.get("player1"));
+        assertFalse(uuids.containsKey("unknown0"));
+        assertEquals(List.of(10, 10, 5), bulkSizes.stream().sorted(Comparator.reverseOrder()).toList());
+        assertEquals(0, nameRequests.get());
+    }
+
+    @Test
+    public void testRequestsAreRateLimited() throws Exception {
+        //two requests at once, then one request every 100 milliseconds
+        var resolver = resolver(600, 2, 60);
+        List<CompletableFuture<Optional<String>>> lookups = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            lookups.add(resolver.getName(UUID.randomUUID()));
+        }
+        for (CompletableFuture<Optional<String>> lookup : lookups) {
+            assertTrue(lookup.get(5, TimeUnit.SECONDS).isPresent());
+        }
+        var times = requestTimes.stream().sorted().toList();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(times.getLast() - times.getFirst()) >= 150);
+    }
+
+    @Test
+    public void testQueuedRequestsAreBounded() throws Exception {
+        //one request per minute, of which one may wait
+        var resolver = resolver(1, 1, 1);
+        assertTrue(resolver.getName(UUID.randomUUID()).get(5, TimeUnit.SECONDS).isPresent());
+        var waiting = resolver.getName(UUID.randomUUID());
+        var rejected = resolver.getName(UUID.randomUUID());
+        assertFalse(waiting.isDone());
+        var exception = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, exception.getCause());
+        assertEquals(1, profileRequests.get());
+    }
+
+    private MojangProfileResolver resolver(int requestsPerMinute, int burst, int maxQueuedRequests) {
+        var base = "http://127.0.0.1:" + server.getAddress().getPort();
+        var config = new MojangConfigData(base + "/profile/", base + "/name/", base + "/bulk", requestsPerMinute, burst,
+                maxQueuedRequests, 50, 5000);
+        return new MojangProfileResolver(config, new CachePolicyData(100, 0, 0), executor);
+    }
+
+    private void delay() {
+        try {
+            Thread.sleep(responseDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static UUID uuidOf(String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static JsonObject profile(UUID uuid, String name) {
+        var profile = new JsonObject();
+        profile.addProperty("id", uuid.toString().replace("-", ""));
+        profile.addProperty("name", name);
+        return profile;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, bytes.length);
+            exchange.getResponseBody().write(bytes);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkheadExecutorTest {
+
+    @Test
+    public void testConcurrencyLimit() throws InterruptedException {
+        var delegate = Executors.newCachedThreadPool();
+        var executor = new BulkheadExecutor("test", delegate, 2, 100, BulkheadExecutor.RejectionPolicy.ABORT);
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var done = new CountDownLatch(20);
+        for (int i = 0; i < 20; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(2, maxRunning.get());
+        delegate.shutdown();
+    }
+
+    @Test
+    public void testAbortWhenQueueIsFull() throws InterruptedException {
+        var delegate = Executors.newCachedThreadPool();
+        var executor = new BulkheadExecutor("test", delegate, 1, 1, BulkheadExecutor.RejectionPolicy.ABORT);
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, executor.statistics().rejected());
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        delegate.shutdown();
+    }
+
+    @Test
+    public void testShutdownKeepsSharedDelegate() throws InterruptedException {
+        var delegate = Executors.newCachedThreadPool();
+        var first = new BulkheadExecutor("first", delegate, 1, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var second = new BulkheadExecutor("second", delegate, 1, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var release = new CountDownLatch(1);
+        var ran = new AtomicInteger();
+        first.execute(() -> awaitQuietly(release));
+        first.execute(ran::incrementAndGet);
+        first.shutdown();
+        assertTrue(first.isShutdown());
+        assertFalse(first.isTerminated());
+        assertThrows(RejectedExecutionException.class, () -> first.execute(ran::incrementAndGet));
+        assertFalse(delegate.isShutdown());
+
+        var secondRan = new CountDownLatch(1);
+        second.execute(secondRan::countDown);
+        assertTrue(secondRan.await(5, TimeUnit.SECONDS));
+
+        release.countDown();
+        assertTrue(first.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.get(), "queued tasks must still run after shutdown");
+        delegate.shutdown();
+    }
+
+    @Test
+    public void testJoinIsRefusedForTaskOfSaturatedExecutor() throws Exception {
+        var delegate = Executors.newCachedThreadPool();
+        var executor = new BulkheadExecutor("test", delegate, 1, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var failures = new ArrayList<Throwable>();
+        var current = new AtomicReference<BulkheadExecutor>();
+        var completedResult = new AtomicReference<String>();
+        var dependent = new AtomicReference<CompletableFuture<String>>();
+        executor.submit(() -> {
+            current.set(BulkheadExecutor.current());
+            completedResult.set(Util.join(CompletableFuture.completedFuture("done")));
+            //the only thread of the executor would wait for a task queued behind it
+            dependent.set(Util.executeAsync(() -> "dependent", executor));
+            for (var future : List.of(dependent.get(), dependent.get().thenApply(String::length))) {
+                try {
+                    Util.join(future);
+                } catch (IllegalStateException e) {
+                    failures.add(e);
+                }
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertSame(executor, current.get());
+        assertEquals("done", completedResult.get());
+        assertEquals(2, failures.size());
+        assertNull(BulkheadExecutor.current());
+
+        assertEquals("dependent", Util.join(dependent.get().orTimeout(5, TimeUnit.SECONDS)));
+        delegate.shutdown();
+    }
+
+    @Test
+    public void testJoinBlocksForOtherFutures() throws Exception {
+        var delegate = Executors.newCachedThreadPool();
+        var executor = new BulkheadExecutor("test", delegate, 1, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var other = new BulkheadExecutor("other", delegate, 1, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var pending = new CompletableFuture<String>();
+        var result = executor.submit(() -> {
+            pending.completeAsync(() -> "outside", CompletableFuture.delayedExecutor(50, TimeUnit.MILLISECONDS));
+            return Util.join(pending) + " " + Util.join(Util.executeAsync(() -> "other", other));
+        });
+        assertEquals("outside other", result.get(5, TimeUnit.SECONDS));
+        delegate.shutdown();
+    }
+
+    @Test
+    public void testJoinBlocksForTaskOfExecutorWithFreeThreads() throws Exception {
+        var delegate = Executors.newCachedThreadPool();
+        var executor = new BulkheadExecutor("test", delegate, 2, 10, BulkheadExecutor.RejectionPolicy.ABORT);
+        var result = executor.submit(() -> Util.join(Util.executeAsync(() -> "dependent", executor)));
+        assertEquals("dependent", result.get(5, TimeUnit.SECONDS));
+        delegate.shutdown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.common.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTest {
+
+    private ExecutorService executor;
+
+    @AfterEach
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentCallersShareOneLoad() throws Exception {
+        executor = Executors.newFixedThreadPool(2);
+        var singleFlight = new SingleFlight<String, Integer>();
+        var loads = new AtomicInteger();
+        var result = new CompletableFuture<Integer>();
+        var callers = new ArrayList<Future<CompletableFuture<Integer>>>();
+        for (int i = 0; i < 500; i++) {
+            callers.add(executor.submit(() -> singleFlight.load("key", () -> {
+                loads.incrementAndGet();
+                return result;
+            })));
+        }
+        var futures = new ArrayList<CompletableFuture<Integer>>();
+        for (var caller : callers) {
+            futures.add(caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, singleFlight.size());
+        result.complete(42);
+        for (var future : futures) {
+            assertEquals(42, future.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(0, singleFlight.size());
+    }
+
+    @Test
+    public void testFailureIsSharedAndNotRemembered() {
+        var singleFlight = new SingleFlight<String, Integer>();
+        var loads = new AtomicInteger();
+        var result = new CompletableFuture<Integer>();
+        var first = singleFlight.load("key", () -> {
+            loads.incrementAndGet();
+            return result;
+        });
+        var second = singleFlight.load("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(0);
+        });
+        result.completeExceptionally(new IllegalStateException("failed"));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+        assertEquals(1, loads.get());
+
+        var thrown = singleFlight.load("key", () -> {
+            throw new IllegalStateException("failed");
+        });
+        assertTrue(thrown.isCompletedExceptionally());
+        assertEquals(0, singleFlight.size());
+        assertEquals(1, singleFlight.load("key", () -> CompletableFuture.completedFuture(1)).join());
+    }
+
+    @Test
+    public void testCallbacksStartNewLoad() {
+        var singleFlight = new SingleFlight<String, Integer>();
+        var loads = new AtomicInteger();
+        var result = new CompletableFuture<Integer>();
+        var reloaded = singleFlight.load("key", () -> {
+            loads.incrementAndGet();
+            return result;
+        }).thenCompose(_ -> singleFlight.load("key", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(2);
+        }));
+        result.complete(1);
+        assertEquals(2, reloaded.join());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testCopiesAreIndependent() {
+        var singleFlight = new SingleFlight<String, Integer>();
+        var result = new CompletableFuture<Integer>();
+        var first = singleFlight.load("key", () -> result);
+        var second = singleFlight.load("key", () -> result);
+        first.cancel(false);
+        result.complete(3);
+        assertEquals(3, second.join());
+    }
+
+    /**
+     * Loads a ring of punishments referring to their predecessor and successor on a single thread, the way punishment
+     * logs are loaded. Every load resolves its neighbours through the same single flight, so this only completes if no
+     * load ever waits for a load it is part of.
+     */
+    @Test
+    public void testRingOfLoadsOnSingleThreadCompletes() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        int size = 200;
+        for (int round = 0; round < 20; round++) {
+            var graph = new PunishmentGraph(size, new SingleFlight<>(), executor);
+            var lookups = new ArrayList<CompletableFuture<Optional<Integer>>>();
+            for (int i = 0; i < size; i++) {
+                lookups.add(graph.lookup(i));
+            }
+            CompletableFuture.allOf(lookups.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+            for (int i = 0; i < size; i++) {
+                assertEquals(Optional.of(i), lookups.get(i).get());
+            }
+            assertEquals(size, graph.loads.get(), "every punishment must be loaded exactly once");
+        }
+    }
+
+    @Test
+    public void testRingOfLoadsOnTwoThreadsCompletes() throws Exception {
+        executor = Executors.newFixedThreadPool(2);
+        int size = 200;
+        for (int round = 0; round < 20; round++) {
+            var graph = new PunishmentGraph(size, new SingleFlight<>(), executor);
+            var callers = new ArrayList<Future<CompletableFuture<Optional<Integer>>>>();
+            for (int i = 0; i < size; i++) {
+                int id = (i * 7) % size;
+                callers.add(executor.submit(() -> graph.lookup(id)));
+            }
+            for (var caller : callers) {
+                assertTrue(caller.get(5, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS).isPresent());
+            }
+            assertEquals(size, graph.loads.get(), "every punishment must be loaded exactly once");
+        }
+    }
+
+    /**
+     * Stub of the historical punishment lookup: the cache is checked first and filled as soon as a load starts, then the
+     * "rows" are read asynchronously and the predecessor and successor are resolved without blocking.
+     */
+    private static final class PunishmentGraph {
+
+        private final int size;
+        private final SingleFlight<Integer, Optional<Integer>> singleFlight;
+        private final Executor executor;
+        private final Map<Integer, Integer> cache = new ConcurrentHashMap<>();
+        private final AtomicInteger loads = new AtomicInteger();
+
+        private PunishmentGraph(int size, SingleFlight<Integer, Optional<Integer>> singleFlight, Executor executor) {
+            this.size = size;
+            this.singleFlight = singleFlight;
+            this.executor = executor;
+        }
+
+        private CompletableFuture<Optional<Integer>> lookup(int id) {
+            var cached = cache.get(id);
+            if (cached != null) {
+                return CompletableFuture.completedFuture(Optional.of(cached));
+            }
+            return singleFlight.load(id, () -> {
+                loads.incrementAndGet();
+                cache.put(id, id);
+                return CompletableFuture.supplyAsync(() -> List.of((id + size - 1) % size, (id + 1) % size), executor)
+                        .thenCompose(related -> CompletableFuture.allOf(related.stream()
+                                .map(this::lookup)
+                                .toArray(CompletableFuture[]::new)))
+                        .thenApply(_ -> Optional.of(id));
+            });
+        }
+    }
+}
@@ -14,6 +14,10 @@ dependencies {
     api(projects.necrifyCommon)
     api(libs.bundles.jackson)
     api(libs.cloud.translation.bukkit)
+    testImplementation(libs.junit.jupiter.api)
+    testImplementation(libs.bundles.adventure)
+    testRuntimeOnly(libs.junit.jupiter.engine)
+    testRuntimeOnly(libs.junit.platform.launcher)
 
     //workaround, so that only the real dependencies are downloaded by paper and not the common module, which already
     //is included in the JAR
@@ -22,24 +22,30 @@ import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.plugin.MuteData;
 import de.jvstvshd.necrify.paper.listeners.ChatListener;
 import de.jvstvshd.necrify.paper.listeners.MessagingChannelListener;
-import de.jvstvshd.necrify.paper.listeners.MuteInformation;
+import de.jvstvshd.necrify.paper.listeners.MuteIndex;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.slf4j.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class NecrifyPaperJavaPlugin extends JavaPlugin {
 
-    private final List<MuteInformation> cachedMutes = new ArrayList<>();
+    /**
+     * The interval in ticks in which expired mutes are removed from the {@link MuteIndex}.
+     */
+    private static final long MUTE_PRUNE_INTERVAL_TICKS = 20 * 60;
+
+    private final MuteIndex muteIndex = new MuteIndex();
     private Logger logger;
 
     @Override
     public void onEnable() {
         logger = getSLF4JLogger();
         logger.info("NecrifyPaperPlugin {} has been enabled!", AbstractNecrifyPlugin.buildInfo());
-        getServer().getMessenger().registerIncomingPluginChannel(this, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER, new MessagingChannelListener(this));
+        var messagingChannelListener = new MessagingChannelListener(this);
+        getServer().getMessenger().registerIncomingPluginChannel(this, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER, messagingChannelListener);
+        getServer().getMessenger().registerOutgoingPluginChannel(this, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER);
+        getServer().getPluginManager().registerEvents(messagingChannelListener, this);
         getServer().getPluginManager().registerEvents(new ChatListener(this), this);
+        getServer().getScheduler().runTaskTimerAsynchronously(this, muteIndex::pruneExpired, MUTE_PRUNE_INTERVAL_TICKS, MUTE_PRUNE_INTERVAL_TICKS);
     }
 
     @Override
@@ -47,7 +53,7 @@ public class NecrifyPaperJavaPlugin extends JavaPlugin {
         logger.info("NecrifyPaperPlugin has been disabled!");
     }
 
-    public List<MuteInformation> cachedMutes() {
-        return cachedMutes;
+    public MuteIndex muteIndex() {
+        return muteIndex;
     }
 }
@@ -23,11 +23,6 @@ import io.papermc.paper.event.player.AsyncChatEvent;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 
-import java.time.LocalDateTime;
-import java.util.ArrayDeque;
-import java.util.Comparator;
-import java.util.stream.Collectors;
-
 public class ChatListener implements Listener {
 
     private final NecrifyPaperJavaPlugin plugin;
@@ -38,19 +33,9 @@ public class ChatListener implements Listener {
 
     @EventHandler
     public void onChat(AsyncChatEvent event) {
-        var mutes = plugin.cachedMutes().stream().filter(muteData -> event.getPlayer().getUniqueId().equals(muteData.getPlayer().getUniqueId())).collect(Collectors.toList());
-        if (mutes.isEmpty()) return;
-        mutes.sort(Comparator.comparing(MuteInformation::getDuration));
-        var queue = new ArrayDeque<>(mutes);
-        while (!queue.isEmpty()) {
-            var mute = queue.poll();
-            if (!mute.getDuration().isPermanent() && mute.getDuration().expiration().isBefore(LocalDateTime.now())) {
-                plugin.cachedMutes().remove(mute);
-                continue;
-            }
-            event.setCancelled(true);
-            event.getPlayer().sendMessage(mute.getReason());
-            break;
-        }
+        var mute = plugin.muteIndex().getEffectiveMute(event.getPlayer().getUniqueId());
+        if (mute == null) return;
+        event.setCancelled(true);
+        event.getPlayer().sendMessage(mute.getReason());
     }
 }
\ No newline at end of file
@@ -18,60 +18,125 @@
 
 package de.jvstvshd.necrify.paper.listeners;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.google.common.io.ByteStreams;
 import de.jvstvshd.necrify.common.plugin.MuteData;
+import de.jvstvshd.necrify.common.plugin.MuteDataCodec;
 import de.jvstvshd.necrify.common.util.Updater;
 import de.jvstvshd.necrify.paper.NecrifyPaperJavaPlugin;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.messaging.PluginMessageListener;
 import org.jetbrains.annotations.NotNull;
 
-public class MessagingChannelListener implements PluginMessageListener {
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class MessagingChannelListener implements PluginMessageListener, Listener {
+
+    /**
+     * The delay in ticks after a player joined before the hello frame is sent through their connection, so that the
+     * proxy has registered the mute data channel for it.
+     */
+    private static final long HELLO_DELAY_TICKS = 20;
 
     private final NecrifyPaperJavaPlugin plugin;
+    private final AtomicBoolean snapshotRequested = new AtomicBoolean();
 
     public MessagingChannelListener(NecrifyPaperJavaPlugin plugin) {
         this.plugin = plugin;
     }
 
-    @SuppressWarnings("UnstableApiUsage")
+    /**
+     * Announces the supported protocol version to the proxy. Plugin messages can only be sent through a player's
+     * connection, so this is done whenever a player joins. When the first player joins after this plugin was enabled,
+     * the mute data of all online players is requested as well, since the proxy only sends changes.
+     *
+     * @param event the join event
+     */
+    @EventHandler
+    public void onJoin(PlayerJoinEvent event) {
+        var player = event.getPlayer();
+        plugin.getServer().getScheduler().runTaskLater(plugin, () -> {
+            if (!player.isOnline()) {
+                return;
+            }
+            player.sendPluginMessage(plugin, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER, MuteDataCodec.encodeHello(MuteData.PROTOCOL_VERSION));
+            if (snapshotRequested.compareAndSet(false, true)) {
+                var players = plugin.getServer().getOnlinePlayers().stream().map(Player::getUniqueId).toList();
+                player.sendPluginMessage(plugin, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER, MuteDataCodec.encodeSnapshotRequest(players));
+            }
+        }, HELLO_DELAY_TICKS);
+    }
+
+    /**
+     * Drops the mute information of players leaving this server. The proxy sends it again when they come back.
+     *
+     * @param event the quit event
+     */
+    @EventHandler
+    public void onQuit(PlayerQuitEvent event) {
+        plugin.muteIndex().reset(event.getPlayer().getUniqueId(), 0);
+    }
+
     @Override
     public void onPluginMessageReceived(@NotNull String channel, @NotNull Player player, byte @NotNull [] message) {
         if (message.length == 0) return;
-        var input = ByteStreams.newDataInput(message);
-        var content = input.readUTF();
-        MuteData data;
+        List<MuteData> received;
+        boolean binary = MuteDataCodec.isBinary(message);
         try {
-            data = MuteData.OBJECT_MAPPER.readValue(content, MuteData.class);
-        } catch (JsonProcessingException e) {
+            if (binary) {
+                received = switch (MuteDataCodec.kind(message)) {
+                    case MuteDataCodec.KIND_MUTES -> MuteDataCodec.decode(message);
+                    case MuteDataCodec.KIND_SNAPSHOT -> readSnapshot(message);
+                    default -> List.of();
+                };
+            } else {
+                received = List.of(MuteDataCodec.decodeJson(message));
+            }
+        } catch (IOException e) {
             plugin.getSLF4JLogger().error("Could not parse MuteData", e);
             return;
         }
-        if (data.getVersion() > MuteData.PROTOCOL_VERSION) {
+        if (received.isEmpty()) return;
+        var version = received.getFirst().getVersion();
+        if (version > MuteData.PROTOCOL_VERSION) {
             plugin.getSLF4JLogger().warn("Received MuteData ({}) with higher version than supported ({}). This may lead to unexpected " +
-                    "results as newer features might be expected by the incoming data.", data.getVersion(), MuteData.PROTOCOL_VERSION);
+                    "results as newer features might be expected by the incoming data.", version, MuteData.PROTOCOL_VERSION);
             Updater.updateInformation(plugin.getSLF4JLogger());
-        } else if (data.getVersion() < MuteData.PROTOCOL_VERSION) {
+        } else if (version < MuteData.PROTOCOL_VERSION && !binary) {
+            //the proxy sends JSON messages until it received this server's hello, so they are expected after joins
+            plugin.getSLF4JLogger().debug("Received MuteData ({}) as JSON message before the proxy knew the supported version ({}).",
+                    version, MuteData.PROTOCOL_VERSION);
+        } else if (version < MuteData.PROTOCOL_VERSION) {
             plugin.getSLF4JLogger().warn("Received MuteData ({}) with lower version than supported ({}). Backwards compatibility " +
-                    "should be ensured unless this version is really outdated.", data.getVersion(), MuteData.PROTOCOL_VERSION);
+                    "should be ensured unless this version is really outdated.", version, MuteData.PROTOCOL_VERSION);
             Updater.updateInformation(plugin.getSLF4JLogger());
         }
-        if (data.getType() == MuteData.RESET) {
-            plugin.cachedMutes().removeIf(muteInformation -> muteInformation.getPlayer().getUniqueId().equals(data.getUuid()));
-            return;
-        }
-        var mute = MuteInformation.from(data);
-        switch (data.getType()) {
-            case MuteData.RECALCULATION -> {
-                plugin.cachedMutes().removeIf(muteInformation -> muteInformation.getPlayer().getUniqueId().equals(data.getUuid()));
-                plugin.cachedMutes().add(mute);
+        var index = plugin.muteIndex();
+        for (MuteData data : received) {
+            switch (data.getType()) {
+                case MuteData.RESET -> index.reset(data.getUuid(), data.getSequence());
+                case MuteData.RECALCULATION -> index.set(MuteInformation.from(data));
+                case MuteData.ADD -> index.add(MuteInformation.from(data));
+                case MuteData.REMOVE -> index.remove(data.getPunishmentId());
+                case MuteData.UPDATE -> index.update(MuteInformation.from(data));
             }
-            case MuteData.ADD -> plugin.cachedMutes().add(mute);
-            case MuteData.REMOVE ->
-                    plugin.cachedMutes().removeIf(muteInformation -> muteInformation.getPunishmentUUID().equals(mute.getPunishmentUUID()));
-            case MuteData.UPDATE ->
-                    plugin.cachedMutes().stream().filter(muteInformation -> muteInformation.getPunishmentUUID().equals(mute.getPunishmentUUID())).findFirst().ifPresent(muteInformation -> muteInformation.updateTo(mute));
         }
+        // Applying mute data is idempotent due to the sequence numbers, so the proxy may safely retry anything that
+        // was not acknowledged. Legacy JSON messages carry no sequence number and are not retried.
+        if (binary) {
+            player.sendPluginMessage(plugin, MuteData.MUTE_DATA_CHANNEL_IDENTIFIER, MuteDataCodec.encodeAck(received));
+        }
+    }
+
+    private List<MuteData> readSnapshot(byte[] message) throws IOException {
+        var chunk = MuteDataCodec.decodeSnapshot(message);
+        if (chunk.isLast()) {
+            plugin.getSLF4JLogger().info("Received mute snapshot {} from proxy", chunk.sequence());
+        }
+        return chunk.muteData();
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2024 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.paper.listeners;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Holds the mutes of all players on this server, keyed by the players' UUIDs. Each player's mutes are stored as an
+ * immutable snapshot together with their effective mute, which is the one that expires last. Looking up whether a
+ * player is muted is thus a single map access. Expired mutes are removed through {@link #pruneExpired()}.
+ * <p>Each snapshot also stores the sequence number of the mute data it was last updated with. Mute data with a lower
+ * sequence number is outdated and ignored, e.g. if it was sent before a snapshot of all mutes but arrives after it. After
+ * a player's mutes are reset, the sequence number is kept for {@link #RESET_GRACE_PERIOD}, since the proxy may still
+ * retry older mute data during this time, or until the player leaves the server.</p>
+ */
+public class MuteIndex {
+
+    /**
+     * The time an entry without mutes is kept to remember the sequence number of the reset that emptied it.
+     */
+    public static final Duration RESET_GRACE_PERIOD = Duration.ofMinutes(5);
+
+    private final Map<UUID, PlayerMutes> mutes = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public MuteIndex() {
+        this(System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a new index using the given clock for expirations and the grace period of resets.
+     *
+     * @param clock the clock returning the current time in epoch milliseconds
+     */
+    MuteIndex(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the mute that currently applies to the given player.
+     *
+     * @param playerUuid the UUID of the player
+     * @return the mute that expires last, or null if the player is not muted or all of their mutes have expired
+     */
+    @Nullable
+    public MuteInformation getEffectiveMute(UUID playerUuid) {
+        var playerMutes = mutes.get(playerUuid);
+        if (playerMutes == null || playerMutes.effective == null || playerMutes.effective.isExpired(clock.getAsLong())) {
+            return null;
+        }
+        return playerMutes.effective;
+    }
+
+    /**
+     * Replaces all mutes of the player of the given mute with this mute, unless the player's mutes were updated with
+     * newer mute data already.
+     *
+     * @param mute the mute that now applies to its player
+     */
+    public void set(MuteInformation mute) {
+        mutes.compute(mute.getPlayerUuid(), (_, playerMutes) -> isOutdated(playerMutes, mute.getSequence())
+                ? playerMutes : PlayerMutes.of(List.of(mute), mute.getSequence(), clock.getAsLong()));
+    }
+
+    /**
+     * Adds the given mute to the mutes of its player.
+     *
+     * @param mute the mute to add
+     */
+    public void add(MuteInformation mute) {
+        mutes.compute(mute.getPlayerUuid(), (_, playerMutes) -> {
+            var all = playerMutes == null ? new ArrayList<MuteInformation>() : new ArrayList<>(playerMutes.all);
+            all.add(mute);
+            return PlayerMutes.of(all, playerMutes == null ? 0 : playerMutes.sequence, clock.getAsLong());
+        });
+    }
+
+    /**
+     * Replaces the mute with the same punishment UUID as the given one with it, if there is one.
+     *
+     * @param mute the updated mute
+     */
+    public void update(MuteInformation mute) {
+        long now = clock.getAsLong();
+        for (UUID playerUuid : mutes.keySet()) {
+            mutes.computeIfPresent(playerUuid, (_, playerMutes) -> playerMutes.replace(mute, now));
+        }
+    }
+
+    /**
+     * Removes the mute with the given punishment UUID.
+     *
+     * @param punishmentUuid the UUID of the punishment to remove
+     */
+    public void remove(UUID punishmentUuid) {
+        removeIf(mute -> punishmentUuid.equals(mute.getPunishmentUUID()), clock.getAsLong());
+    }
+
+    /**
+     * Removes all mutes of the given player, unless the player's mutes were updated with newer mute data already.
+     *
+     * @param playerUuid the UUID of the player
+     * @param sequence   the sequence number of the mute data that reset the mutes, or 0 if it has none
+     */
+    public void reset(UUID playerUuid, long sequence) {
+        //an entry without mutes is kept to remember the sequence number, so older mute data is ignored
+        mutes.compute(playerUuid, (_, playerMutes) -> isOutdated(playerMutes, sequence)
+                ? playerMutes : PlayerMutes.of(List.of(), sequence, clock.getAsLong()));
+    }
+
+    /**
+     * Removes all mutes that have expired by now and forgets the sequence numbers of players without any mutes, unless
+     * their mutes were reset within the {@link #RESET_GRACE_PERIOD}.
+     */
+    public void pruneExpired() {
+        long now = clock.getAsLong();
+        removeIf(mute -> mute.isExpired(now), now);
+        //only removes entries that were not replaced in the meantime, so a concurrent reset is never lost
+        mutes.values().removeIf(playerMutes -> playerMutes.all.isEmpty() && now - playerMutes.updatedAt >= RESET_GRACE_PERIOD.toMillis());
+    }
+
+    /**
+     * Returns the amount of players this index holds an entry for, including entries without mutes.
+     *
+     * @return the amount of entries
+     */
+    int size() {
+        return mutes.size();
+    }
+
+    private static boolean isOutdated(PlayerMutes playerMutes, long sequence) {
+        return playerMutes != null && sequence != 0 && sequence < playerMutes.sequence;
+    }
+
+    private void removeIf(Predicate<MuteInformation> filter, long now) {
+        for (UUID playerUuid : mutes.keySet()) {
+            mutes.computeIfPresent(playerUuid, (_, playerMutes) -> playerMutes.without(filter, now));
+        }
+    }
+
+    private record PlayerMutes(List<MuteInformation> all, MuteInformation effective, long sequence, long updatedAt) {
+
+        private static PlayerMutes of(List<MuteInformation> all, long sequence, long now) {
+            if (all.isEmpty()) {
+                return sequence == 0 ? null : new PlayerMutes(List.of(), null, sequence, now);
+            }
+            MuteInformation effective = all.getFirst();
+            for (MuteInformation mute : all) {
+                if (mute.getExpiration() > effective.getExpiration()) {
+                    effective = mute;
+                }
+            }
+            return new PlayerMutes(List.copyOf(all), effective, sequence, now);
+        }
+
+        private PlayerMutes without(Predicate<MuteInformation> filter, long now) {
+            if (all.stream().noneMatch(filter)) {
+                return this;
+            }
+            return of(all.stream().filter(filter.negate()).toList(), sequence, now);
+        }
+
+        private PlayerMutes replace(MuteInformation updated, long now) {
+            if (updated.getPunishmentUUID() == null || all.stream().noneMatch(mute -> updated.getPunishmentUUID().equals(mute.getPunishmentUUID()))) {
+                return this;
+            }
+            return of(all.stream().map(mute -> updated.getPunishmentUUID().equals(mute.getPunishmentUUID()) ? updated : mute).toList(), sequence, now);
+        }
+    }
+}
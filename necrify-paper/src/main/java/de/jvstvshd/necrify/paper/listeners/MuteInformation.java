@@ -18,64 +18,90 @@
 
 package de.jvstvshd.necrify.paper.listeners;
 
-import de.jvstvshd.necrify.api.duration.PunishmentDuration;
 import de.jvstvshd.necrify.common.plugin.MuteData;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import org.bukkit.Bukkit;
-import org.bukkit.entity.Player;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
+/**
+ * Immutable information about a single mute of a player as received from the proxy. The reason is deserialized and the
+ * expiration is converted to epoch milliseconds once, so checking a mute while chatting requires no further work.
+ */
 public class MuteInformation {
 
-    private final Player player;
+    /**
+     * The expiration of mutes that do not expire.
+     */
+    public static final long PERMANENT = Long.MAX_VALUE;
+
+    private final UUID playerUuid;
     private final UUID punishmentUUID;
-    private Component reason;
-    private PunishmentDuration duration;
+    private final Component reason;
+    private final long expiration;
+    private final long sequence;
 
-    public MuteInformation(Component reason, PunishmentDuration duration, Player player, UUID punishmentUUID) {
-        this.reason = reason;
-        this.duration = duration;
-        this.player = player;
+    public MuteInformation(UUID playerUuid, UUID punishmentUUID, Component reason, long expiration, long sequence) {
+        this.playerUuid = playerUuid;
         this.punishmentUUID = punishmentUUID;
+        this.reason = reason;
+        this.expiration = expiration;
+        this.sequence = sequence;
     }
 
     public static MuteInformation from(MuteData muteData) {
-        return new MuteInformation(MiniMessage.miniMessage().deserialize(muteData.getReason()),
-                PunishmentDuration.from(muteData.getExpiration()), Bukkit.getPlayer(muteData.getUuid()), muteData.getPunishmentId());
+        return new MuteInformation(muteData.getUuid(), muteData.getPunishmentId(),
+                MiniMessage.miniMessage().deserialize(muteData.getReason()), toMillis(muteData.getExpiration()), muteData.getSequence());
     }
 
-    public void updateTo(MuteInformation other) {
-        synchronized (this) {
-            this.reason = other.reason;
-            this.duration = other.duration;
+    private static long toMillis(LocalDateTime expiration) {
+        if (expiration == null) {
+            return PERMANENT;
         }
+        //same conversion as for punishment durations, i.e. in the system's default time zone
+        return Timestamp.valueOf(expiration).getTime();
     }
 
-    public Component getReason() {
-        return reason;
+    /**
+     * Returns whether this mute has expired at the given point in time.
+     *
+     * @param now the current time in epoch milliseconds
+     * @return true if this mute has expired
+     */
+    public boolean isExpired(long now) {
+        return expiration <= now;
     }
 
-    public MuteInformation setReason(Component reason) {
-        this.reason = reason;
-        return this;
+    public UUID getPlayerUuid() {
+        return playerUuid;
     }
 
-    public PunishmentDuration getDuration() {
-        return duration;
+    public UUID getPunishmentUUID() {
+        return punishmentUUID;
     }
 
-    public MuteInformation setDuration(PunishmentDuration duration) {
-        this.duration = duration;
-        return this;
+    public Component getReason() {
+        return reason;
     }
 
-    public Player getPlayer() {
-        return player;
+    /**
+     * Returns the point in time this mute expires at in epoch milliseconds or {@link #PERMANENT}.
+     *
+     * @return the expiration of this mute
+     */
+    public long getExpiration() {
+        return expiration;
     }
 
-    public UUID getPunishmentUUID() {
-        return punishmentUUID;
+    /**
+     * Returns the sequence number the proxy assigned to this mute, or 0 if it has none.
+     *
+     * @return the sequence number of this mute
+     * @see MuteData#getSequence()
+     */
+    public long getSequence() {
+        return sequence;
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.paper.listeners;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MuteIndexTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final MuteIndex index = new MuteIndex(now::get);
+    private final UUID player = UUID.randomUUID();
+
+    private MuteInformation mute(long expiresIn, long sequence) {
+        return new MuteInformation(player, UUID.randomUUID(), null, now.get() + expiresIn, sequence);
+    }
+
+    @Test
+    public void testEffectiveMuteExpiresLast() {
+        var shorter = mute(1000, 0);
+        var longer = mute(5000, 0);
+        var permanent = new MuteInformation(player, UUID.randomUUID(), null, MuteInformation.PERMANENT, 0);
+        index.add(shorter);
+        index.add(longer);
+        assertSame(longer, index.getEffectiveMute(player));
+
+        index.add(permanent);
+        assertSame(permanent, index.getEffectiveMute(player));
+        index.remove(permanent.getPunishmentUUID());
+        assertSame(longer, index.getEffectiveMute(player));
+
+        var updated = new MuteInformation(player, shorter.getPunishmentUUID(), null, now.get() + 10_000, 0);
+        index.update(updated);
+        assertSame(updated, index.getEffectiveMute(player));
+        assertNull(index.getEffectiveMute(UUID.randomUUID()));
+    }
+
+    @Test
+    public void testExpiredMuteIsNotEffective() {
+        index.add(mute(1000, 0));
+        now.addAndGet(1000);
+        assertNull(index.getEffectiveMute(player));
+    }
+
+    @Test
+    public void testOutdatedDataIsIgnored() {
+        var current = mute(5000, 10);
+        index.set(current);
+        index.set(mute(1000, 9));
+        assertSame(current, index.getEffectiveMute(player));
+
+        index.reset(player, 9);
+        assertSame(current, index.getEffectiveMute(player));
+
+        var newer = mute(2000, 11);
+        index.set(newer);
+        assertSame(newer, index.getEffectiveMute(player));
+
+        //data without sequence number, e.g. from legacy JSON messages, is always applied
+        var legacy = mute(3000, 0);
+        index.set(legacy);
+        assertSame(legacy, index.getEffectiveMute(player));
+    }
+
+    @Test
+    public void testResetKeepsSequence() {
+        index.set(mute(5000, 5));
+        index.reset(player, 7);
+        assertNull(index.getEffectiveMute(player));
+        assertEquals(1, index.size());
+
+        //sent before the reset, but arrived after it
+        index.set(mute(5000, 6));
+        assertNull(index.getEffectiveMute(player));
+
+        var newer = mute(5000, 8);
+        index.set(newer);
+        assertSame(newer, index.getEffectiveMute(player));
+    }
+
+    @Test
+    public void testPruneExpired() {
+        var expiring = mute(1000, 3);
+        var remaining = mute(60_000, 3);
+        index.add(expiring);
+        index.add(remaining);
+        var other = UUID.randomUUID();
+        index.add(new MuteInformation(other, UUID.randomUUID(), null, now.get() + 1000, 0));
+        now.addAndGet(2000);
+        index.pruneExpired();
+        assertSame(remaining, index.getEffectiveMute(player));
+        assertNull(index.getEffectiveMute(other));
+        assertEquals(1, index.size(), "players without mutes and sequence must be removed");
+    }
+
+    @Test
+    public void testPruneKeepsFreshResetPlaceholder() {
+        index.set(mute(5000, 5));
+        index.reset(player, 6);
+        index.pruneExpired();
+        assertEquals(1, index.size(), "placeholder of a recent reset must be kept");
+        index.set(mute(5000, 5));
+        assertNull(index.getEffectiveMute(player), "outdated data was applied after pruning");
+
+        now.addAndGet(MuteIndex.RESET_GRACE_PERIOD.toMillis());
+        index.pruneExpired();
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testQuitRemovesPlaceholder() {
+        index.reset(player, 6);
+        assertEquals(1, index.size());
+        index.reset(player, 0);
+        assertEquals(0, index.size());
+    }
+}
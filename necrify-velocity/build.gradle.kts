@@ -29,6 +29,7 @@ dependencies {
     compileOnly(libs.luckperms.api)
     testImplementation(libs.junit.jupiter.api)
     testRuntimeOnly(libs.junit.jupiter.engine)
+    testRuntimeOnly(libs.junit.platform.launcher)
 }
 
 tasks.getByName<Test>("test") {
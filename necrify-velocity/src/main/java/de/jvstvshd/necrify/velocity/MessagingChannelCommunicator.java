@@ -19,20 +19,25 @@
 package de.jvstvshd.necrify.velocity;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.google.common.io.ByteStreams;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PluginMessageEvent;
+import com.velocitypowered.api.event.player.ServerConnectedEvent;
 import com.velocitypowered.api.event.player.ServerPostConnectEvent;
+import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.ServerConnection;
 import com.velocitypowered.api.proxy.server.RegisteredServer;
-import de.jvstvshd.necrify.api.event.punishment.PunishmentCancelledEvent;
-import de.jvstvshd.necrify.api.event.punishment.PunishmentChangedEvent;
-import de.jvstvshd.necrify.api.event.punishment.PunishmentPersecutedEvent;
+import de.jvstvshd.necrify.api.event.CoalescedEvent;
+import de.jvstvshd.necrify.api.event.EventDispatcher;
+import de.jvstvshd.necrify.api.event.punishment.PunishmentEvent;
+import de.jvstvshd.necrify.api.metrics.MuteDeliveryStatistics;
 import de.jvstvshd.necrify.api.punishment.Mute;
 import de.jvstvshd.necrify.api.punishment.StandardPunishmentType;
 import de.jvstvshd.necrify.api.user.NecrifyUser;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.plugin.MuteData;
+import de.jvstvshd.necrify.common.plugin.MuteDataCodec;
 import de.jvstvshd.necrify.common.punishment.ChainedPunishment;
 import de.jvstvshd.necrify.common.util.Util;
 import net.kyori.adventure.text.Component;
@@ -40,14 +45,60 @@ import net.kyori.adventure.text.minimessage.MiniMessage;
 import net.kyori.adventure.translation.GlobalTranslator;
 import org.slf4j.Logger;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class MessagingChannelCommunicator {
 
-    private final Map<RegisteredServer, List<MuteData>> messageQueue = new ConcurrentHashMap<>();
+    /**
+     * The time punishment events of a user are collected for before their mute information is recalculated once.
+     */
+    private static final Duration MUTE_RECALCULATION_WINDOW = Duration.ofMillis(50);
+
+    /**
+     * The maximum amount of players whose mute data is kept for a server that cannot be reached at the moment.
+     */
+    private static final int MAX_QUEUED_PLAYERS_PER_SERVER = 10000;
+
+    /**
+     * The interval in which mute data whose acknowledgement timed out is sent again.
+     */
+    private static final Duration RETRY_INTERVAL = Duration.ofMillis(250);
+
+    private final Map<RegisteredServer, PendingMuteQueue> messageQueue = new ConcurrentHashMap<>();
+    /**
+     * The highest protocol version each sub-server announced. Sub-servers that did not announce any version only
+     * understand JSON messages. The version is forgotten once the last player left a server, since the server may be
+     * restarted with another version of the Paper plugin afterwards; it announces its version again when the next
+     * player joins it.
+     */
+    private final Map<RegisteredServer, Integer> protocolVersions = new ConcurrentHashMap<>();
+    /**
+     * The source of the sequence numbers of sent mute data. It starts at the current time (with room for 1000 updates
+     * per millisecond), so that mute data sent after a restart of the proxy is never considered older than mute data
+     * sent before.
+     */
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    /**
+     * The server each player's mute data was last sent to, for all players that are muted on a server at the moment.
+     * Mute data is only sent to the server a player is on, so there is at most one such server per player.
+     */
+    private final Map<UUID, RegisteredServer> muteStates = new ConcurrentHashMap<>();
+    /**
+     * The mute data each sub-server has not acknowledged yet. Sub-servers that only understand JSON messages do not
+     * acknowledge anything and are therefore not tracked; mute data is delivered to them on a best-effort basis like
+     * before acknowledgements existed, i.e. it is only queued again if it could not be sent at all.
+     */
+    private final MuteDeliveryTracker<RegisteredServer> deliveries = new MuteDeliveryTracker<>();
 
     private final ProxyServer server;
     private final Logger logger;
@@ -60,99 +111,436 @@ public class MessagingChannelCommunicator {
     }
 
     /**
-     * Recalculates the mute information for the specified user and sends the updated mute information to all registered servers.
-     * This will inform those servers only about expiration and reason. The reason is a translated complete reason.
+     * Registers this communicator to the given event dispatcher. Events regarding mutes of the same user are coalesced,
+     * so that the mute information is only recalculated and sent once if several of them are dispatched at once, e.g. when
+     * a punishment chain is changed.
+     *
+     * @param dispatcher the event dispatcher to register to
+     */
+    public void register(EventDispatcher dispatcher) {
+        dispatcher.coalesce(PunishmentEvent.class,
+                event -> event.getPunishment() instanceof Mute ? event.getUser().getUuid() : null, MUTE_RECALCULATION_WINDOW);
+        dispatcher.register(this);
+    }
+
+    /**
+     * Schedules the task that sends mute data again that was not acknowledged in time.
+     */
+    public void scheduleRetries() {
+        server.getScheduler().buildTask(plugin, this::retryUnacknowledged)
+                .repeat(RETRY_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)
+                .schedule();
+    }
+
+    /**
+     * Recalculates the mute information for the specified user and sends the updated mute information to the server
+     * the user is on. This will inform this server only about expiration and reason. The reason is a translated complete reason.
+     * If the user is not on any server and no server holds mute information of them, nothing is sent; the mute
+     * information is sent as soon as the user connects to a server.
      *
      * @param user the user to recalculate the mute information for
      */
     public void recalculateMuteInformation(NecrifyUser user) {
+        if (currentServer(user.getUuid()) == null && !muteStates.containsKey(user.getUuid())) {
+            return;
+        }
         try {
-            List<Mute> mutes = user.getPunishments(StandardPunishmentType.PERMANENT_MUTE, StandardPunishmentType.TEMPORARY_MUTE);
-            final Mute mute = Util.getLongestPunishment(mutes);
-            if (mute == null) {
-                queueMute(new MuteData(user.getUuid(), null, null, MuteData.RESET, null));
-                return;
-            }
-            Component deny = ChainedPunishment.of(mute, plugin).createFullReason(user.getLocale());
-            var serialized = MiniMessage.miniMessage().serialize(GlobalTranslator.render(deny, user.getLocale()));
-            queueMute(new MuteData(user.getUuid(), serialized, mute.getDuration().expiration(), MuteData.RECALCULATION, mute.getPunishmentUuid()));
+            sendMuteData(createMuteData(user));
         } catch (Exception e) {
             logger.error("Could not queue mute for player {}", user.getUuid(), e);
         }
     }
 
-    private void queueMute(MuteData muteData) throws JsonProcessingException {
-        for (RegisteredServer allServer : server.getAllServers()) {
-            var result = sendMessage(allServer, muteData);
-            if (!result) {
-                messageQueue.computeIfAbsent(allServer, server -> new ArrayList<>()).add(muteData);
+    private MuteData createMuteData(NecrifyUser user) {
+        List<Mute> mutes = user.getPunishments(StandardPunishmentType.PERMANENT_MUTE, StandardPunishmentType.TEMPORARY_MUTE);
+        final Mute mute = Util.getLongestPunishment(mutes);
+        if (mute == null) {
+            return new MuteData(user.getUuid(), null, null, MuteData.RESET, null);
+        }
+        Component deny = ChainedPunishment.of(mute, plugin).createFullReason(user.getLocale());
+        var serialized = MiniMessage.miniMessage().serialize(GlobalTranslator.render(deny, user.getLocale()));
+        return new MuteData(user.getUuid(), serialized, mute.getDuration().expiration(), MuteData.RECALCULATION, mute.getPunishmentUuid());
+    }
+
+    /**
+     * Sends the given mute data to the server its player is on. A reset is only sent to the server that holds mute
+     * information of the player, if there is one.
+     */
+    private void sendMuteData(MuteData muteData) throws JsonProcessingException {
+        var uuid = muteData.getUuid();
+        var holder = muteStates.get(uuid);
+        if (muteData.getType() == MuteData.RESET) {
+            if (holder != null && muteStates.remove(uuid, holder)) {
+                queueMute(holder, muteData);
             }
+            return;
         }
+        var target = currentServer(uuid);
+        if (holder != null && !holder.equals(target)) {
+            leave(uuid, holder);
+        }
+        if (target == null) {
+            return;
+        }
+        muteStates.put(uuid, target);
+        queueMute(target, muteData);
     }
 
+    private void queueMute(RegisteredServer target, MuteData unsequencedMuteData) throws JsonProcessingException {
+        var muteData = unsequencedMuteData.withSequence(sequence.incrementAndGet());
+        var queue = messageQueue.computeIfAbsent(target, _ -> new PendingMuteQueue());
+        //sending and queueing happen under the queue's lock, so a flush cannot overwrite newer data with older one
+        synchronized (queue) {
+            if (sendMessages(target, new EncodedMuteData(List.of(muteData)))) {
+                queue.remove(muteData.getUuid());
+                track(target, List.of(muteData));
+            } else if (queue.put(muteData)) {
+                logger.warn("Too many players with pending mute data for server {}, dropping the oldest entry",
+                        target.getServerInfo().getName());
+            }
+        }
+    }
+
+    /**
+     * Forgets that the given server holds mute information of the given player after the player left it. Servers
+     * running a version of the Paper plugin that supports binary frames drop the mute information of players leaving
+     * them by themselves; older ones are sent a reset.
+     */
+    private void leave(UUID uuid, RegisteredServer left) {
+        deliveries.forget(left, uuid);
+        if (!muteStates.remove(uuid, left) || supportsBinaryFrames(left)) {
+            return;
+        }
+        try {
+            queueMute(left, new MuteData(uuid, null, null, MuteData.RESET, null));
+        } catch (Exception e) {
+            logger.error("Could not queue mute for player {}", uuid, e);
+        }
+    }
+
+    private RegisteredServer currentServer(UUID uuid) {
+        return server.getPlayer(uuid).flatMap(Player::getCurrentServer).map(ServerConnection::getServer).orElse(null);
+    }
+
+    /**
+     * Forgets the protocol version of the given server if no other player than the given one is connected to it.
+     */
+    private void forgetProtocolVersionIfEmpty(RegisteredServer left, UUID uuid) {
+        if (left.getPlayersConnected().stream().allMatch(player -> player.getUniqueId().equals(uuid))) {
+            protocolVersions.remove(left);
+        }
+    }
+
+    @Subscribe
+    public void onServerConnected(ServerConnectedEvent event) {
+        var uuid = event.getPlayer().getUniqueId();
+        event.getPreviousServer().ifPresent(previous -> {
+            leave(uuid, previous);
+            forgetProtocolVersionIfEmpty(previous, uuid);
+        });
+    }
+
+    /**
+     * Sends pending mute data to the server the player connected to and re-syncs the player's mute information with it.
+     *
+     * @param event the post connect event
+     */
     @SuppressWarnings("UnstableApiUsage")
     @Subscribe
     public void onChooseInitialServer(ServerPostConnectEvent event) {
-        var queue = messageQueue;
-        server.getAllServers().stream().filter(queue::containsKey).toList().forEach(registeredServer -> registeredServer.ping().whenComplete((serverPing, throwable) -> {
-                    if (throwable != null) return;
-                    var messagesTemp = queue.get(registeredServer);
-                    if (messagesTemp == null || messagesTemp.isEmpty()) return;
-                    var messages = new ArrayList<>(messagesTemp);
-
-                    for (MuteData message : messages) {
-                        try {
-                            boolean sent = sendMessage(registeredServer, message);
-                            if (sent) {
-                                messageQueue.get(registeredServer).remove(message);
-                            }
-                        } catch (JsonProcessingException e) {
-                            logger.error("Could not send message to server {}", registeredServer.getServerInfo().getName(), e);
-                        }
-                    }
-                })
-        );
-    }
-
-    private boolean sendMessage(RegisteredServer server, MuteData muteData) throws JsonProcessingException {
-        return server.sendPluginMessage(NecrifyVelocityPlugin.MUTE_DATA_CHANNEL_IDENTIFIER, serializeMuteData(muteData));
+        var player = event.getPlayer();
+        var target = currentServer(player.getUniqueId());
+        if (target == null) {
+            return;
+        }
+        var queue = messageQueue.get(target);
+        if (queue != null) {
+            flush(target, queue);
+        }
+        plugin.getUserManager().getUser(player.getUniqueId()).ifPresent(this::recalculateMuteInformation);
     }
 
-    @SuppressWarnings("UnstableApiUsage")
-    public byte[] serializeMuteData(MuteData muteData) throws JsonProcessingException {
-        var dataOutput = ByteStreams.newDataOutput();
-        var serialized = MuteData.OBJECT_MAPPER.writeValueAsString(muteData);
-        dataOutput.writeUTF(serialized);
-        return dataOutput.toByteArray();
+    private void flush(RegisteredServer registeredServer, PendingMuteQueue queue) {
+        synchronized (queue) {
+            if (queue.isEmpty()) return;
+            var messages = queue.snapshot();
+            try {
+                if (sendMessages(registeredServer, new EncodedMuteData(messages))) {
+                    queue.clear();
+                    track(registeredServer, messages);
+                }
+            } catch (JsonProcessingException e) {
+                logger.error("Could not send message to server {}", registeredServer.getServerInfo().getName(), e);
+            }
+        }
     }
 
+    /**
+     * Receives the hello frames sub-servers send to announce the protocol version they support, their requests for
+     * snapshots and their acknowledgements of mute data. Messages on the mute
+     * data channel are never forwarded, so players cannot send mute data to sub-servers.
+     *
+     * @param event the plugin message event
+     */
     @Subscribe
-    public void onPlayerDisconnect(DisconnectEvent event) {
+    public void onPluginMessage(PluginMessageEvent event) {
+        if (!event.getIdentifier().equals(NecrifyVelocityPlugin.MUTE_DATA_CHANNEL_IDENTIFIER)) {
+            return;
+        }
+        event.setResult(PluginMessageEvent.ForwardResult.handled());
+        if (!(event.getSource() instanceof ServerConnection connection)) {
+            return;
+        }
+        var data = event.getData();
+        if (!MuteDataCodec.isBinary(data)) {
+            return;
+        }
         try {
-            queueMute(new MuteData(event.getPlayer().getUniqueId(), null, null, MuteData.RESET, null));
-        } catch (Exception e) {
-            logger.error("Could not queue mute for player {}", event.getPlayer().getUniqueId(), e);
+            switch (MuteDataCodec.kind(data)) {
+                case MuteDataCodec.KIND_HELLO -> protocolVersions.put(connection.getServer(), MuteDataCodec.decodeHello(data));
+                case MuteDataCodec.KIND_SNAPSHOT_REQUEST -> {
+                    var players = MuteDataCodec.decodeSnapshotRequest(data);
+                    plugin.getBackgroundExecutor().execute(() -> sendSnapshot(connection.getServer(), players));
+                }
+                case MuteDataCodec.KIND_ACK -> deliveries.acknowledge(connection.getServer(), MuteDataCodec.decodeAck(data));
+                default -> {
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Received malformed message from server {}", connection.getServerInfo().getName(), e);
         }
     }
 
-    @org.greenrobot.eventbus.Subscribe
-    public void onPunishmentPersecution(PunishmentPersecutedEvent event) {
-        if (event.getPunishment() instanceof Mute mute) {
-            recalculateMuteInformation(mute.getUser());
+    /**
+     * Sends the current mute data of the given players to the given server in one snapshot. The mute data is built from
+     * the users that are loaded at the moment; players whose user is not loaded yet receive their mute data as soon as
+     * it is loaded. Only players that are muted are included. All mute data of the snapshot carries the same sequence number, so that the server can apply later
+     * updates on top of it and ignore earlier ones.
+     *
+     * @param target  the server that requested the snapshot
+     * @param players the players whose mute data was requested
+     */
+    private void sendSnapshot(RegisteredServer target, List<UUID> players) {
+        long snapshotSequence = sequence.incrementAndGet();
+        List<MuteData> snapshot = new ArrayList<>(players.size());
+        for (UUID player : players) {
+            var user = plugin.getUserManager().getUser(player);
+            if (user.isEmpty()) {
+                continue;
+            }
+            try {
+                var muteData = createMuteData(user.get());
+                //the server requests a snapshot when it has no mute information, so there is nothing to reset
+                if (muteData.getType() != MuteData.RESET) {
+                    snapshot.add(muteData.withSequence(snapshotSequence));
+                }
+            } catch (Exception e) {
+                logger.error("Could not create mute data for player {}", player, e);
+            }
+        }
+        var queue = messageQueue.computeIfAbsent(target, _ -> new PendingMuteQueue());
+        synchronized (queue) {
+            for (byte[] frame : MuteDataCodec.encodeSnapshot(snapshot, snapshotSequence)) {
+                if (!target.sendPluginMessage(NecrifyVelocityPlugin.MUTE_DATA_CHANNEL_IDENTIFIER, frame)) {
+                    logger.warn("Could not send mute snapshot to server {}", target.getServerInfo().getName());
+                    return;
+                }
+            }
+            //pending mute data of these players is older than the snapshot
+            for (MuteData muteData : snapshot) {
+                queue.removeIfOlder(muteData.getUuid(), snapshotSequence);
+                muteStates.put(muteData.getUuid(), target);
+            }
+            track(target, snapshot);
         }
     }
 
-    @org.greenrobot.eventbus.Subscribe
-    public void onPunishmentChange(PunishmentChangedEvent event) {
-        if (event.getPunishment() instanceof Mute mute) {
-            recalculateMuteInformation(mute.getUser());
+    /**
+     * Starts waiting for the given server to acknowledge the given mute data, which was just sent to it, if the server
+     * acknowledges mute data at all.
+     */
+    private void track(RegisteredServer target, List<MuteData> muteData) {
+        if (supportsBinaryFrames(target)) {
+            deliveries.track(target, muteData);
+        }
+    }
+
+    /**
+     * Sends all mute data again whose acknowledgement timed out, in one batch per server. Since sub-servers ignore mute
+     * data that is older than what they already applied, sending mute data more than once or out of order is harmless.
+     * Mute data that is given up on is queued again if its player is still on the server, so that it is sent with the
+     * other pending mute data as soon as the next player connects to the server.
+     */
+    private void retryUnacknowledged() {
+        deliveries.pollRetries().forEach((target, retries) -> {
+            for (MuteData muteData : retries.givenUp()) {
+                logger.warn("Server {} did not acknowledge mute data of player {} after {} attempts",
+                        target.getServerInfo().getName(), muteData.getUuid(), MuteDeliveryTracker.MAX_DELIVERY_ATTEMPTS);
+                if (target.equals(currentServer(muteData.getUuid()))) {
+                    requeue(target, muteData);
+                }
+            }
+            if (retries.due().isEmpty()) {
+                return;
+            }
+            try {
+                if (!sendMessages(target, new EncodedMuteData(retries.due()))) {
+                    logger.debug("Could not resend mute data to server {}", target.getServerInfo().getName());
+                }
+            } catch (JsonProcessingException e) {
+                logger.error("Could not send message to server {}", target.getServerInfo().getName(), e);
+            }
+        });
+    }
+
+    private void requeue(RegisteredServer target, MuteData muteData) {
+        var queue = messageQueue.computeIfAbsent(target, _ -> new PendingMuteQueue());
+        synchronized (queue) {
+            if (queue.putIfNewer(muteData)) {
+                logger.warn("Too many players with pending mute data for server {}, dropping the oldest entry",
+                        target.getServerInfo().getName());
+            }
         }
     }
 
+    /**
+     * Returns the statistics of the delivery of mute data to each sub-server that acknowledges mute data, keyed by the
+     * name of the server.
+     *
+     * @return the delivery statistics of all sub-servers
+     */
+    public Map<String, MuteDeliveryStatistics> deliveryStatistics() {
+        Map<String, MuteDeliveryStatistics> statistics = new TreeMap<>();
+        deliveries.statistics().forEach((target, targetStatistics) ->
+                statistics.put(target.getServerInfo().getName(), targetStatistics));
+        return statistics;
+    }
+
+    private boolean supportsBinaryFrames(RegisteredServer server) {
+        return protocolVersions.getOrDefault(server, 1) >= MuteDataCodec.BINARY_PROTOCOL_VERSION;
+    }
+
+    private boolean sendMessages(RegisteredServer server, EncodedMuteData muteData) throws JsonProcessingException {
+        var messages = supportsBinaryFrames(server) ? muteData.binary() : muteData.json();
+        for (byte[] message : messages) {
+            if (!server.sendPluginMessage(NecrifyVelocityPlugin.MUTE_DATA_CHANNEL_IDENTIFIER, message)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Subscribe
+    public void onPlayerDisconnect(DisconnectEvent event) {
+        var uuid = event.getPlayer().getUniqueId();
+        var holder = muteStates.get(uuid);
+        if (holder != null) {
+            leave(uuid, holder);
+        }
+        event.getPlayer().getCurrentServer().ifPresent(connection -> forgetProtocolVersionIfEmpty(connection.getServer(), uuid));
+        //the server may also wait for a reset that was sent after the player's mute information was removed
+        deliveries.forget(uuid);
+    }
+
     @org.greenrobot.eventbus.Subscribe
-    public void onPunishmentRemoved(PunishmentCancelledEvent event) {
-        if (event.getPunishment() instanceof Mute mute) {
-            recalculateMuteInformation(mute.getUser());
+    public void onMuteEvents(CoalescedEvent<?> event) {
+        if (event.getEventType() == PunishmentEvent.class && event.getLatest() instanceof PunishmentEvent punishmentEvent) {
+            recalculateMuteInformation(punishmentEvent.getUser());
+        }
+    }
+
+    /**
+     * Mute data that is encoded at most once per format, regardless of how many servers it is sent to.
+     */
+    private static final class EncodedMuteData {
+
+        private final List<MuteData> muteData;
+        private List<byte[]> binary;
+        private List<byte[]> json;
+
+        private EncodedMuteData(List<MuteData> muteData) {
+            this.muteData = muteData;
+        }
+
+        private List<byte[]> binary() {
+            if (binary == null) {
+                binary = MuteDataCodec.encode(muteData);
+            }
+            return binary;
+        }
+
+        private List<byte[]> json() throws JsonProcessingException {
+            if (json == null) {
+                List<byte[]> encoded = new ArrayList<>(muteData.size());
+                for (MuteData data : muteData) {
+                    encoded.add(MuteDataCodec.encodeJson(data));
+                }
+                json = encoded;
+            }
+            return json;
+        }
+    }
+
+    /**
+     * The mute data that could not be sent to a server yet. Only the latest mute data per player is kept, since it
+     * replaces all earlier states of this player's mutes. If more than {@link #MAX_QUEUED_PLAYERS_PER_SERVER} players
+     * have pending mute data, the entry that was updated least recently is dropped. All methods must be called while
+     * holding this object's lock.
+     */
+    private static final class PendingMuteQueue {
+
+        private final LinkedHashMap<UUID, MuteData> pending = new LinkedHashMap<>();
+
+        /**
+         * Queues the given mute data, replacing any pending mute data of the same player.
+         *
+         * @return true if the oldest entry had to be dropped
+         */
+        private boolean put(MuteData muteData) {
+            //re-insert to move the player to the end of the iteration order
+            pending.remove(muteData.getUuid());
+            pending.put(muteData.getUuid(), muteData);
+            if (pending.size() > MAX_QUEUED_PLAYERS_PER_SERVER) {
+                pending.pollFirstEntry();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Queues the given mute data unless newer mute data of the same player is pending already.
+         *
+         * @return true if the oldest entry had to be dropped
+         */
+        private boolean putIfNewer(MuteData muteData) {
+            var pendingData = pending.get(muteData.getUuid());
+            if (pendingData != null && pendingData.getSequence() > muteData.getSequence()) {
+                return false;
+            }
+            return put(muteData);
+        }
+
+        private void remove(UUID uuid) {
+            pending.remove(uuid);
+        }
+
+        private void removeIfOlder(UUID uuid, long sequence) {
+            var muteData = pending.get(uuid);
+            if (muteData != null && muteData.getSequence() < sequence) {
+                pending.remove(uuid);
+            }
+        }
+
+        private boolean isEmpty() {
+            return pending.isEmpty();
+        }
+
+        private List<MuteData> snapshot() {
+            return List.copyOf(pending.values());
+        }
+
+        private void clear() {
+            pending.clear();
         }
     }
-}
\ No newline at end of file
+}
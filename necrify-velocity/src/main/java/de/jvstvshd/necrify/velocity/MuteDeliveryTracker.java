@@ -0,0 +1,256 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.velocity;
+
+import de.jvstvshd.necrify.api.metrics.MuteDeliveryStatistics;
+import de.jvstvshd.necrify.common.plugin.MuteData;
+import de.jvstvshd.necrify.common.plugin.MuteDataCodec;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps track of the mute data each sub-server has not acknowledged yet and decides when it is sent again or given up
+ * on. Only the latest mute data of each player is kept per server, since applying it makes earlier mute data obsolete.
+ * This class does not send anything itself; {@link MessagingChannelCommunicator} sends the mute data returned by
+ * {@link #pollRetries()}.
+ *
+ * @param <S> the type of the sub-servers
+ */
+final class MuteDeliveryTracker<S> {
+
+    /**
+     * The time a sub-server has to acknowledge mute data before it is sent again. The timeout is doubled after every
+     * attempt up to {@link #MAX_ACK_TIMEOUT}.
+     */
+    static final Duration INITIAL_ACK_TIMEOUT = Duration.ofSeconds(1);
+    static final Duration MAX_ACK_TIMEOUT = Duration.ofSeconds(16);
+    /**
+     * The amount of attempts after which the delivery of mute data is given up on. Together with the timeouts, this
+     * bounds the time mute data may stay unacknowledged to less than a minute.
+     */
+    static final int MAX_DELIVERY_ATTEMPTS = 6;
+
+    private final Map<S, Map<UUID, PendingDelivery>> unacknowledged = new ConcurrentHashMap<>();
+    private final Map<S, DeliveryCounters> deliveryCounters = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    MuteDeliveryTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    MuteDeliveryTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Starts waiting for the given server to acknowledge the given mute data, which was just sent to it. Pending mute
+     * data of the same players is replaced unless it is newer than the given one.
+     *
+     * @param target   the server the mute data was sent to
+     * @param muteData the mute data that was sent
+     */
+    void track(S target, List<MuteData> muteData) {
+        if (muteData.isEmpty()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        var deliveries = unacknowledged.computeIfAbsent(target, _ -> new ConcurrentHashMap<>());
+        for (MuteData data : muteData) {
+            deliveries.merge(data.getUuid(), PendingDelivery.sent(data, now),
+                    (previous, sent) -> previous.muteData().getSequence() > data.getSequence() ? previous : sent);
+        }
+        counters(target).sent.add(muteData.size());
+    }
+
+    /**
+     * Stops waiting for the acknowledged mute data. An acknowledgement only covers mute data with the same or a lower
+     * sequence number, since mute data that was sent afterwards may not have arrived yet.
+     *
+     * @param target           the server that acknowledged the mute data
+     * @param acknowledgements the acknowledgements sent by the server
+     */
+    void acknowledge(S target, List<MuteDataCodec.Acknowledgement> acknowledgements) {
+        var deliveries = unacknowledged.get(target);
+        if (deliveries == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        var counters = counters(target);
+        for (MuteDataCodec.Acknowledgement acknowledgement : acknowledgements) {
+            var delivery = deliveries.get(acknowledgement.player());
+            if (delivery != null && delivery.muteData().getSequence() <= acknowledgement.sequence()
+                    && deliveries.remove(acknowledgement.player(), delivery)) {
+                counters.acknowledged(now - delivery.firstSentAt());
+            }
+        }
+    }
+
+    /**
+     * Stops waiting for the given server to acknowledge mute data of the given player.
+     *
+     * @param target the server
+     * @param uuid   the player
+     */
+    void forget(S target, UUID uuid) {
+        var deliveries = unacknowledged.get(target);
+        if (deliveries != null) {
+            deliveries.remove(uuid);
+        }
+    }
+
+    /**
+     * Stops waiting for any server to acknowledge mute data of the given player.
+     *
+     * @param uuid the player
+     */
+    void forget(UUID uuid) {
+        unacknowledged.values().forEach(deliveries -> deliveries.remove(uuid));
+    }
+
+    /**
+     * Returns the mute data of the given player the given server has not acknowledged yet.
+     *
+     * @param target the server
+     * @param uuid   the player
+     * @return the pending mute data or null if there is none
+     */
+    MuteData pending(S target, UUID uuid) {
+        var deliveries = unacknowledged.get(target);
+        var delivery = deliveries == null ? null : deliveries.get(uuid);
+        return delivery == null ? null : delivery.muteData();
+    }
+
+    /**
+     * Collects all mute data whose acknowledgement timed out. Mute data that was already sent
+     * {@link #MAX_DELIVERY_ATTEMPTS} times is given up on and no longer tracked; all other mute data is counted as sent
+     * once more and has to be sent again by the caller. Mute data that is replaced by newer mute data while this method
+     * runs is neither retried nor given up on.
+     *
+     * @return the mute data to send again and the mute data that was given up on, keyed by server
+     */
+    Map<S, Retries> pollRetries() {
+        long now = clock.getAsLong();
+        Map<S, Retries> retries = new HashMap<>();
+        unacknowledged.forEach((target, deliveries) -> {
+            List<MuteData> due = new ArrayList<>();
+            List<MuteData> givenUp = new ArrayList<>();
+            for (Map.Entry<UUID, PendingDelivery> entry : deliveries.entrySet()) {
+                var delivery = entry.getValue();
+                if (delivery.nextAttemptAt() > now) {
+                    continue;
+                }
+                //only replace or remove the delivery that was checked, so a newer send is never overwritten
+                if (delivery.attempts() >= MAX_DELIVERY_ATTEMPTS) {
+                    if (deliveries.remove(entry.getKey(), delivery)) {
+                        givenUp.add(delivery.muteData());
+                    }
+                } else if (deliveries.replace(entry.getKey(), delivery, delivery.retried(now))) {
+                    due.add(delivery.muteData());
+                }
+            }
+            if (due.isEmpty() && givenUp.isEmpty()) {
+                return;
+            }
+            var counters = counters(target);
+            counters.retried.add(due.size());
+            counters.failed.add(givenUp.size());
+            retries.put(target, new Retries(due, givenUp));
+        });
+        return retries;
+    }
+
+    /**
+     * Returns the statistics of the delivery of mute data to each server that mute data was tracked for.
+     *
+     * @return the delivery statistics keyed by server
+     */
+    Map<S, MuteDeliveryStatistics> statistics() {
+        Map<S, MuteDeliveryStatistics> statistics = new HashMap<>();
+        deliveryCounters.forEach((target, counters) -> {
+            var deliveries = unacknowledged.get(target);
+            statistics.put(target, counters.statistics(deliveries == null ? 0 : deliveries.size()));
+        });
+        return statistics;
+    }
+
+    private DeliveryCounters counters(S target) {
+        return deliveryCounters.computeIfAbsent(target, _ -> new DeliveryCounters());
+    }
+
+    /**
+     * The result of {@link #pollRetries()} for one server.
+     *
+     * @param due     the mute data that has to be sent again
+     * @param givenUp the mute data that was given up on
+     */
+    record Retries(List<MuteData> due, List<MuteData> givenUp) {
+    }
+
+    /**
+     * Mute data that was sent to a server, but not acknowledged yet.
+     *
+     * @param muteData      the mute data
+     * @param firstSentAt   the time the mute data was sent for the first time, in epoch millis
+     * @param attempts      the amount of times the mute data was sent
+     * @param nextAttemptAt the time the mute data is sent again if it was not acknowledged until then, in epoch millis
+     */
+    private record PendingDelivery(MuteData muteData, long firstSentAt, int attempts, long nextAttemptAt) {
+
+        private static PendingDelivery sent(MuteData muteData, long now) {
+            return new PendingDelivery(muteData, now, 1, now + INITIAL_ACK_TIMEOUT.toMillis());
+        }
+
+        private PendingDelivery retried(long now) {
+            long timeout = Math.min(INITIAL_ACK_TIMEOUT.toMillis() << attempts, MAX_ACK_TIMEOUT.toMillis());
+            return new PendingDelivery(muteData, firstSentAt, attempts + 1, now + timeout);
+        }
+    }
+
+    private static final class DeliveryCounters {
+
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder acknowledged = new LongAdder();
+        private final LongAdder retried = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder totalLatency = new LongAdder();
+        private final AtomicLong maxLatency = new AtomicLong();
+
+        private void acknowledged(long latency) {
+            acknowledged.increment();
+            totalLatency.add(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+
+        private MuteDeliveryStatistics statistics(int pending) {
+            long acknowledgedCount = acknowledged.sum();
+            long averageLatency = acknowledgedCount == 0 ? 0 : totalLatency.sum() / acknowledgedCount;
+            return new MuteDeliveryStatistics(sent.sum(), acknowledgedCount, retried.sum(), failed.sum(), pending,
+                    averageLatency, maxLatency.get());
+        }
+    }
+}
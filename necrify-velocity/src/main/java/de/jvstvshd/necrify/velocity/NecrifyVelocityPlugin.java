@@ -18,8 +18,6 @@
 
 package de.jvstvshd.necrify.velocity;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import com.google.inject.Key;
@@ -57,6 +55,7 @@ import de.jvstvshd.necrify.api.event.Slf4jLogger;
 import de.jvstvshd.necrify.api.event.origin.EventOrigin;
 import de.jvstvshd.necrify.api.event.user.UserLoadedEvent;
 import de.jvstvshd.necrify.api.message.MessageProvider;
+import de.jvstvshd.necrify.api.metrics.MuteDeliveryStatistics;
 import de.jvstvshd.necrify.api.punishment.Punishment;
 import de.jvstvshd.necrify.api.punishment.PunishmentManager;
 import de.jvstvshd.necrify.api.punishment.util.PlayerResolver;
@@ -66,13 +65,12 @@ import de.jvstvshd.necrify.api.user.UserManager;
 import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import de.jvstvshd.necrify.common.BuildParameters;
 import de.jvstvshd.necrify.common.config.ConfigurationManager;
-import de.jvstvshd.necrify.common.io.Adapters;
 import de.jvstvshd.necrify.common.io.NecrifyDatabase;
 import de.jvstvshd.necrify.common.message.ResourceBundleMessageProvider;
 import de.jvstvshd.necrify.common.plugin.MuteData;
 import de.jvstvshd.necrify.common.punishment.NecrifyKick;
 import de.jvstvshd.necrify.common.user.PostgresPunishmentLogUpdater;
-import de.jvstvshd.necrify.common.user.UserLoader;
+import de.jvstvshd.necrify.common.util.NecrifyExecutors;
 import de.jvstvshd.necrify.common.util.Updater;
 import de.jvstvshd.necrify.common.util.Util;
 import de.jvstvshd.necrify.velocity.impl.DefaultPlayerResolver;
@@ -106,12 +104,10 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
@@ -147,29 +143,24 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
 
     @Inject
     public NecrifyVelocityPlugin(ProxyServer server, Logger logger, @DataDirectory Path dataDirectory) {
-        super(Executors.newCachedThreadPool(new ThreadFactoryBuilder()
-                .setNameFormat("necrify-async-%d")
-                .setUncaughtExceptionHandler((t, e) -> logger.error("An error occurred in thread {}", t.getName(), e))
-                .build()), new ConfigurationManager(dataDirectory.resolve("config.yml")), logger);
+        super(new ConfigurationManager(dataDirectory.resolve("config.yml")), logger);
         this.server = server;
         this.dataDirectory = dataDirectory;
         this.communicator = new MessagingChannelCommunicator(server, this);
-        this.playerResolver = new DefaultPlayerResolver(server);
-        this.eventDispatcher = new EventDispatcher(getExecutor(), new Slf4jLogger(logger));
+        this.playerResolver = new DefaultPlayerResolver(server, this);
     }
 
     //TODO keep changed implementations and do not override them.
     @Subscribe
     public void onProxyInitialization(ProxyInitializeEvent event) {
-        Thread.setDefaultUncaughtExceptionHandler((t, e) -> getLogger().error("An error occurred in thread {}", t.getName(), e));
+        Thread.setDefaultUncaughtExceptionHandler(uncaughtExceptionHandler());
         long start = System.currentTimeMillis();
-        try {
+        try (var executor = NecrifyExecutors.newVirtualExecutor("necrify-dependencies", uncaughtExceptionHandler())) {
             DependencyManager manager = new DependencyManager(dataDirectory.resolve("cache"));
             manager.loadFromResource(Objects.requireNonNull(getClass().getClassLoader().getResource("runtimeDownload.txt"), () -> {
                 Updater.updateInformation(getLogger());
                 return "Could not find file containing runtime downloads, aborting... Please re-download plugin JAR via above links.";
             }));
-            Executor executor = Executors.newCachedThreadPool();
             if (!manager.getAllPaths(true).stream().allMatch(Files::exists)) {
                 getLogger().info("Downloading all dependencies...");
                 manager.downloadAll(executor, Collections.singletonList(new StandardRepository("https://repo1.maven.org/maven2"))).join();
@@ -192,16 +183,36 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
         if (!loadConfig()) {
             return;
         }
+        this.eventDispatcher = configurationManager.getConfiguration().getEventDispatcherType()
+                .newDispatcher(getEventExecutor(), new Slf4jLogger(getLogger()));
         this.messageProvider = new ResourceBundleMessageProvider(configurationManager.getConfiguration().getDefaultLanguage());
         this.systemUser = new VelocitySystemUser(this, server.getConsoleCommandSource());
         dataSource = createDataSource();
         QueryConfiguration.setDefault(QueryConfiguration.builder(dataSource).setThrowExceptions(true).build());
         punishmentManager = new DefaultPunishmentManager(server, dataSource, this);
         registerFactories();
-        this.userManager = new VelocityUserManager(getExecutor(), server, Caffeine.newBuilder().maximumSize(100).expireAfterWrite(Duration.ofMinutes(10)).build(),
-                Caffeine.newBuilder().maximumSize(100).expireAfterWrite(Duration.ofMinutes(10)).build(), this);
+        var cacheConfig = configurationManager.getConfiguration().getCacheConfigData();
+        this.userManager = new VelocityUserManager(getExecutor(), server, cacheConfig.getUsers().newBuilder()
+                .<UUID, VelocityUser>evictionListener((uuid, user, cause) -> {
+                    if (user != null) {
+                        getLoadedPunishmentIndex().removeAll(user);
+                    }
+                }).build(),
+                cacheConfig.getNames().newBuilder().build(), this);
         if (configurationManager.getConfiguration().getDataBaseData().getSqlType().startsWith("postgres")) {
-            getExecutor().submit(new PostgresPunishmentLogUpdater(userManager, dataSource, this));
+            var updater = new PostgresPunishmentLogUpdater(userManager, dataSource, this);
+            //listens for the whole runtime and must therefore not occupy a thread of the database executor
+            Thread.ofPlatform()
+                    .name("necrify-punishment-log-listener")
+                    .daemon()
+                    .uncaughtExceptionHandler(uncaughtExceptionHandler())
+                    .start(() -> {
+                        try {
+                            updater.call();
+                        } catch (Exception e) {
+                            getLogger().error("Listening for punishment log updates failed", e);
+                        }
+                    });
         }
         try {
             updateDatabase();
@@ -209,16 +220,20 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
             getLogger().error("Could not create table necrify_punishment in database {}", dataSource.getDataSourceProperties().get("dataSource.databaseName"), e);
         }
         getTemplateManager().loadTemplates();
+        eventDispatcher.register(getActivePunishmentIndex());
+        scheduleActivePunishmentIndexLoading();
         setup(server.getEventManager());
         getLogger().warn("Persecution of mutes cannot be granted on all servers unless the required paper plugin is installed.");
-        eventDispatcher.register(communicator);
+        communicator.register(eventDispatcher);
+        communicator.scheduleRetries();
         eventDispatcher.register(userManager);
         getLogger().info("Velocity Punishment Plugin {} has been loaded. This is only a dev build and thus may be unstable.", buildInfo());
     }
 
     private void setup(EventManager eventManager) {
+        server.getChannelRegistrar().register(MUTE_DATA_CHANNEL_IDENTIFIER);
         eventManager.register(this, communicator);
-        eventManager.register(this, new ConnectListener(this, Executors.newCachedThreadPool(), server));
+        eventManager.register(this, new ConnectListener(this, server));
         eventManager.register(this, userManager);
         getLogger().info(MUTES_DISABLED_STRING);
 
@@ -243,6 +258,23 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
         }, builder -> builder.to(_ -> StringArgumentType.greedyString()).nativeSuggestions());
     }
 
+    private void scheduleActivePunishmentIndexLoading() {
+        var refreshInterval = configurationManager.getConfiguration().getLoginConfigData().getPunishmentIndexRefreshSeconds();
+        var task = server.getScheduler().buildTask(this, () -> {
+            try {
+                long start = System.currentTimeMillis();
+                getActivePunishmentIndex().load();
+                getLogger().debug("Loaded {} punished users into the active punishment index in {}ms", getActivePunishmentIndex().size(), System.currentTimeMillis() - start);
+            } catch (Exception e) {
+                getLogger().error("Could not load the active punishment index", e);
+            }
+        });
+        if (refreshInterval > 0) {
+            task.repeat(refreshInterval, TimeUnit.SECONDS);
+        }
+        task.schedule();
+    }
+
     @SuppressWarnings({"unchecked", "UnstableApiUsage", "SwitchStatementWithTooFewBranches"})
     private HikariDataSource createDataSource() {
         var dbData = configurationManager.getConfiguration().getDataBaseData();
@@ -373,6 +405,11 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
         return communicator;
     }
 
+    @Override
+    public @NotNull Map<String, MuteDeliveryStatistics> getMuteDeliveryStatistics() {
+        return communicator.deliveryStatistics();
+    }
+
     @Override
     public void setMessageProvider(@NotNull MessageProvider messageProvider) {
         this.messageProvider = messageProvider;
@@ -401,14 +438,10 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
         if (cachedPunishment.isPresent()) {
             return CompletableFuture.completedFuture((Optional<T>) cachedPunishment);
         }
-        return Util.executeAsync(() -> (Optional<T>) Query
-                .query("SELECT u.* FROM necrify_user u INNER JOIN necrify_punishment p ON u.uuid = p.uuid WHERE p.punishment_id = ?;")
-                .single(Call.of().bind(punishmentId, Adapters.UUID_ADAPTER))
-                .map(row -> {
-                    var userId = Util.getUuid(row, 1);
-                    var user = createUser(userId, true);
-                    return user.getPunishment(punishmentId).orElse(null);
-                }).first().or(() -> Optional.ofNullable(getHistoricalPunishment(punishmentId))), getExecutor());
+        return userManager.loadUserByPunishmentId(punishmentId).thenCompose(user -> user
+                .flatMap(necrifyUser -> necrifyUser.getPunishment(punishmentId))
+                .map(punishment -> CompletableFuture.completedFuture(Optional.of((T) punishment)))
+                .orElseGet(() -> loadHistoricalPunishment(punishmentId)));
     }
 
     public NecrifyUser createUser(CommandSource source) {
@@ -423,13 +456,16 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
 
     /**
      * Creates a user with the given UUID. If the user is already cached, the cached user is returned.
-     * <p>Note: this user does not hold any valid data besides his uuid and maybe player instance (if online). After returning
-     * the value, the missing user data will be loaded, whereafter the {@link UserLoadedEvent} will be fired.</p>
+     * <p>Note: if the user is not cached and {@code loadPunishmentsDirectly} is false, the returned user does not hold any
+     * valid data besides his uuid. The complete user will be loaded in the background and cached afterwards, whereafter the
+     * {@link UserLoadedEvent} will be fired.</p>
      *
      * @param userId                  the UUID of the user to create.
-     * @param loadPunishmentsDirectly whether to load the punishments directly or not. This influences if punishments are
-     *                                loaded asynchronously or not. If set to true, punishments will be loaded blocking.
+     * @param loadPunishmentsDirectly whether to load the user directly or not. If set to true, the user will be loaded
+     *                                blocking.
      * @return the created user.
+     * @throws IllegalStateException if the user should be loaded directly, but waiting for it would deadlock the
+     *                               plugin's executor the current thread belongs to
      */
     //TODO allow for other implementations of UserManager to work with this -- extract this into its own class (with
     //TODO maybe some other internal stuff) and make it a component like user manager etc.
@@ -439,28 +475,17 @@ public class NecrifyVelocityPlugin extends AbstractNecrifyPlugin {
         if (cachedUser.isPresent()) {
             return cachedUser.get();
         }
-        var user = new VelocityUser(userId, "unknown (NVP_createUser)", false, this);
-        Runnable loadPunishments = () -> {
-            var loader = new UserLoader(user);
-            Query.query("SELECT type, expiration, reason, punishment_id, successor, issued_at FROM necrify_punishment WHERE uuid = ?;")
-                    .single(Call.of().bind(userId, Adapters.UUID_ADAPTER))
-                    .map(loader::addDataFromRow)
-                    .all();
-            ((VelocityUserManager) userManager).loadPunishmentsToUser(loader);
-            /* Caching this user instance leads to a whitelist bug!
-            When a user joins, a user instance is constructed via this method. Since this method does not load user information
-            data is not accessible. If this user then gets
-            cached, it may get returned when the ConnectListener checks the whitelist status. As sometimes no data has been loaded,
-            the entry to the server is blocked due to not being whitelisted.
-            Calling the UserLoadedEvent will cache the user and leads to the same result!
-             */
-        };
+        var loading = getUserManager().loadUser(userId);
         if (loadPunishmentsDirectly) {
-            loadPunishments.run();
-        } else {
-            getExecutor().execute(loadPunishments);
+            var loaded = Util.join(loading);
+            if (loaded.isPresent()) {
+                return loaded.get();
+            }
         }
-        return user;
+        /* This placeholder instance must not be cached as it does not hold the user's data (e.g. whitelist status).
+        The complete user instance will be cached as soon as it is loaded.
+         */
+        return new VelocityUser(userId, "unknown (NVP_createUser)", false, this);
     }
 
     public CommandSource getCommandSource(NecrifyUser user) {
@@ -18,18 +18,13 @@
 
 package de.jvstvshd.necrify.velocity.impl;
 
-import com.google.gson.JsonElement;
-import com.google.gson.JsonParser;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.necrify.api.punishment.util.PlayerResolver;
+import de.jvstvshd.necrify.common.AbstractNecrifyPlugin;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -40,9 +35,11 @@ import java.util.concurrent.Executor;
 public class DefaultPlayerResolver implements PlayerResolver {
 
     private final ProxyServer proxyServer;
+    private final AbstractNecrifyPlugin plugin;
 
-    public DefaultPlayerResolver(ProxyServer proxyServer) {
+    public DefaultPlayerResolver(ProxyServer proxyServer, AbstractNecrifyPlugin plugin) {
         this.proxyServer = proxyServer;
+        this.plugin = plugin;
     }
 
     @Override
@@ -53,19 +50,7 @@ public class DefaultPlayerResolver implements PlayerResolver {
 
     @Override
     public CompletableFuture<String> queryPlayerName(@NotNull UUID uuid, @NotNull Executor executor) {
-        CompletableFuture<String> cf = new CompletableFuture<>();
-        executor.execute(() -> {
-            try {
-                HttpClient httpClient = HttpClient.newHttpClient();
-                HttpRequest request = HttpRequest.newBuilder(URI.create("https://sessionserver.mojang.com/session/minecraft/profile/" + uuid)).GET().build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                JsonElement jsonElement = JsonParser.parseString(response.body());
-                cf.complete(jsonElement.getAsJsonObject().get("name").getAsString());
-            } catch (Exception e) {
-                cf.completeExceptionally(e);
-            }
-        });
-        return cf;
+        return plugin.getProfileResolver().getName(uuid).thenApply(name -> name.orElse(null));
     }
 
     @Override
@@ -84,38 +69,8 @@ public class DefaultPlayerResolver implements PlayerResolver {
 
     @Override
     public CompletableFuture<UUID> queryPlayerUuid(@NotNull String name, @NotNull Executor executor) {
-        CompletableFuture<UUID> cf = new CompletableFuture<>();
-        executor.execute(() -> {
-            try {
-                HttpClient httpClient = HttpClient.newHttpClient();
-                HttpRequest request = HttpRequest.newBuilder(URI.create("https://api.mojang.com/users/profiles/minecraft/" + name)).GET().build();
-                HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-                JsonElement jsonElement = JsonParser.parseString(response.body());
-                if (jsonElement == null || jsonElement.isJsonNull()) {
-                    cf.complete(null);
-                    return;
-                }
-                var idElement = jsonElement.getAsJsonObject().get("id");
-                if (idElement == null) {
-                    //TODO rework with return type as Optional
-                    cf.complete(null);
-                    return;
-                }
-                var result = idElement.getAsString();
-                UUID uuid;
-                try {
-                    uuid = UUID.fromString(result);
-                } catch (IllegalArgumentException e) {
-                    uuid = UUID.fromString(result.replaceAll(
-                            "(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})",
-                            "$1-$2-$3-$4-$5"));
-                }
-                cf.complete(uuid);
-            } catch (Exception e) {
-                cf.completeExceptionally(e);
-            }
-        });
-        return cf;
+        //TODO rework with return type as Optional
+        return plugin.getProfileResolver().getUuid(name).thenApply(uuid -> uuid.orElse(null));
     }
 
     @Override
@@ -34,8 +34,6 @@ import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 @Deprecated(since = "1.2.0", forRemoval = true)
 @ApiStatus.ScheduledForRemoval(inVersion = "1.3.0")
@@ -43,7 +41,6 @@ public class DefaultPunishmentManager implements PunishmentManager {
 
     private final ProxyServer proxyServer;
     private final HikariDataSource dataSource;
-    private final ExecutorService service = Executors.newCachedThreadPool();
     private final NecrifyVelocityPlugin plugin;
 
     public DefaultPunishmentManager(ProxyServer proxyServer, HikariDataSource dataSource, NecrifyVelocityPlugin plugin) {
@@ -70,9 +67,9 @@ public class DefaultPunishmentManager implements PunishmentManager {
                 .buildMute();
     }
 
-    //temporary workaround so that this class still functions
+    //temporary workaround so that this class still functions; see Util#join for blocking on the plugin's executors
     private NecrifyUser getUser(UUID uuid) {
-        return plugin.getUserManager().loadOrCreateUser(uuid).join().get();
+        return Util.join(plugin.getUserManager().loadOrCreateUser(uuid)).get();
     }
 
     private CompletableFuture<NecrifyUser> loadUser(UUID uuid) {
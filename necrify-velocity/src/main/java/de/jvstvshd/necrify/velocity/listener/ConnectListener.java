@@ -18,6 +18,7 @@
 
 package de.jvstvshd.necrify.velocity.listener;
 
+import com.velocitypowered.api.event.EventTask;
 import com.velocitypowered.api.event.ResultedEvent;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.LoginEvent;
@@ -32,36 +33,60 @@ import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
 import java.util.*;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 public final class ConnectListener {
     private final NecrifyVelocityPlugin plugin;
-    private final ExecutorService service;
     private final ProxyServer proxyServer;
 
-    public ConnectListener(NecrifyVelocityPlugin plugin,
-                           ExecutorService service, ProxyServer proxyServer) {
+    public ConnectListener(NecrifyVelocityPlugin plugin, ProxyServer proxyServer) {
         this.plugin = plugin;
-        this.service = service;
         this.proxyServer = proxyServer;
     }
 
+    /**
+     * Checks the joining player against the whitelist and their active bans. The login is suspended until the player's
+     * data is loaded instead of blocking one of Velocity's event threads. If the data cannot be loaded within the
+     * configured deadline or an error occurs, the configured failure policy decides whether the player may join.
+     * Players that are not affected by any active ban or mute according to the plugin's active punishment index are
+     * admitted right away without any database access, given the whitelist is not active. No user is created in the
+     * database for such players when they join for the first time.
+     *
+     * @param event the login event
+     * @return an event task that resumes the login as soon as all checks have been completed or null if no checks are necessary
+     */
     @Subscribe
-    public void onConnect(LoginEvent event) {
-        NecrifyUser user;
-        try {
-            var userResult = plugin.getUserManager().loadOrCreateUser(event.getPlayer().getUniqueId()).get(10, TimeUnit.SECONDS);
-            if (userResult.isEmpty()) {
-                //there is no user instance for the joined player in the database, therefore he has never been punished, so he can join
-                return;
-            }
-            user = userResult.get();
-        } catch (Exception e) {
-            plugin.getLogger().error("Cannot retrieve user instance for player {} ({})", event.getPlayer().getUsername(), event.getPlayer().getUniqueId(), e);
-            event.setResult(ResultedEvent.ComponentResult.denied(plugin.getMessageProvider().internalError()));
-            return;
+    public EventTask onConnect(LoginEvent event) {
+        var loginConfig = plugin.getConfig().getConfiguration().getLoginConfigData();
+        var index = plugin.getActivePunishmentIndex();
+        var notificationsSupported = plugin.getConfig().getConfiguration().getDataBaseData().getSqlType().startsWith("postgres");
+        if (loginConfig.isSkipUnpunishedPlayers(notificationsSupported) && !plugin.isWhitelistActive() && index.isLoaded() && !index.isPunished(event.getPlayer().getUniqueId())) {
+            return null;
         }
+        var future = plugin.getUserManager().loadOrCreateUser(event.getPlayer().getUniqueId(), event.getPlayer().getUsername())
+                .copy()
+                .orTimeout(loginConfig.getTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .handle((userResult, throwable) -> {
+                    if (throwable != null) {
+                        handleFailure(event, throwable, loginConfig.isDenyOnFailure());
+                        return null;
+                    }
+                    //there is no user instance for the joined player in the database, therefore he has never been punished, so he can join
+                    userResult.ifPresent(user -> {
+                        try {
+                            enforce(event, user);
+                        } catch (Exception e) {
+                            handleFailure(event, e, loginConfig.isDenyOnFailure());
+                        }
+                    });
+                    return null;
+                });
+        return EventTask.resumeWhenComplete(future);
+    }
+
+    private void enforce(LoginEvent event, NecrifyUser user) {
         List<Punishment> punishments = new ArrayList<>(user.getPunishments());
         if (plugin.isWhitelistActive()) {
             if (!user.isWhitelisted()) {
@@ -95,26 +120,36 @@ public final class ConnectListener {
         event.setResult(ResultedEvent.ComponentResult.denied(deny));
     }
 
+    private void handleFailure(LoginEvent event, Throwable throwable, boolean deny) {
+        var cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (cause instanceof TimeoutException) {
+            plugin.getLogger().error("Login checks for player {} ({}) did not complete in time", event.getPlayer().getUsername(), event.getPlayer().getUniqueId());
+        } else {
+            plugin.getLogger().error("Cannot retrieve user instance for player {} ({})", event.getPlayer().getUsername(), event.getPlayer().getUniqueId(), cause);
+        }
+        if (deny) {
+            event.setResult(ResultedEvent.ComponentResult.denied(plugin.getMessageProvider().internalError()));
+        }
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj == this) return true;
         if (obj == null || obj.getClass() != this.getClass()) return false;
         var that = (ConnectListener) obj;
         return Objects.equals(this.plugin, that.plugin) &&
-                Objects.equals(this.service, that.service) &&
                 Objects.equals(this.proxyServer, that.proxyServer);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(plugin, service, proxyServer);
+        return Objects.hash(plugin, proxyServer);
     }
 
     @Override
     public String toString() {
         return "ConnectListener[" +
                 "plugin=" + plugin + ", " +
-                "service=" + service + ", " +
                 "proxyServer=" + proxyServer + ']';
     }
 }
@@ -21,7 +21,7 @@ package de.jvstvshd.necrify.velocity.user;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
-import com.velocitypowered.api.event.connection.LoginEvent;
+import com.velocitypowered.api.event.connection.PostLoginEvent;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import de.jvstvshd.necrify.api.event.punishment.PunishmentCancelledEvent;
@@ -50,9 +50,7 @@ public class VelocityUserManager extends AbstractUserManager<VelocityUser> {
     @Override
     public VelocityUser constructUser(UUID uuid, String playerName, boolean whitelisted, AbstractNecrifyPlugin plugin) {
         //TODO remove cast with introduction of proper storage abstraction
-        var user = new VelocityUser(uuid, playerName, whitelisted, server.getPlayer(uuid).orElse(null), (NecrifyVelocityPlugin) plugin);
-        user.loadTemplateStages();
-        return user;
+        return new VelocityUser(uuid, playerName, whitelisted, server.getPlayer(uuid).orElse(null), (NecrifyVelocityPlugin) plugin);
     }
 
     @Override
@@ -60,22 +58,38 @@ public class VelocityUserManager extends AbstractUserManager<VelocityUser> {
         return server.getPlayer(name).map(Player::getUniqueId);
     }
 
+    @Override
+    public Optional<String> getNameIfOnline(UUID uuid) {
+        return server.getPlayer(uuid).map(Player::getUsername);
+    }
+
+    @Override
+    public boolean isOnline(UUID uuid) {
+        return server.getPlayer(uuid).isPresent();
+    }
+
     @Subscribe
     public void onPlayerDisconnect(DisconnectEvent event) {
         var player = event.getPlayer();
         var uuid = player.getUniqueId();
-        var user = getUserCache().getIfPresent(uuid);
+        var user = unpin(uuid);
         if (user == null) return;
         user.setPlayer(null);
     }
 
+    /**
+     * Pins the user of a player that just joined. The player is registered at the proxy once this event is fired and
+     * the user loaded by the login checks is cached by then, so it is pinned regardless of the order of the listeners.
+     * Users that are loaded afterwards are pinned by {@link #cache(VelocityUser)} since their player is online.
+     *
+     * @param event the post login event
+     */
     @Subscribe
-    public void onPlayerJoin(LoginEvent event) {
+    public void onPlayerJoin(PostLoginEvent event) {
         var player = event.getPlayer();
         var uuid = player.getUniqueId();
-        var user = getUserCache().getIfPresent(uuid);
-        if (user == null) return;
-        user.setPlayer(player);
+        //the user may also have been pinned already if it was loaded after the player was registered
+        getLoadedUser(uuid).ifPresent(user -> pin((VelocityUser) user).setPlayer(player));
     }
 
     @org.greenrobot.eventbus.Subscribe(priority = Integer.MAX_VALUE)
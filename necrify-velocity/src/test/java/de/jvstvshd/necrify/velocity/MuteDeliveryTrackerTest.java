@@ -0,0 +1,161 @@
+/*
+ * This file is part of Necrify (formerly Velocity Punishment), a plugin designed to manage player's punishments for the platforms Velocity and partly Paper.
+ * Copyright (C) 2022-2025 JvstvsHD
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package de.jvstvshd.necrify.velocity;
+
+import de.jvstvshd.necrify.common.plugin.MuteData;
+import de.jvstvshd.necrify.common.plugin.MuteDataCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MuteDeliveryTrackerTest {
+
+    private static final String SERVER = "lobby";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final MuteDeliveryTracker<String> tracker = new MuteDeliveryTracker<>(now::get);
+    private final UUID player = UUID.randomUUID();
+
+    private MuteData muteData(long sequence) {
+        return new MuteData(player, "reason", LocalDateTime.now().plusDays(1), MuteData.RECALCULATION, UUID.randomUUID())
+                .withSequence(sequence);
+    }
+
+    private void acknowledge(long sequence) {
+        tracker.acknowledge(SERVER, List.of(new MuteDataCodec.Acknowledgement(player, sequence)));
+    }
+
+    @Test
+    public void testAcknowledgement() {
+        var muteData = muteData(10);
+        tracker.track(SERVER, List.of(muteData));
+        assertSame(muteData, tracker.pending(SERVER, player));
+
+        now.addAndGet(40);
+        acknowledge(10);
+        assertNull(tracker.pending(SERVER, player));
+        var statistics = tracker.statistics().get(SERVER);
+        assertEquals(1, statistics.sent());
+        assertEquals(1, statistics.acknowledged());
+        assertEquals(0, statistics.pending());
+        assertEquals(40, statistics.maxLatencyMillis());
+    }
+
+    @Test
+    public void testOlderAcknowledgementDoesNotClearNewerData() {
+        tracker.track(SERVER, List.of(muteData(10)));
+        var newer = muteData(11);
+        tracker.track(SERVER, List.of(newer));
+
+        acknowledge(10);
+        assertSame(newer, tracker.pending(SERVER, player));
+        assertEquals(0, tracker.statistics().get(SERVER).acknowledged());
+
+        acknowledge(11);
+        assertNull(tracker.pending(SERVER, player));
+    }
+
+    @Test
+    public void testOlderSendDoesNotReplaceNewerData() {
+        var newer = muteData(11);
+        tracker.track(SERVER, List.of(newer));
+        tracker.track(SERVER, List.of(muteData(10)));
+        assertSame(newer, tracker.pending(SERVER, player));
+    }
+
+    @Test
+    public void testRetryWithBackoff() {
+        var muteData = muteData(10);
+        tracker.track(SERVER, List.of(muteData));
+        now.addAndGet(MuteDeliveryTracker.INITIAL_ACK_TIMEOUT.toMillis() - 1);
+        assertTrue(tracker.pollRetries().isEmpty());
+
+        now.addAndGet(1);
+        var retries = tracker.pollRetries().get(SERVER);
+        assertEquals(List.of(muteData), retries.due());
+        assertTrue(retries.givenUp().isEmpty());
+        //the timeout is doubled after the first retry
+        now.addAndGet(MuteDeliveryTracker.INITIAL_ACK_TIMEOUT.toMillis());
+        assertTrue(tracker.pollRetries().isEmpty());
+        now.addAndGet(MuteDeliveryTracker.INITIAL_ACK_TIMEOUT.toMillis());
+        assertEquals(List.of(muteData), tracker.pollRetries().get(SERVER).due());
+        assertEquals(2, tracker.statistics().get(SERVER).retried());
+    }
+
+    @Test
+    public void testDeliveryIsGivenUpAfterMaxAttempts() {
+        var muteData = muteData(10);
+        tracker.track(SERVER, List.of(muteData));
+        int retries = 0;
+        MuteDeliveryTracker.Retries result;
+        do {
+            now.addAndGet(MuteDeliveryTracker.MAX_ACK_TIMEOUT.toMillis());
+            result = tracker.pollRetries().get(SERVER);
+            assertNotNull(result);
+            retries += result.due().size();
+        } while (result.givenUp().isEmpty());
+
+        assertEquals(MuteDeliveryTracker.MAX_DELIVERY_ATTEMPTS - 1, retries);
+        assertEquals(List.of(muteData), result.givenUp());
+        assertTrue(result.due().isEmpty());
+        assertNull(tracker.pending(SERVER, player));
+        var statistics = tracker.statistics().get(SERVER);
+        assertEquals(1, statistics.failed());
+        assertEquals(0, statistics.pending());
+
+        now.addAndGet(MuteDeliveryTracker.MAX_ACK_TIMEOUT.toMillis());
+        assertTrue(tracker.pollRetries().isEmpty());
+    }
+
+    @Test
+    public void testRetryDoesNotOverwriteNewerSend() {
+        tracker.track(SERVER, List.of(muteData(10)));
+        for (int i = 1; i < MuteDeliveryTracker.MAX_DELIVERY_ATTEMPTS; i++) {
+            now.addAndGet(MuteDeliveryTracker.MAX_ACK_TIMEOUT.toMillis());
+            tracker.pollRetries();
+        }
+        //the older mute data is due to be given up on, but newer mute data was sent in the meantime
+        now.addAndGet(MuteDeliveryTracker.MAX_ACK_TIMEOUT.toMillis());
+        var newer = muteData(11);
+        tracker.track(SERVER, List.of(newer));
+        assertTrue(tracker.pollRetries().isEmpty());
+        assertSame(newer, tracker.pending(SERVER, player));
+        assertEquals(0, tracker.statistics().get(SERVER).failed());
+
+        now.addAndGet(MuteDeliveryTracker.INITIAL_ACK_TIMEOUT.toMillis());
+        assertEquals(List.of(newer), tracker.pollRetries().get(SERVER).due());
+        assertSame(newer, tracker.pending(SERVER, player));
+    }
+
+    @Test
+    public void testForget() {
+        tracker.track(SERVER, List.of(muteData(10)));
+        tracker.track("survival", List.of(muteData(11)));
+        tracker.forget(SERVER, player);
+        assertNull(tracker.pending(SERVER, player));
+        assertNotNull(tracker.pending("survival", player));
+        tracker.forget(player);
+        assertNull(tracker.pending("survival", player));
+    }
+}